@@ -0,0 +1,16 @@
+package com.example.apigateway.config;
+
+import com.example.apigateway.loadbalancer.PeakEwmaLoadBalancerConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Балансировка маршрутов `lb://` между экземплярами, перечисленными
+ * в `spring.cloud.discovery.client.simple.instances`.
+ */
+@Configuration
+@EnableConfigurationProperties(LoadBalancingProperties.class)
+@LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerConfiguration.class)
+public class LoadBalancingConfig {
+}
@@ -0,0 +1,38 @@
+package com.example.apigateway.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки выбора экземпляра сервиса для маршрутов `lb://`.
+ * Значения задаются в `application.yml` в разделе `load-balancing`.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "load-balancing")
+public class LoadBalancingProperties {
+
+    /**
+     * Время, за которое влияние прошлых замеров задержки убывает в e раз.
+     */
+    private Duration decayTime = Duration.ofSeconds(10);
+
+    /**
+     * Количество ошибок подряд, после которого экземпляр временно исключается.
+     */
+    private int failureThreshold = 5;
+
+    /**
+     * На сколько исключается экземпляр.
+     */
+    private Duration ejectionTime = Duration.ofSeconds(30);
+
+    /**
+     * Задержка, которая засчитывается экземпляру при ошибке. Без неё быстро отказывающий экземпляр
+     * выглядел бы самым быстрым и получал бы больше запросов.
+     */
+    private Duration failurePenalty = Duration.ofSeconds(1);
+}
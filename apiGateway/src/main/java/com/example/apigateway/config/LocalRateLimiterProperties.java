@@ -0,0 +1,44 @@
+package com.example.apigateway.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Общие настройки локального ограничителя частоты запросов.
+ * Значения задаются в `application.yml` в разделе `local-rate-limiter`.
+ * Лимиты отдельных маршрутов задаются в аргументах фильтра `RequestRateLimiter`
+ * с префиксом `local-rate-limiter.`; значения ниже используются для маршрутов без собственных лимитов.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "local-rate-limiter")
+public class LocalRateLimiterProperties {
+
+    /**
+     * Количество запросов в секунду от одного клиента.
+     */
+    private int replenishRate = 20;
+
+    /**
+     * Максимальный всплеск запросов от одного клиента.
+     */
+    private int burstCapacity = 40;
+
+    /**
+     * Количество запросов в секунду на маршрут от всех клиентов вместе. 0 — без ограничения.
+     */
+    private int routeReplenishRate = 0;
+
+    /**
+     * Максимальный всплеск запросов на маршрут от всех клиентов вместе.
+     */
+    private int routeBurstCapacity = 0;
+
+    /**
+     * Период очистки состояния клиентов, не отправлявших запросы.
+     */
+    private Duration sweepInterval = Duration.ofMinutes(1);
+}
@@ -0,0 +1,29 @@
+package com.example.apigateway.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+@Configuration
+@EnableConfigurationProperties(LocalRateLimiterProperties.class)
+public class RateLimiterConfig {
+
+    /**
+     * Клиент для ограничения частоты запросов определяется по IP-адресу подключения.
+     * Заголовок X-Forwarded-For не используется: его может подставить сам клиент.
+     */
+    @Bean
+    public KeyResolver clientKeyResolver() {
+        return exchange -> {
+            InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+            if (remoteAddress == null || remoteAddress.getAddress() == null) {
+                return Mono.empty();
+            }
+            return Mono.just(remoteAddress.getAddress().getHostAddress());
+        };
+    }
+}
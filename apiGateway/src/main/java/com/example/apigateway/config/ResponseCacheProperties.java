@@ -0,0 +1,33 @@
+package com.example.apigateway.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Настройки кэша ответов шлюза.
+ * Значения задаются в `application.yml` в разделе `response-cache`.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "response-cache")
+public class ResponseCacheProperties {
+
+    /**
+     * Максимальный суммарный объём закэшированных ответов.
+     */
+    private DataSize maxMemory = DataSize.ofMegabytes(64);
+
+    /**
+     * Максимальный размер одного ответа. Ответы большего размера передаются без кэширования.
+     */
+    private DataSize maxEntrySize = DataSize.ofKilobytes(512);
+
+    /**
+     * Время жизни ответа, если для маршрута оно не задано.
+     */
+    private Duration defaultTtl = Duration.ofSeconds(60);
+}
@@ -0,0 +1,12 @@
+package com.example.apigateway.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Метрики задержки, запросов в работе и объёма трафика по маршрутам шлюза.
+ */
+@Configuration
+@EnableConfigurationProperties(RouteMetricsProperties.class)
+public class RouteMetricsConfig {
+}
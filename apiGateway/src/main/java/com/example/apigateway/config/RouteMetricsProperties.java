@@ -0,0 +1,32 @@
+package com.example.apigateway.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки метрик задержки маршрутов шлюза.
+ * Значения задаются в `application.yml` в разделе `route-metrics`.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "route-metrics")
+public class RouteMetricsProperties {
+
+    /**
+     * Окно, за которое считаются перцентили в `/actuator/routelatency`.
+     */
+    private Duration percentileWindow = Duration.ofMinutes(1);
+
+    /**
+     * Нижняя граница корзин гистограммы задержки.
+     */
+    private Duration minExpectedLatency = Duration.ofNanos(100_000);
+
+    /**
+     * Верхняя граница корзин гистограммы задержки.
+     */
+    private Duration maxExpectedLatency = Duration.ofSeconds(30);
+}
@@ -0,0 +1,94 @@
+package com.example.apigateway.filter;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Чтение тела ответа сервиса в память с ограничением размера.
+ * Тело накапливается до лимита; если лимит превышен, накопленные и оставшиеся буферы
+ * передаются клиенту потоком как есть.
+ */
+final class BodyCapture {
+
+    private BodyCapture() {
+    }
+
+    /**
+     * @param body       Тело ответа сервиса.
+     * @param maxSize    Максимальный размер тела в байтах.
+     * @param onComplete Получает тело целиком и возвращает то, что нужно записать клиенту.
+     * @param onOverflow Вызывается, если тело больше лимита.
+     * @return Буферы для записи клиенту.
+     */
+    static Flux<DataBuffer> capture(Publisher<? extends DataBuffer> body, int maxSize,
+                                    Function<byte[], Publisher<DataBuffer>> onComplete,
+                                    Runnable onOverflow) {
+        return Flux.defer(() -> {
+            Limit limit = new Limit(maxSize);
+            Flux<List<DataBuffer>> chunks = Flux.from(body)
+                    .<DataBuffer>map(buffer -> buffer)
+                    .bufferUntil(limit::exceeded);
+
+            return chunks.switchOnFirst((first, rest) -> {
+                if (first.hasValue() && !limit.isExceeded()) {
+                    return onComplete.apply(join(first.get()));
+                }
+                if (first.isOnComplete()) {
+                    return onComplete.apply(new byte[0]);
+                }
+                if (first.hasValue()) {
+                    onOverflow.run();
+                }
+                return rest.concatMapIterable(buffers -> buffers);
+            });
+        });
+    }
+
+    private static byte[] join(List<DataBuffer> buffers) {
+        int size = 0;
+        for (DataBuffer buffer : buffers) {
+            size += buffer.readableByteCount();
+        }
+        byte[] body = new byte[size];
+        int offset = 0;
+        for (DataBuffer buffer : buffers) {
+            int length = buffer.readableByteCount();
+            buffer.read(body, offset, length);
+            offset += length;
+            DataBufferUtils.release(buffer);
+        }
+        return body;
+    }
+
+    /**
+     * Счётчик размера тела. Используется как условие `bufferUntil`:
+     * до превышения лимита буферы накапливаются, после — передаются по одному.
+     */
+    private static class Limit {
+
+        private final int maxSize;
+        private long size;
+        private boolean exceeded;
+
+        Limit(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        boolean exceeded(DataBuffer buffer) {
+            if (!exceeded) {
+                size += buffer.readableByteCount();
+                exceeded = size > maxSize;
+            }
+            return exceeded;
+        }
+
+        boolean isExceeded() {
+            return exceeded;
+        }
+    }
+}
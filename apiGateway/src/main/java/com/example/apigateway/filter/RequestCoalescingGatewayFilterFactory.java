@@ -0,0 +1,279 @@
+package com.example.apigateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Фильтр маршрута, объединяющий одинаковые одновременные GET-запросы в один запрос к сервису.
+ * <p>
+ * Первый запрос с данным ключом (маршрут, путь, строка запроса и настроенные заголовки) становится
+ * ведущим и уходит в сервис; запросы с тем же ключом, пришедшие до его завершения, ждут и получают
+ * копию его ответа. Если ведущий завершился ошибкой, ожидающие получают ту же ошибку.
+ * Если ответ не удалось разделить (тело больше `max-body-size`, потоковый ответ или ведущий
+ * запрос отменён клиентом), ожидающие запросы выполняются самостоятельно.
+ * <p>
+ * Запросы с заголовками `Authorization`, `Cookie` или `Range`, не входящими в ключ, не объединяются.
+ * <p>
+ * Счётчик `gateway.requests.coalescing` с тегами `route` и `outcome` показывает,
+ * сколько запросов ушло в сервис (`leader`) и сколько получили чужой ответ (`collapsed`).
+ * Счётчики всех исходов регистрируются при первом запросе маршрута и дальше берутся из карты по маршруту.
+ */
+@Component
+public class RequestCoalescingGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<RequestCoalescingGatewayFilterFactory.Config> {
+
+    static final String METRIC_NAME = "gateway.requests.coalescing";
+
+    /**
+     * Заголовки, при наличии которых ответ зависит от конкретного клиента.
+     */
+    private static final List<String> PRIVATE_HEADERS =
+            List.of(HttpHeaders.AUTHORIZATION, HttpHeaders.COOKIE, HttpHeaders.RANGE);
+
+    /**
+     * Заголовки ответа ведущего запроса, которые не передаются ожидающим.
+     */
+    private static final Set<String> SKIPPED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        SKIPPED_HEADERS.addAll(List.of(
+                HttpHeaders.CONNECTION, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONTENT_LENGTH,
+                HttpHeaders.DATE, "Keep-Alive", HttpHeaders.SET_COOKIE));
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Map<CoalescingKey, Sinks.One<SharedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, RouteCounters> counters = new ConcurrentHashMap<>();
+
+    public RequestCoalescingGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<String> keyHeaders = List.copyOf(config.getHeaders());
+        List<String> privateHeaders = PRIVATE_HEADERS.stream()
+                .filter(header -> keyHeaders.stream().noneMatch(header::equalsIgnoreCase))
+                .toList();
+        int maxBodySize = Math.toIntExact(config.getMaxBodySize().toBytes());
+
+        GatewayFilter filter = (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (!HttpMethod.GET.equals(request.getMethod())
+                    || privateHeaders.stream().anyMatch(request.getHeaders()::containsKey)) {
+                return chain.filter(exchange);
+            }
+
+            String routeId = routeId(exchange);
+            RouteCounters routeCounters = counters(routeId);
+            List<String> headerValues = new ArrayList<>(keyHeaders.size());
+            for (String header : keyHeaders) {
+                headerValues.add(String.join(",", request.getHeaders().getOrEmpty(header)));
+            }
+            CoalescingKey key = new CoalescingKey(
+                    routeId, request.getURI().getRawPath(), request.getURI().getRawQuery(), headerValues);
+
+            Sinks.One<SharedResponse> sink = Sinks.one();
+            Sinks.One<SharedResponse> leader = inFlight.putIfAbsent(key, sink);
+            if (leader != null) {
+                return follow(exchange, chain, routeCounters, leader, config.getTimeout());
+            }
+            return lead(exchange, chain, routeCounters, key, sink, maxBodySize);
+        };
+
+        // Фильтр подменяет ответ, поэтому должен выполниться раньше фильтра, записывающего ответ клиенту
+        return new OrderedGatewayFilter(filter, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> lead(ServerWebExchange exchange, GatewayFilterChain chain, RouteCounters routeCounters,
+                            CoalescingKey key, Sinks.One<SharedResponse> sink, int maxBodySize) {
+        routeCounters.leader().increment();
+        LeaderResponse response = new LeaderResponse(exchange.getResponse(), key, sink, maxBodySize);
+        return chain.filter(exchange.mutate().response(response).build())
+                .doOnError(response::fail)
+                // Если ответ так и не был разделён (например, клиент отключился), ожидающие выполнятся сами
+                .doFinally(signal -> response.release());
+    }
+
+    private Mono<Void> follow(ServerWebExchange exchange, GatewayFilterChain chain, RouteCounters routeCounters,
+                              Sinks.One<SharedResponse> leader, Duration timeout) {
+        return leader.asMono()
+                .timeout(timeout)
+                .onErrorResume(error -> {
+                    if (error instanceof TimeoutException) {
+                        routeCounters.timeout().increment();
+                        return Mono.error(new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT,
+                                "Не дождались ответа на объединённый запрос"));
+                    }
+                    routeCounters.error().increment();
+                    return Mono.error(error);
+                })
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(shared -> {
+                    if (shared.isPresent()) {
+                        routeCounters.collapsed().increment();
+                        return writeShared(exchange.getResponse(), shared.get());
+                    }
+                    routeCounters.fallback().increment();
+                    return chain.filter(exchange);
+                });
+    }
+
+    private static Mono<Void> writeShared(ServerHttpResponse response, SharedResponse shared) {
+        response.setStatusCode(shared.status());
+        response.getHeaders().putAll(shared.headers());
+        response.getHeaders().setContentLength(shared.body().length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(shared.body())));
+    }
+
+    private RouteCounters counters(String routeId) {
+        RouteCounters routeCounters = counters.get(routeId);
+        return routeCounters != null ? routeCounters : counters.computeIfAbsent(routeId, this::register);
+    }
+
+    private RouteCounters register(String routeId) {
+        return new RouteCounters(
+                counter(routeId, "leader"),
+                counter(routeId, "collapsed"),
+                counter(routeId, "fallback"),
+                counter(routeId, "timeout"),
+                counter(routeId, "error"));
+    }
+
+    private Counter counter(String routeId, String outcome) {
+        return Counter.builder(METRIC_NAME)
+                .description("Запросы, прошедшие через объединение одинаковых GET-запросов")
+                .tag("route", routeId)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "";
+    }
+
+    /**
+     * Ответ ведущего запроса: тело читается в память и передаётся ожидающим запросам.
+     */
+    private class LeaderResponse extends ServerHttpResponseDecorator {
+
+        private final CoalescingKey key;
+        private final Sinks.One<SharedResponse> sink;
+        private final int maxBodySize;
+
+        LeaderResponse(ServerHttpResponse delegate, CoalescingKey key,
+                       Sinks.One<SharedResponse> sink, int maxBodySize) {
+            super(delegate);
+            this.key = key;
+            this.sink = sink;
+            this.maxBodySize = maxBodySize;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return super.writeWith(BodyCapture.capture(body, maxBodySize, this::share, this::release));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            // Потоковый ответ не разделяется: ожидающие не должны ждать его окончания
+            release();
+            return super.writeAndFlushWith(body);
+        }
+
+        private Flux<DataBuffer> share(byte[] body) {
+            HttpHeaders headers = new HttpHeaders();
+            getHeaders().forEach((name, values) -> {
+                // Заголовки ограничителя частоты относятся к конкретному клиенту
+                if (!SKIPPED_HEADERS.contains(name) && !name.regionMatches(true, 0, "X-RateLimit-", 0, 12)) {
+                    headers.put(name, List.copyOf(values));
+                }
+            });
+            HttpStatusCode status = getStatusCode() != null ? getStatusCode() : HttpStatus.OK;
+
+            inFlight.remove(key, sink);
+            sink.tryEmitValue(new SharedResponse(status, HttpHeaders.readOnlyHttpHeaders(headers), body));
+            return Flux.just(bufferFactory().wrap(body));
+        }
+
+        void fail(Throwable error) {
+            inFlight.remove(key, sink);
+            sink.tryEmitError(error);
+        }
+
+        void release() {
+            inFlight.remove(key, sink);
+            sink.tryEmitEmpty();
+        }
+    }
+
+    private record CoalescingKey(String routeId, String path, String query, List<String> headers) {
+    }
+
+    /**
+     * Счётчики исходов одного маршрута.
+     */
+    private record RouteCounters(Counter leader, Counter collapsed, Counter fallback, Counter timeout, Counter error) {
+    }
+
+    private record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+
+        /**
+         * Заголовки запроса, входящие в ключ объединения.
+         */
+        private List<String> headers = new ArrayList<>(List.of(HttpHeaders.ACCEPT, HttpHeaders.ORIGIN));
+
+        /**
+         * Сколько ожидающий запрос ждёт ответа ведущего, прежде чем вернуть 504.
+         */
+        private Duration timeout = Duration.ofSeconds(5);
+
+        /**
+         * Максимальный размер ответа, который передаётся ожидающим запросам.
+         */
+        private DataSize maxBodySize = DataSize.ofKilobytes(512);
+    }
+}
@@ -0,0 +1,329 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.config.ResponseCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import lombok.Getter;
+import lombok.Setter;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Фильтр маршрута, кэширующий ответы на GET-запросы в памяти шлюза.
+ * <p>
+ * Для каждого ответа вычисляется строгий ETag (SHA-256 тела), на запрос с совпадающим
+ * `If-None-Match` шлюз отвечает 304 без тела. Ответ кэшируется только целиком: если тело больше
+ * `response-cache.max-entry-size`, оно передаётся клиенту потоком без кэширования.
+ * <p>
+ * Изменяющий запрос (POST, PUT, PATCH, DELETE) через маршрут сбрасывает все ответы этого маршрута:
+ * изменение одного ресурса затрагивает и списки, и результаты поиска. Ключ ответа содержит номер
+ * поколения маршрута, поэтому ответ на GET, выполнявшийся одновременно с изменением,
+ * сохранится под старым ключом и больше не будет выдан.
+ * <p>
+ * В ответ добавляется заголовок `X-Cache`: `HIT` — ответ из кэша, `MISS` — ответ сервиса сохранён в кэш.
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    static final String CACHE_HEADER = "X-Cache";
+
+    private static final Set<HttpMethod> WRITE_METHODS =
+            Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+
+    /**
+     * Заголовки ответа, которые не сохраняются в кэше.
+     */
+    private static final Set<String> SKIPPED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        SKIPPED_HEADERS.addAll(List.of(
+                HttpHeaders.CONNECTION, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONTENT_LENGTH,
+                HttpHeaders.DATE, HttpHeaders.ETAG, HttpHeaders.AGE, "Keep-Alive", CACHE_HEADER));
+    }
+
+    /**
+     * Приблизительный объём памяти на запись помимо тела и заголовков.
+     */
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final ResponseCacheProperties properties;
+    private final Ticker ticker;
+    private final int maxEntrySize;
+    private final Cache<CacheKey, CachedResponse> cache;
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ResponseCacheGatewayFilterFactory(ResponseCacheProperties properties) {
+        this(properties, Ticker.systemTicker(), ForkJoinPool.commonPool());
+    }
+
+    ResponseCacheGatewayFilterFactory(ResponseCacheProperties properties, Ticker ticker, Executor executor) {
+        super(Config.class);
+        this.properties = properties;
+        this.ticker = ticker;
+        this.maxEntrySize = Math.toIntExact(properties.getMaxEntrySize().toBytes());
+        this.cache = Caffeine.newBuilder()
+                .ticker(ticker)
+                .executor(executor)
+                .maximumWeight(properties.getMaxMemory().toBytes())
+                .weigher((CacheKey key, CachedResponse value) -> value.weight())
+                .expireAfter(new Expiry<CacheKey, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(CacheKey key, CachedResponse value, long currentTime) {
+                        return value.ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(CacheKey key, CachedResponse value,
+                                                  long currentTime, long currentDuration) {
+                        return value.ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(CacheKey key, CachedResponse value,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttl");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        Duration ttl = config.getTtl() != null ? config.getTtl() : properties.getDefaultTtl();
+        Set<String> readOnlyPaths = Set.copyOf(config.getReadOnlyPaths());
+
+        GatewayFilter filter = (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            HttpMethod method = request.getMethod();
+            String routeId = routeId(exchange);
+
+            if (HttpMethod.GET.equals(method)) {
+                return get(exchange, chain, routeId, ttl);
+            }
+            if (WRITE_METHODS.contains(method) && !readOnlyPaths.contains(request.getPath().value())) {
+                // Сброс и до, и после запроса: GET, начатый во время изменения, не должен остаться в кэше
+                invalidate(routeId);
+                return chain.filter(exchange).doFinally(signal -> invalidate(routeId));
+            }
+            return chain.filter(exchange);
+        };
+
+        // Фильтр подменяет ответ, поэтому должен выполниться раньше фильтра, записывающего ответ клиенту
+        return new OrderedGatewayFilter(filter, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> get(ServerWebExchange exchange, GatewayFilterChain chain, String routeId, Duration ttl) {
+        ServerHttpRequest request = exchange.getRequest();
+        String requestCacheControl = request.getHeaders().getCacheControl();
+        if (requestCacheControl != null && requestCacheControl.contains("no-store")) {
+            return chain.filter(exchange);
+        }
+
+        CacheKey key = new CacheKey(
+                routeId,
+                generation(routeId).get(),
+                request.getURI().getRawPath(),
+                request.getURI().getRawQuery(),
+                request.getHeaders().getFirst(HttpHeaders.ACCEPT),
+                // Ответ содержит CORS-заголовки для конкретного Origin
+                request.getHeaders().getOrigin());
+
+        // no-cache — клиент просит получить ответ от сервиса, но результат всё равно можно сохранить
+        if (requestCacheControl == null || !requestCacheControl.contains("no-cache")) {
+            CachedResponse cached = cache.getIfPresent(key);
+            if (cached != null) {
+                return writeCached(exchange, cached);
+            }
+        }
+
+        CachingResponse response = new CachingResponse(exchange, key, ttl);
+        return chain.filter(exchange.mutate().response(response).build());
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.putAll(cached.headers());
+        headers.setETag(cached.etag());
+        headers.set(HttpHeaders.AGE, String.valueOf(cached.ageSeconds(ticker.read())));
+        headers.set(CACHE_HEADER, "HIT");
+
+        if (matchesIfNoneMatch(exchange.getRequest(), cached.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+
+        response.setStatusCode(HttpStatus.OK);
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.body())));
+    }
+
+    private AtomicLong generation(String routeId) {
+        return generations.computeIfAbsent(routeId, id -> new AtomicLong());
+    }
+
+    private void invalidate(String routeId) {
+        generation(routeId).incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.routeId().equals(routeId));
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "";
+    }
+
+    private static boolean matchesIfNoneMatch(ServerHttpRequest request, String etag) {
+        for (String candidate : request.getHeaders().getIfNoneMatch()) {
+            // Для If-None-Match используется слабое сравнение: префикс W/ не учитывается
+            String value = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    /**
+     * Ответ сервиса, который сохраняет тело в кэш, если оно поместилось в лимит.
+     */
+    private class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final CacheKey key;
+        private final Duration ttl;
+
+        CachingResponse(ServerWebExchange exchange, CacheKey key, Duration ttl) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.key = key;
+            this.ttl = ttl;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!isCacheable()) {
+                return super.writeWith(body);
+            }
+            return super.writeWith(BodyCapture.capture(body, maxEntrySize, this::store, () -> { }));
+        }
+
+        private boolean isCacheable() {
+            HttpHeaders headers = getHeaders();
+            String cacheControl = headers.getCacheControl();
+            return HttpStatus.OK.equals(getStatusCode())
+                    && !headers.containsKey(HttpHeaders.SET_COOKIE)
+                    && (cacheControl == null || !(cacheControl.contains("no-store") || cacheControl.contains("private")))
+                    && headers.getContentLength() <= maxEntrySize;
+        }
+
+        private Flux<DataBuffer> store(byte[] body) {
+            String etag = etag(body);
+            HttpHeaders headers = getHeaders();
+
+            HttpHeaders stored = new HttpHeaders();
+            headers.forEach((name, values) -> {
+                if (!SKIPPED_HEADERS.contains(name)) {
+                    stored.put(name, List.copyOf(values));
+                }
+            });
+            cache.put(key, new CachedResponse(HttpHeaders.readOnlyHttpHeaders(stored), body, etag, ttl, ticker.read()));
+
+            headers.setETag(etag);
+            headers.set(CACHE_HEADER, "MISS");
+            if (matchesIfNoneMatch(exchange.getRequest(), etag)) {
+                setStatusCode(HttpStatus.NOT_MODIFIED);
+                headers.remove(HttpHeaders.CONTENT_LENGTH);
+                headers.remove(HttpHeaders.TRANSFER_ENCODING);
+                return Flux.empty();
+            }
+            return Flux.just(bufferFactory().wrap(body));
+        }
+    }
+
+    private record CacheKey(String routeId, long generation, String path, String query, String accept, String origin) {
+    }
+
+    private record CachedResponse(HttpHeaders headers, byte[] body, String etag, Duration ttl, long createdAt) {
+
+        long ageSeconds(long now) {
+            return TimeUnit.NANOSECONDS.toSeconds(now - createdAt);
+        }
+
+        int weight() {
+            int weight = ENTRY_OVERHEAD + body.length;
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                weight += header.getKey().length();
+                for (String value : header.getValue()) {
+                    weight += value.length();
+                }
+            }
+            return weight;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+
+        /**
+         * Время жизни ответа. Если не задано, используется `response-cache.default-ttl`.
+         */
+        private Duration ttl;
+
+        /**
+         * Пути POST-запросов, которые только читают данные и не сбрасывают кэш маршрута.
+         */
+        private List<String> readOnlyPaths = new ArrayList<>();
+    }
+}
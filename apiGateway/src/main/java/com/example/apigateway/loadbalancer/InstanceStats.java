@@ -0,0 +1,92 @@
+package com.example.apigateway.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Статистика одного экземпляра сервиса: количество запросов в работе,
+ * пиковая экспоненциально сглаженная задержка (peak EWMA) и ошибки подряд.
+ */
+final class InstanceStats {
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final double decayNanos;
+
+    private double latency;
+    private long lastUpdate;
+    private boolean sampled;
+    private int consecutiveFailures;
+    private volatile boolean ejected;
+    private volatile long ejectedUntil;
+
+    InstanceStats(long decayNanos) {
+        this.decayNanos = decayNanos;
+    }
+
+    void start() {
+        outstanding.incrementAndGet();
+    }
+
+    void finish() {
+        outstanding.decrementAndGet();
+    }
+
+    int outstanding() {
+        return outstanding.get();
+    }
+
+    /**
+     * Учесть замер задержки. Рост задержки учитывается сразу, снижение — постепенно.
+     */
+    synchronized void recordLatency(long latencyNanos, long now) {
+        if (!sampled || latencyNanos > latency) {
+            latency = latencyNanos;
+            sampled = true;
+        } else {
+            double weight = Math.exp(-(now - lastUpdate) / decayNanos);
+            latency = latency * weight + latencyNanos * (1 - weight);
+        }
+        lastUpdate = now;
+    }
+
+    /**
+     * Задержка на момент `now`. Без новых замеров она убывает, поэтому экземпляр,
+     * который давно не получал запросов из-за высокой задержки, со временем снова будет выбран.
+     */
+    synchronized double latency(long now) {
+        if (!sampled) {
+            return 0;
+        }
+        return latency * Math.exp(-(now - lastUpdate) / decayNanos);
+    }
+
+    /**
+     * Стоимость отправки запроса на экземпляр: задержка с учётом запросов, уже находящихся в работе.
+     */
+    double cost(long now) {
+        return (latency(now) + 1) * (outstanding.get() + 1);
+    }
+
+    synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+    }
+
+    /**
+     * Учесть ошибку.
+     *
+     * @return true, если экземпляр исключён этой ошибкой.
+     */
+    synchronized boolean recordFailure(long now, int threshold, long ejectionNanos) {
+        consecutiveFailures++;
+        if (consecutiveFailures < threshold) {
+            return false;
+        }
+        consecutiveFailures = 0;
+        ejectedUntil = now + ejectionNanos;
+        ejected = true;
+        return true;
+    }
+
+    boolean isEjected(long now) {
+        return ejected && now - ejectedUntil < 0;
+    }
+}
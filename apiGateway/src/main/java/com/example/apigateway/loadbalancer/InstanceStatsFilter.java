@@ -0,0 +1,68 @@
+package com.example.apigateway.loadbalancer;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Set;
+
+/**
+ * Собирает статистику запросов к экземпляру, выбранному балансировщиком.
+ * Выполняется сразу после {@link ReactiveLoadBalancerClientFilter}. В отличие от
+ * `LoadBalancerLifecycle` учитывает и запросы, отменённые клиентом, поэтому счётчик
+ * запросов в работе не растёт бесконечно.
+ */
+@Component
+@RequiredArgsConstructor
+public class InstanceStatsFilter implements GlobalFilter, Ordered {
+
+    /**
+     * Ответы, говорящие о неисправности экземпляра, а не об ошибке в конкретном запросе.
+     */
+    private static final Set<Integer> INSTANCE_FAILURE_STATUSES = Set.of(
+            HttpStatus.BAD_GATEWAY.value(), HttpStatus.SERVICE_UNAVAILABLE.value(), HttpStatus.GATEWAY_TIMEOUT.value());
+
+    private final InstanceStatsRegistry registry;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Response<ServiceInstance> response = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (response == null || !response.hasServer()) {
+            return chain.filter(exchange);
+        }
+
+        ServiceInstance instance = response.getServer();
+        long startTime = registry.onStart(instance);
+        return chain.filter(exchange)
+                .doFinally(signal -> registry.onComplete(instance, startTime, outcome(exchange, signal)));
+    }
+
+    private static InstanceStatsRegistry.Outcome outcome(ServerWebExchange exchange, SignalType signal) {
+        if (signal == SignalType.CANCEL) {
+            return InstanceStatsRegistry.Outcome.CANCELLED;
+        }
+        if (signal == SignalType.ON_ERROR) {
+            return InstanceStatsRegistry.Outcome.FAILURE;
+        }
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        return status != null && INSTANCE_FAILURE_STATUSES.contains(status.value())
+                ? InstanceStatsRegistry.Outcome.FAILURE
+                : InstanceStatsRegistry.Outcome.SUCCESS;
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.apigateway.loadbalancer;
+
+import com.example.apigateway.config.LoadBalancingProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Статистика экземпляров сервисов, общая для балансировщиков всех маршрутов.
+ * Заполняется фильтром {@link InstanceStatsFilter} по результатам проксируемых запросов.
+ */
+@Slf4j
+@Component
+public class InstanceStatsRegistry {
+
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+    private final long decayNanos;
+    private final int failureThreshold;
+    private final long ejectionNanos;
+    private final long failurePenaltyNanos;
+
+    @Autowired
+    public InstanceStatsRegistry(LoadBalancingProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    InstanceStatsRegistry(LoadBalancingProperties properties, LongSupplier clock) {
+        this.clock = clock;
+        this.decayNanos = properties.getDecayTime().toNanos();
+        this.failureThreshold = properties.getFailureThreshold();
+        this.ejectionNanos = properties.getEjectionTime().toNanos();
+        this.failurePenaltyNanos = properties.getFailurePenalty().toNanos();
+    }
+
+    /**
+     * Экземпляры, не исключённые из-за ошибок. Если исключены все, возвращаются все:
+     * лучше попробовать неисправный экземпляр, чем сразу отказать клиенту.
+     */
+    List<ServiceInstance> available(List<ServiceInstance> instances) {
+        long now = clock.getAsLong();
+        List<ServiceInstance> available = new ArrayList<>(instances.size());
+        for (ServiceInstance instance : instances) {
+            if (!stats(instance).isEjected(now)) {
+                available.add(instance);
+            }
+        }
+        return available.isEmpty() ? instances : available;
+    }
+
+    double cost(ServiceInstance instance) {
+        return stats(instance).cost(clock.getAsLong());
+    }
+
+    /**
+     * Запрос отправлен на экземпляр.
+     *
+     * @return Время начала запроса для {@link #onComplete}.
+     */
+    long onStart(ServiceInstance instance) {
+        stats(instance).start();
+        return clock.getAsLong();
+    }
+
+    /**
+     * Запрос к экземпляру завершён.
+     *
+     * @param startTime Значение, полученное из {@link #onStart}.
+     * @param outcome   Результат запроса.
+     */
+    void onComplete(ServiceInstance instance, long startTime, Outcome outcome) {
+        InstanceStats instanceStats = stats(instance);
+        instanceStats.finish();
+
+        long now = clock.getAsLong();
+        long latency = now - startTime;
+        switch (outcome) {
+            case SUCCESS -> {
+                instanceStats.recordLatency(latency, now);
+                instanceStats.recordSuccess();
+            }
+            case FAILURE -> {
+                instanceStats.recordLatency(Math.max(latency, failurePenaltyNanos), now);
+                if (instanceStats.recordFailure(now, failureThreshold, ejectionNanos)) {
+                    log.warn("Экземпляр {} исключён на {} мс после {} ошибок подряд",
+                            key(instance), ejectionNanos / 1_000_000, failureThreshold);
+                }
+            }
+            case CANCELLED -> {
+                // Клиент отменил запрос: о состоянии экземпляра это ничего не говорит
+            }
+        }
+    }
+
+    private InstanceStats stats(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), key -> new InstanceStats(decayNanos));
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getServiceId() + "/" + instance.getHost() + ":" + instance.getPort();
+    }
+
+    enum Outcome {
+        SUCCESS,
+        FAILURE,
+        CANCELLED
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.apigateway.metrics;
+
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * Отметки времени одного запроса через шлюз.
+ * Хранится в атрибутах запроса, чтобы {@link UpstreamTimingFilter} мог отметить время обращения к сервису.
+ */
+final class RequestTiming {
+
+    static final String ATTRIBUTE = RequestTiming.class.getName();
+
+    final long startTime;
+    long upstreamStartTime;
+    long upstreamEndTime;
+    int errorStatus;
+
+    RequestTiming(long startTime) {
+        this.startTime = startTime;
+    }
+
+    static RequestTiming get(ServerWebExchange exchange) {
+        return exchange.getAttribute(ATTRIBUTE);
+    }
+
+    boolean hasUpstream() {
+        return upstreamStartTime != 0 && upstreamEndTime != 0;
+    }
+
+    long upstreamNanos() {
+        return upstreamEndTime - upstreamStartTime;
+    }
+}
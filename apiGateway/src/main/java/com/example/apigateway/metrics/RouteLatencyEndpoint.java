@@ -0,0 +1,65 @@
+package com.example.apigateway.metrics;
+
+import com.example.apigateway.config.RouteMetricsProperties;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Actuator-эндпоинт `/actuator/routelatency` с перцентилями задержки по маршрутам и статусам.
+ * Для каждого статуса отдельно показаны полное время, время сервиса (`upstream`)
+ * и время, добавленное шлюзом (`overhead`), в миллисекундах за последнее `route-metrics.percentile-window`.
+ */
+@Component
+@Endpoint(id = "routelatency")
+@RequiredArgsConstructor
+public class RouteLatencyEndpoint {
+
+    private final RouteMetrics routeMetrics;
+    private final RouteMetricsProperties properties;
+
+    @ReadOperation
+    public Map<String, Object> latency() {
+        Map<String, Object> routes = new TreeMap<>();
+        for (RouteMetrics.RouteMeters route : routeMetrics.routes()) {
+            Map<String, Object> statuses = new LinkedHashMap<>();
+            route.statuses().forEach((status, meters) -> {
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("count", meters.total.count());
+                result.put("total", percentiles(meters.total));
+                result.put("upstream", percentiles(meters.upstream));
+                result.put("overhead", percentiles(meters.overhead));
+                statuses.put(status, result);
+            });
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("inFlight", route.inFlight.get());
+            result.put("requestBytes", (long) route.requestBytes.count());
+            result.put("responseBytes", (long) route.responseBytes.count());
+            result.put("statuses", statuses);
+            routes.put(route.routeId(), result);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("window", properties.getPercentileWindow().toString());
+        result.put("routes", routes);
+        return result;
+    }
+
+    private static Map<String, Object> percentiles(Timer timer) {
+        ValueAtPercentile[] values = timer.takeSnapshot().percentileValues();
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            result.put(RouteMetrics.PERCENTILE_NAMES[i], values[i].value(TimeUnit.MILLISECONDS));
+        }
+        return result;
+    }
+}
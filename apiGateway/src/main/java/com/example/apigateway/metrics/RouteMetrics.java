@@ -0,0 +1,155 @@
+package com.example.apigateway.metrics;
+
+import com.example.apigateway.config.RouteMetricsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Метрики маршрутов шлюза.
+ * <ul>
+ *     <li>`gateway.route.requests` — полное время обработки запроса шлюзом;</li>
+ *     <li>`gateway.route.upstream` — время от отправки запроса в сервис до получения заголовков ответа;</li>
+ *     <li>`gateway.route.overhead` — время, добавленное самим шлюзом (полное время минус время сервиса);</li>
+ *     <li>`gateway.route.inflight` — запросы в работе;</li>
+ *     <li>`gateway.route.request.bytes` и `gateway.route.response.bytes` — объём тел запросов и ответов.</li>
+ * </ul>
+ * Таймеры имеют теги `route` и `status` (`cancelled` — запрос отменён клиентом) и публикуют
+ * гистограмму для Prometheus и перцентили p50/p99/p999 за скользящее окно.
+ * Счётчики создаются при первом запросе маршрута с данным статусом и дальше берутся из массива
+ * по коду статуса, поэтому учёт запроса не создаёт новых объектов.
+ */
+@Component
+@RequiredArgsConstructor
+public class RouteMetrics {
+
+    static final String REQUESTS = "gateway.route.requests";
+    static final String UPSTREAM = "gateway.route.upstream";
+    static final String OVERHEAD = "gateway.route.overhead";
+
+    static final String CANCELLED = "cancelled";
+
+    private static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+    static final String[] PERCENTILE_NAMES = {"p50", "p99", "p999"};
+
+    private final MeterRegistry meterRegistry;
+    private final RouteMetricsProperties properties;
+    private final Map<String, RouteMeters> routes = new ConcurrentHashMap<>();
+
+    RouteMeters route(String routeId) {
+        RouteMeters meters = routes.get(routeId);
+        return meters != null ? meters : routes.computeIfAbsent(routeId, RouteMeters::new);
+    }
+
+    Collection<RouteMeters> routes() {
+        return routes.values();
+    }
+
+    /**
+     * Метрики одного маршрута.
+     */
+    final class RouteMeters {
+
+        /**
+         * Индекс для запросов, отменённых клиентом; остальные хранятся по коду статуса.
+         */
+        static final int CANCELLED_INDEX = 0;
+
+        private final String routeId;
+        final AtomicInteger inFlight = new AtomicInteger();
+        final Counter requestBytes;
+        final Counter responseBytes;
+        private final AtomicReferenceArray<StatusMeters> statuses = new AtomicReferenceArray<>(1000);
+
+        RouteMeters(String routeId) {
+            this.routeId = routeId;
+            Gauge.builder("gateway.route.inflight", inFlight, AtomicInteger::get)
+                    .description("Запросы маршрута, обрабатываемые шлюзом")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+            this.requestBytes = Counter.builder("gateway.route.request.bytes")
+                    .description("Объём тел запросов маршрута")
+                    .baseUnit("bytes")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+            this.responseBytes = Counter.builder("gateway.route.response.bytes")
+                    .description("Объём тел ответов маршрута")
+                    .baseUnit("bytes")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+        }
+
+        String routeId() {
+            return routeId;
+        }
+
+        StatusMeters status(int statusCode) {
+            int index = statusCode > 0 && statusCode < statuses.length() ? statusCode : CANCELLED_INDEX;
+            StatusMeters meters = statuses.get(index);
+            if (meters == null) {
+                // Гонка безопасна: MeterRegistry вернёт уже зарегистрированные таймеры
+                meters = new StatusMeters(routeId, index == CANCELLED_INDEX ? CANCELLED : String.valueOf(index));
+                statuses.compareAndSet(index, null, meters);
+            }
+            return meters;
+        }
+
+        Map<String, StatusMeters> statuses() {
+            Map<String, StatusMeters> result = new TreeMap<>();
+            for (int i = 0; i < statuses.length(); i++) {
+                StatusMeters meters = statuses.get(i);
+                if (meters != null) {
+                    result.put(meters.status(), meters);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Таймеры маршрута для одного статуса ответа.
+     */
+    final class StatusMeters {
+
+        private final String routeId;
+        private final String status;
+        final Timer total;
+        final Timer upstream;
+        final Timer overhead;
+
+        StatusMeters(String routeId, String status) {
+            this.routeId = routeId;
+            this.status = status;
+            this.total = timer(REQUESTS, "Полное время обработки запроса шлюзом");
+            this.upstream = timer(UPSTREAM, "Время ответа сервиса до получения заголовков");
+            this.overhead = timer(OVERHEAD, "Время, добавленное шлюзом");
+        }
+
+        String status() {
+            return status;
+        }
+
+        private Timer timer(String name, String description) {
+            return Timer.builder(name)
+                    .description(description)
+                    .tag("route", routeId)
+                    .tag("status", status)
+                    .publishPercentileHistogram()
+                    .publishPercentiles(PERCENTILES)
+                    .minimumExpectedValue(properties.getMinExpectedLatency())
+                    .maximumExpectedValue(properties.getMaxExpectedLatency())
+                    .distributionStatisticExpiry(properties.getPercentileWindow())
+                    .register(meterRegistry);
+        }
+    }
+}
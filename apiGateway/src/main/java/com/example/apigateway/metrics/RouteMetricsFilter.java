@@ -0,0 +1,143 @@
+package com.example.apigateway.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Собирает {@link RouteMetrics} для каждого запроса, попавшего на маршрут.
+ * Выполняется раньше остальных фильтров, поэтому в полное время входят и ответы из кэша шлюза,
+ * и отказы ограничителя частоты. Для таких ответов обращения к сервису нет, и всё время
+ * считается временем шлюза.
+ */
+@Component
+@RequiredArgsConstructor
+public class RouteMetricsFilter implements GlobalFilter, Ordered {
+
+    private final RouteMetrics routeMetrics;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+
+        RouteMetrics.RouteMeters meters = routeMetrics.route(route.getId());
+        RequestTiming timing = new RequestTiming(System.nanoTime());
+        exchange.getAttributes().put(RequestTiming.ATTRIBUTE, timing);
+        meters.inFlight.incrementAndGet();
+
+        ServerWebExchange.Builder counted = exchange.mutate().response(new CountingResponse(exchange.getResponse(), meters));
+        if (hasBody(exchange.getRequest())) {
+            counted.request(new CountingRequest(exchange.getRequest(), meters));
+        }
+
+        return chain.filter(counted.build())
+                .doOnError(error -> timing.errorStatus = errorStatus(error))
+                .doFinally(signal -> {
+                    meters.inFlight.decrementAndGet();
+                    record(meters, timing, status(exchange, timing, signal));
+                });
+    }
+
+    private static void record(RouteMetrics.RouteMeters meters, RequestTiming timing, int status) {
+        long totalNanos = System.nanoTime() - timing.startTime;
+        RouteMetrics.StatusMeters statusMeters = meters.status(status);
+        statusMeters.total.record(totalNanos, TimeUnit.NANOSECONDS);
+        if (timing.hasUpstream()) {
+            long upstreamNanos = timing.upstreamNanos();
+            statusMeters.upstream.record(upstreamNanos, TimeUnit.NANOSECONDS);
+            statusMeters.overhead.record(Math.max(0, totalNanos - upstreamNanos), TimeUnit.NANOSECONDS);
+        } else {
+            statusMeters.overhead.record(totalNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static int status(ServerWebExchange exchange, RequestTiming timing, SignalType signal) {
+        if (signal == SignalType.CANCEL) {
+            return RouteMetrics.RouteMeters.CANCELLED_INDEX;
+        }
+        if (signal == SignalType.ON_ERROR) {
+            return timing.errorStatus;
+        }
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        return status != null ? status.value() : HttpStatus.OK.value();
+    }
+
+    private static int errorStatus(Throwable error) {
+        // Так же ошибку превратит в ответ обработчик ошибок WebFlux
+        return error instanceof ResponseStatusException statusException
+                ? statusException.getStatusCode().value()
+                : HttpStatus.INTERNAL_SERVER_ERROR.value();
+    }
+
+    private static boolean hasBody(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        return headers.getContentLength() > 0 || headers.containsKey(HttpHeaders.TRANSFER_ENCODING);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+
+    private static class CountingRequest extends ServerHttpRequestDecorator {
+
+        private final RouteMetrics.RouteMeters meters;
+
+        CountingRequest(ServerHttpRequest delegate, RouteMetrics.RouteMeters meters) {
+            super(delegate);
+            this.meters = meters;
+        }
+
+        @Override
+        public Flux<DataBuffer> getBody() {
+            return super.getBody().doOnNext(buffer -> meters.requestBytes.increment(buffer.readableByteCount()));
+        }
+    }
+
+    private static class CountingResponse extends ServerHttpResponseDecorator {
+
+        private final RouteMetrics.RouteMeters meters;
+
+        CountingResponse(ServerHttpResponse delegate, RouteMetrics.RouteMeters meters) {
+            super(delegate);
+            this.meters = meters;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return super.writeWith(Flux.from(body).doOnNext(this::count));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return super.writeAndFlushWith(Flux.from(body).map(part -> Flux.from(part).doOnNext(this::count)));
+        }
+
+        private void count(DataBuffer buffer) {
+            meters.responseBytes.increment(buffer.readableByteCount());
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.apigateway.metrics;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Отмечает время обращения к сервису: от отправки запроса до получения заголовков ответа.
+ * Выполняется непосредственно перед {@link NettyRoutingFilter}, поэтому выбор экземпляра
+ * и остальные фильтры шлюза в это время не входят.
+ */
+@Component
+public class UpstreamTimingFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        RequestTiming timing = RequestTiming.get(exchange);
+        if (timing == null) {
+            return chain.filter(exchange);
+        }
+
+        timing.upstreamStartTime = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> timing.upstreamEndTime = System.nanoTime());
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyRoutingFilter.ORDER - 1;
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.apigateway.ratelimit;
+
+import com.example.apigateway.config.LocalRateLimiterProperties;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Ограничитель частоты запросов в памяти шлюза, без Redis.
+ * Используется стандартным фильтром `RequestRateLimiter`.
+ * <p>
+ * Для каждой пары (маршрут, клиент) и для маршрута в целом хранится одно число — теоретическое время
+ * прибытия следующего запроса (алгоритм GCRA, эквивалентный token bucket). Запрос разрешается,
+ * если это время опережает текущее не больше чем на ёмкость всплеска; обновление выполняется
+ * через CAS без блокировок. Лимит маршрута защищает сервис от суммарной нагрузки множества клиентов.
+ * <p>
+ * Состояние клиентов, которые давно не отправляли запросы, периодически удаляется:
+ * такой клиент ничем не отличается от нового.
+ */
+@Component
+public class LocalRateLimiter extends AbstractRateLimiter<LocalRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+
+    static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+    static final String RETRY_AFTER_HEADER = "Retry-After";
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Config defaultConfig;
+    private final LongSupplier clock;
+    private final Map<String, Map<String, AtomicLong>> clientBuckets = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> routeBuckets = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService sweeper;
+
+    @Autowired
+    public LocalRateLimiter(ConfigurationService configurationService, LocalRateLimiterProperties properties) {
+        this(configurationService, properties, System::nanoTime);
+        long sweepInterval = properties.getSweepInterval().toNanos();
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepInterval, sweepInterval, TimeUnit.NANOSECONDS);
+    }
+
+    LocalRateLimiter(ConfigurationService configurationService, LocalRateLimiterProperties properties, LongSupplier clock) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.defaultConfig = new Config()
+                .setReplenishRate(properties.getReplenishRate())
+                .setBurstCapacity(properties.getBurstCapacity())
+                .setRouteReplenishRate(properties.getRouteReplenishRate())
+                .setRouteBurstCapacity(properties.getRouteBurstCapacity());
+        // Отсчёт от момента создания, чтобы время всегда было неотрицательным
+        long origin = clock.getAsLong();
+        this.clock = () -> clock.getAsLong() - origin;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limiter-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        long now = clock.getAsLong();
+
+        long interval = NANOS_PER_SECOND / config.getReplenishRate();
+        int burstCapacity = config.getBurstCapacity() > 0 ? config.getBurstCapacity() : config.getReplenishRate();
+        AtomicLong client = clientBuckets
+                .computeIfAbsent(routeId, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(id, key -> new AtomicLong());
+
+        long clientResult = acquire(client, now, interval, burstCapacity);
+        if (clientResult > 0) {
+            return Mono.just(denied(config, burstCapacity, clientResult));
+        }
+
+        if (config.getRouteReplenishRate() > 0) {
+            long routeInterval = NANOS_PER_SECOND / config.getRouteReplenishRate();
+            int routeBurst = config.getRouteBurstCapacity() > 0
+                    ? config.getRouteBurstCapacity() : config.getRouteReplenishRate();
+            AtomicLong route = routeBuckets.computeIfAbsent(routeId, key -> new AtomicLong());
+            long routeResult = acquire(route, now, routeInterval, routeBurst);
+            if (routeResult > 0) {
+                // Запрос не прошёл, поэтому возвращаем клиенту использованный токен
+                client.addAndGet(-interval);
+                return Mono.just(denied(config, burstCapacity, routeResult));
+            }
+        }
+
+        long remaining = -clientResult;
+        return Mono.just(new Response(true, Map.of(
+                REMAINING_HEADER, String.valueOf(remaining),
+                REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()),
+                BURST_CAPACITY_HEADER, String.valueOf(burstCapacity))));
+    }
+
+    /**
+     * Попытка занять один токен.
+     *
+     * @return При успехе — количество оставшихся токенов со знаком минус (или 0),
+     * при отказе — время в наносекундах, через которое появится свободный токен.
+     */
+    static long acquire(AtomicLong bucket, long now, long interval, int burstCapacity) {
+        long capacity = interval * burstCapacity;
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now) + interval;
+            long wait = next - now - capacity;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return -((capacity - (next - now)) / interval);
+            }
+        }
+    }
+
+    private static Response denied(Config config, int burstCapacity, long waitNanos) {
+        long retryAfter = Math.max(1, (waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+        return new Response(false, Map.of(
+                REMAINING_HEADER, "0",
+                REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()),
+                BURST_CAPACITY_HEADER, String.valueOf(burstCapacity),
+                RETRY_AFTER_HEADER, String.valueOf(retryAfter)));
+    }
+
+    /**
+     * Удаляет заполненные корзины: их время прибытия уже в прошлом, и новая корзина ведёт себя так же.
+     * Запрос, пришедший одновременно с удалением, может получить не больше одного лишнего токена.
+     */
+    void sweep() {
+        long now = clock.getAsLong();
+        for (Map<String, AtomicLong> buckets : clientBuckets.values()) {
+            buckets.values().removeIf(bucket -> bucket.get() <= now);
+        }
+        routeBuckets.values().removeIf(bucket -> bucket.get() <= now);
+    }
+
+    /**
+     * Количество клиентов, для которых хранится состояние.
+     */
+    int trackedClients() {
+        int count = 0;
+        for (Map<String, AtomicLong> buckets : clientBuckets.values()) {
+            count += buckets.size();
+        }
+        return count;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    @Validated
+    @Getter
+    public static class Config {
+
+        /**
+         * Количество запросов в секунду от одного клиента.
+         */
+        @Min(1)
+        private int replenishRate = 1;
+
+        /**
+         * Максимальный всплеск запросов от одного клиента. 0 — равен `replenishRate`.
+         */
+        @Min(0)
+        private int burstCapacity;
+
+        /**
+         * Количество запросов в секунду на маршрут от всех клиентов вместе. 0 — без ограничения.
+         */
+        @Min(0)
+        private int routeReplenishRate;
+
+        /**
+         * Максимальный всплеск запросов на маршрут. 0 — равен `routeReplenishRate`.
+         */
+        @Min(0)
+        private int routeBurstCapacity;
+
+        public Config setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+            return this;
+        }
+
+        public Config setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+            return this;
+        }
+
+        public Config setRouteReplenishRate(int routeReplenishRate) {
+            this.routeReplenishRate = routeReplenishRate;
+            return this;
+        }
+
+        public Config setRouteBurstCapacity(int routeBurstCapacity) {
+            this.routeBurstCapacity = routeBurstCapacity;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.apigateway;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Экземпляр сервиса за шлюзом на встроенном HTTP-сервере JDK.
+ * На любой запрос отвечает `{"instance":"<имя>"}` с заданными задержкой и статусом и считает запросы.
+ * Если путь заканчивается на `/missing`, сразу отвечает 404.
+ */
+public final class StubBackend implements AutoCloseable {
+
+    private final String name;
+    private final HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile Duration delay = Duration.ZERO;
+    private volatile int status = 200;
+
+    private StubBackend(String name) {
+        this.name = name;
+        try {
+            this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            boolean missing = exchange.getRequestURI().getPath().endsWith("/missing");
+            if (!missing) {
+                try {
+                    Thread.sleep(delay.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            byte[] body = ("{\"instance\":\"" + name + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(missing ? 404 : status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    public static StubBackend start(String name) {
+        return new StubBackend(name);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String uri() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public int requests() {
+        return requests.get();
+    }
+
+    public StubBackend delay(Duration delay) {
+        this.delay = delay;
+        return this;
+    }
+
+    public StubBackend status(int status) {
+        this.status = status;
+        return this;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
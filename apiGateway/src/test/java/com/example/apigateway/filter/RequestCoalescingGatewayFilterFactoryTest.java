@@ -0,0 +1,185 @@
+package com.example.apigateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestCoalescingGatewayFilterFactoryTest {
+
+    private static final Route ROUTE = Route.async()
+            .id("product-service")
+            .uri("http://localhost:8081")
+            .predicate(exchange -> true)
+            .build();
+
+    private static final String BODY = "{\"id\":1,\"name\":\"Ноутбук\"}";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestCoalescingGatewayFilterFactory factory = new RequestCoalescingGatewayFilterFactory(meterRegistry);
+    private final AtomicInteger backendCalls = new AtomicInteger();
+    // Сервис не отвечает, пока тест не откроет шлюз: так запросы гарантированно пересекаются
+    private final Sinks.Empty<Void> gate = Sinks.empty();
+
+    @Test
+    void concurrentRequestsShareOneBackendCall() throws Exception {
+        GatewayFilter filter = factory.apply(new RequestCoalescingGatewayFilterFactory.Config());
+        GatewayFilterChain backend = backend(BODY);
+
+        MockServerWebExchange leader = exchange("/api/products/1");
+        MockServerWebExchange first = exchange("/api/products/1");
+        MockServerWebExchange second = exchange("/api/products/1");
+        MockServerWebExchange other = exchange("/api/products/2");
+        CompletableFuture<Void> leaderDone = filter.filter(leader, backend).toFuture();
+        CompletableFuture<Void> firstDone = filter.filter(first, backend).toFuture();
+        CompletableFuture<Void> secondDone = filter.filter(second, backend).toFuture();
+        // Другой путь — другой ключ: запрос уходит в сервис сам
+        CompletableFuture<Void> otherDone = filter.filter(other, backend).toFuture();
+
+        assertEquals(2, backendCalls.get());
+        assertFalse(firstDone.isDone());
+
+        gate.tryEmitEmpty();
+        CompletableFuture.allOf(leaderDone, firstDone, secondDone, otherDone).get(5, TimeUnit.SECONDS);
+
+        for (MockServerWebExchange exchange : new MockServerWebExchange[]{leader, first, second, other}) {
+            assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+            assertEquals(MediaType.APPLICATION_JSON, exchange.getResponse().getHeaders().getContentType());
+            assertEquals(BODY, exchange.getResponse().getBodyAsString().block());
+        }
+        assertEquals(2, count("leader"));
+        assertEquals(2, count("collapsed"));
+        assertEquals(2, backendCalls.get());
+    }
+
+    @Test
+    void waiterGets504WhenLeaderIsTooSlow() throws Exception {
+        RequestCoalescingGatewayFilterFactory.Config config = new RequestCoalescingGatewayFilterFactory.Config();
+        config.setTimeout(Duration.ofMillis(50));
+        GatewayFilter filter = factory.apply(config);
+        GatewayFilterChain backend = backend(BODY);
+
+        CompletableFuture<Void> leaderDone = filter.filter(exchange("/api/products/1"), backend).toFuture();
+        ResponseStatusException error = assertThrows(ResponseStatusException.class,
+                () -> filter.filter(exchange("/api/products/1"), backend).block(Duration.ofSeconds(5)));
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, error.getStatusCode());
+        assertEquals(1, count("timeout"));
+        assertEquals(1, backendCalls.get());
+
+        // Ведущий запрос не зависит от ожидающих и завершается, когда ответит сервис
+        gate.tryEmitEmpty();
+        leaderDone.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void leaderErrorIsPropagatedToWaiters() {
+        GatewayFilter filter = factory.apply(new RequestCoalescingGatewayFilterFactory.Config());
+        IllegalStateException failure = new IllegalStateException("Сервис недоступен");
+        GatewayFilterChain backend = exchange -> {
+            backendCalls.incrementAndGet();
+            return gate.asMono().then(Mono.error(failure));
+        };
+
+        CompletableFuture<Void> leaderDone = filter.filter(exchange("/api/products/1"), backend).toFuture();
+        CompletableFuture<Void> firstDone = filter.filter(exchange("/api/products/1"), backend).toFuture();
+        CompletableFuture<Void> secondDone = filter.filter(exchange("/api/products/1"), backend).toFuture();
+        gate.tryEmitEmpty();
+
+        for (CompletableFuture<Void> done : List.of(leaderDone, firstDone, secondDone)) {
+            ExecutionException error = assertThrows(ExecutionException.class, () -> done.get(5, TimeUnit.SECONDS));
+            assertSame(failure, error.getCause());
+        }
+        assertEquals(1, backendCalls.get());
+        assertEquals(2, count("error"));
+    }
+
+    @Test
+    void waitersCallBackendThemselvesWhenResponseIsTooLarge() throws Exception {
+        RequestCoalescingGatewayFilterFactory.Config config = new RequestCoalescingGatewayFilterFactory.Config();
+        config.setMaxBodySize(DataSize.ofBytes(10));
+        GatewayFilter filter = factory.apply(config);
+        GatewayFilterChain backend = backend(BODY);
+
+        MockServerWebExchange waiter = exchange("/api/products/1");
+        CompletableFuture<Void> leaderDone = filter.filter(exchange("/api/products/1"), backend).toFuture();
+        CompletableFuture<Void> waiterDone = filter.filter(waiter, backend).toFuture();
+        gate.tryEmitEmpty();
+        CompletableFuture.allOf(leaderDone, waiterDone).get(5, TimeUnit.SECONDS);
+
+        assertEquals(BODY, waiter.getResponse().getBodyAsString().block());
+        assertEquals(2, backendCalls.get());
+        assertEquals(1, count("fallback"));
+    }
+
+    @Test
+    void countersAreRegisteredOncePerRoute() {
+        GatewayFilter filter = factory.apply(new RequestCoalescingGatewayFilterFactory.Config());
+        gate.tryEmitEmpty();
+
+        filter.filter(exchange("/api/products/1"), backend(BODY)).block();
+        Counter leader = meterRegistry.get(RequestCoalescingGatewayFilterFactory.METRIC_NAME)
+                .tag("route", ROUTE.getId()).tag("outcome", "leader").counter();
+        filter.filter(exchange("/api/products/1"), backend(BODY)).block();
+
+        assertEquals(5, meterRegistry.find(RequestCoalescingGatewayFilterFactory.METRIC_NAME).counters().size());
+        assertSame(leader, meterRegistry.get(RequestCoalescingGatewayFilterFactory.METRIC_NAME)
+                .tag("outcome", "leader").counter());
+        assertEquals(2, leader.count());
+    }
+
+    /**
+     * Сервис за шлюзом: считает обращения и отвечает заданным телом, когда открыт {@link #gate}.
+     */
+    private GatewayFilterChain backend(String body) {
+        return exchange -> {
+            backendCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            return gate.asMono().then(Mono.defer(() -> {
+                response.setStatusCode(HttpStatus.OK);
+                response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                return response.writeWith(Mono.fromSupplier(() ->
+                        response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8))));
+            }));
+        };
+    }
+
+    private static MockServerWebExchange exchange(String path) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, ROUTE);
+        return exchange;
+    }
+
+    private double count(String outcome) {
+        Counter counter = meterRegistry.find(RequestCoalescingGatewayFilterFactory.METRIC_NAME)
+                .tag("route", ROUTE.getId())
+                .tag("outcome", outcome)
+                .counter();
+        return counter != null ? counter.count() : 0;
+    }
+}
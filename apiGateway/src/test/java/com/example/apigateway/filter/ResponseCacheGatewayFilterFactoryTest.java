@@ -0,0 +1,278 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.config.ResponseCacheProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ResponseCacheGatewayFilterFactoryTest {
+
+    private static final Route ROUTE = Route.async()
+            .id("product-service")
+            .uri("http://localhost:8081")
+            .predicate(exchange -> true)
+            .build();
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger backendCalls = new AtomicInteger();
+    private final ResponseCacheProperties properties = new ResponseCacheProperties();
+
+    @BeforeEach
+    void setUp() {
+        properties.setMaxMemory(DataSize.ofKilobytes(64));
+        properties.setMaxEntrySize(DataSize.ofBytes(1000));
+        properties.setDefaultTtl(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void storesResponseWithStrongEtag() throws Exception {
+        GatewayFilter filter = filter(config());
+        String body = "{\"id\":1,\"name\":\"Ноутбук\"}";
+
+        MockServerWebExchange miss = get(filter, "/api/products/1", body);
+        MockServerWebExchange hit = get(filter, "/api/products/1", body);
+
+        String etag = "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(
+                MessageDigest.getInstance("SHA-256").digest(body.getBytes(StandardCharsets.UTF_8))) + "\"";
+        assertEquals(etag, miss.getResponse().getHeaders().getETag());
+        assertEquals("MISS", miss.getResponse().getHeaders().getFirst(ResponseCacheGatewayFilterFactory.CACHE_HEADER));
+        assertEquals(body, miss.getResponse().getBodyAsString().block());
+
+        assertEquals(etag, hit.getResponse().getHeaders().getETag());
+        assertEquals("HIT", hit.getResponse().getHeaders().getFirst(ResponseCacheGatewayFilterFactory.CACHE_HEADER));
+        assertEquals(MediaType.APPLICATION_JSON, hit.getResponse().getHeaders().getContentType());
+        assertEquals(body, hit.getResponse().getBodyAsString().block());
+        assertEquals(1, backendCalls.get());
+    }
+
+    @Test
+    void matchingIfNoneMatchGets304() {
+        GatewayFilter filter = filter(config());
+        String etag = get(filter, "/api/products/1", "{\"id\":1}").getResponse().getHeaders().getETag();
+
+        MockServerWebExchange cached = send(filter, MockServerHttpRequest.get("/api/products/1")
+                .ifNoneMatch(etag).build(), "{\"id\":1}");
+        assertEquals(HttpStatus.NOT_MODIFIED, cached.getResponse().getStatusCode());
+        assertEquals(etag, cached.getResponse().getHeaders().getETag());
+        assertEquals("", cached.getResponse().getBodyAsString().block());
+        assertNull(cached.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_LENGTH));
+
+        // Слабое сравнение: клиент может прислать тот же тег с префиксом W/
+        MockServerWebExchange weak = send(filter, MockServerHttpRequest.get("/api/products/1")
+                .ifNoneMatch("W/" + etag).build(), "{\"id\":1}");
+        assertEquals(HttpStatus.NOT_MODIFIED, weak.getResponse().getStatusCode());
+
+        MockServerWebExchange changed = send(filter, MockServerHttpRequest.get("/api/products/1")
+                .ifNoneMatch("\"other\"").build(), "{\"id\":1}");
+        assertEquals(HttpStatus.OK, changed.getResponse().getStatusCode());
+        assertEquals(1, backendCalls.get());
+    }
+
+    @Test
+    void ifNoneMatchOnCacheMissGets304FromFreshResponse() {
+        GatewayFilter filter = filter(config());
+        String etag = get(filter, "/api/products/1", "{\"id\":1}").getResponse().getHeaders().getETag();
+
+        MockServerWebExchange refreshed = send(filter, MockServerHttpRequest.get("/api/products/1")
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache").ifNoneMatch(etag).build(), "{\"id\":1}");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, refreshed.getResponse().getStatusCode());
+        assertEquals("MISS", refreshed.getResponse().getHeaders().getFirst(ResponseCacheGatewayFilterFactory.CACHE_HEADER));
+        assertEquals(2, backendCalls.get());
+    }
+
+    @Test
+    void putAndDeleteEvictCachedResponses() {
+        GatewayFilter filter = filter(config());
+        get(filter, "/api/products/1", "{\"version\":1}");
+        get(filter, "/api/products", "[{\"version\":1}]");
+
+        send(filter, MockServerHttpRequest.method(HttpMethod.PUT, "/api/products/1").build(), "{\"version\":2}");
+        assertEquals(3, backendCalls.get());
+
+        // Изменение сбрасывает и сам ресурс, и списки маршрута
+        assertEquals("{\"version\":2}", get(filter, "/api/products/1", "{\"version\":2}")
+                .getResponse().getBodyAsString().block());
+        get(filter, "/api/products", "[{\"version\":2}]");
+        assertEquals(5, backendCalls.get());
+
+        send(filter, MockServerHttpRequest.method(HttpMethod.DELETE, "/api/products/1").build(), "");
+        MockServerWebExchange afterDelete = get(filter, "/api/products/1", "{\"version\":3}");
+        assertEquals("MISS", afterDelete.getResponse().getHeaders().getFirst(ResponseCacheGatewayFilterFactory.CACHE_HEADER));
+        assertEquals(7, backendCalls.get());
+    }
+
+    @Test
+    void readOnlyPostDoesNotEvict() {
+        ResponseCacheGatewayFilterFactory.Config config = config();
+        config.setReadOnlyPaths(List.of("/api/products/batch"));
+        GatewayFilter filter = filter(config);
+        get(filter, "/api/products/1", "{\"id\":1}");
+
+        send(filter, MockServerHttpRequest.post("/api/products/batch").build(), "[]");
+        MockServerWebExchange cached = get(filter, "/api/products/1", "{\"id\":1}");
+
+        assertEquals("HIT", cached.getResponse().getHeaders().getFirst(ResponseCacheGatewayFilterFactory.CACHE_HEADER));
+        assertEquals(2, backendCalls.get());
+    }
+
+    @Test
+    void entryExpiresAfterTtl() {
+        ResponseCacheGatewayFilterFactory.Config config = config();
+        config.setTtl(Duration.ofSeconds(5));
+        GatewayFilter filter = filter(config);
+        get(filter, "/api/products/1", "{\"id\":1}");
+
+        advanceSeconds(4);
+        MockServerWebExchange hit = get(filter, "/api/products/1", "{\"id\":1}");
+        assertEquals("HIT", hit.getResponse().getHeaders().getFirst(ResponseCacheGatewayFilterFactory.CACHE_HEADER));
+        assertEquals("4", hit.getResponse().getHeaders().getFirst(HttpHeaders.AGE));
+
+        advanceSeconds(2);
+        MockServerWebExchange expired = get(filter, "/api/products/1", "{\"id\":1}");
+        assertEquals("MISS", expired.getResponse().getHeaders().getFirst(ResponseCacheGatewayFilterFactory.CACHE_HEADER));
+        assertEquals(2, backendCalls.get());
+    }
+
+    @Test
+    void defaultTtlAppliesWhenRouteHasNone() {
+        GatewayFilter filter = filter(config());
+        get(filter, "/api/products/1", "{\"id\":1}");
+
+        advanceSeconds(11);
+        get(filter, "/api/products/1", "{\"id\":1}");
+
+        assertEquals(2, backendCalls.get());
+    }
+
+    @Test
+    void totalSizeIsLimitedByMaxMemory() {
+        // Каждый ответ вместе с заголовками и служебными данными занимает около 1 КБ, в кэш помещаются два
+        properties.setMaxMemory(DataSize.ofBytes(2048));
+        GatewayFilter filter = filter(config());
+        String body = "x".repeat(700);
+        for (int i = 0; i < 3; i++) {
+            get(filter, "/api/products/" + i, body);
+        }
+
+        // Промах не должен ничего сохранять, иначе новая запись вытеснит одну из проверяемых
+        int hits = 0;
+        for (int i = 0; i < 3; i++) {
+            MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/products/" + i).build());
+            filter.filter(exchange, unused -> Mono.empty()).block();
+            if ("HIT".equals(exchange.getResponse().getHeaders().getFirst(ResponseCacheGatewayFilterFactory.CACHE_HEADER))) {
+                hits++;
+            }
+        }
+        assertEquals(2, hits);
+    }
+
+    @Test
+    void responseLargerThanMaxEntrySizeIsStreamedWithoutCaching() {
+        GatewayFilter filter = filter(config());
+        String large = "x".repeat(1500);
+
+        MockServerWebExchange first = get(filter, "/api/products/large", large);
+        MockServerWebExchange second = get(filter, "/api/products/large", large);
+
+        assertEquals(large, first.getResponse().getBodyAsString().block());
+        assertNull(first.getResponse().getHeaders().getETag());
+        assertNull(second.getResponse().getHeaders().getFirst(ResponseCacheGatewayFilterFactory.CACHE_HEADER));
+        assertEquals(2, backendCalls.get());
+    }
+
+    @Test
+    void chunkedResponseOverflowingMaxEntrySizeIsPassedThrough() {
+        GatewayFilter filter = filter(config());
+        String part = "y".repeat(600);
+
+        // Без Content-Length размер становится известен только при чтении тела
+        GatewayFilterChain chunked = exchange -> {
+            backendCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            return response.writeWith(Flux.just(part, part, part).map(text -> buffer(response, text)));
+        };
+        MockServerWebExchange first = exchange(MockServerHttpRequest.get("/api/products/stream").build());
+        filter.filter(first, chunked).block();
+        MockServerWebExchange second = exchange(MockServerHttpRequest.get("/api/products/stream").build());
+        filter.filter(second, chunked).block();
+
+        assertEquals(part.repeat(3), first.getResponse().getBodyAsString().block());
+        assertNull(second.getResponse().getHeaders().getFirst(ResponseCacheGatewayFilterFactory.CACHE_HEADER));
+        assertEquals(2, backendCalls.get());
+    }
+
+    private GatewayFilter filter(ResponseCacheGatewayFilterFactory.Config config) {
+        ResponseCacheGatewayFilterFactory factory = new ResponseCacheGatewayFilterFactory(properties, clock::get, Runnable::run);
+        return factory.apply(config);
+    }
+
+    private static ResponseCacheGatewayFilterFactory.Config config() {
+        return new ResponseCacheGatewayFilterFactory.Config();
+    }
+
+    private MockServerWebExchange get(GatewayFilter filter, String path, String backendBody) {
+        return send(filter, MockServerHttpRequest.get(path).build(), backendBody);
+    }
+
+    private MockServerWebExchange send(GatewayFilter filter, MockServerHttpRequest request, String backendBody) {
+        MockServerWebExchange exchange = exchange(request);
+        filter.filter(exchange, backend(backendBody)).block();
+        return exchange;
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, ROUTE);
+        return exchange;
+    }
+
+    /**
+     * Сервис за шлюзом: отвечает заданным телом и считает обращения.
+     */
+    private GatewayFilterChain backend(String body) {
+        return exchange -> {
+            backendCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            response.getHeaders().setContentLength(body.getBytes(StandardCharsets.UTF_8).length);
+            return response.writeWith(Mono.fromSupplier(() -> buffer(response, body)));
+        };
+    }
+
+    private static DataBuffer buffer(ServerHttpResponse response, String text) {
+        return response.bufferFactory().wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void advanceSeconds(long seconds) {
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.apigateway.loadbalancer;
+
+import com.example.apigateway.StubBackend;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет выбор экземпляра через шлюз: у `product-service` быстрый и медленный экземпляры,
+ * у `order-service` исправный и отвечающий 503.
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "load-balancing.failure-threshold=3",
+                // Без штрафа отказывающий экземпляр выглядит самым быстрым: от него защищает только исключение
+                "load-balancing.failure-penalty=0ms"
+        })
+class PeakEwmaLoadBalancerIntegrationTest {
+
+    private static final StubBackend FAST = StubBackend.start("fast");
+    private static final StubBackend SLOW = StubBackend.start("slow").delay(Duration.ofMillis(150));
+    private static final StubBackend HEALTHY = StubBackend.start("healthy").delay(Duration.ofMillis(50));
+    private static final StubBackend FAILING = StubBackend.start("failing").status(503);
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private InstanceStatsRegistry registry;
+
+    @DynamicPropertySource
+    static void backendProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.discovery.client.simple.instances.product-service[0].uri", FAST::uri);
+        registry.add("spring.cloud.discovery.client.simple.instances.product-service[1].uri", SLOW::uri);
+        registry.add("spring.cloud.discovery.client.simple.instances.order-service[0].uri", HEALTHY::uri);
+        registry.add("spring.cloud.discovery.client.simple.instances.order-service[1].uri", FAILING::uri);
+    }
+
+    @AfterAll
+    static void stopBackends() {
+        for (StubBackend backend : List.of(FAST, SLOW, HEALTHY, FAILING)) {
+            backend.close();
+        }
+    }
+
+    @Test
+    void trafficMovesAwayFromSlowInstance() {
+        for (int i = 0; i < 30; i++) {
+            // Разные параметры, чтобы ответы не брались из кэша шлюза
+            webTestClient.get().uri("/api/products?page={page}", i).exchange().expectStatus().isOk();
+        }
+
+        // Медленный экземпляр получает запросы, только пока его задержка не измерена
+        assertTrue(SLOW.requests() <= 5, "slow: " + SLOW.requests());
+        assertEquals(30, FAST.requests() + SLOW.requests());
+    }
+
+    @Test
+    void failingInstanceIsEjected() {
+        for (int i = 0; i < 8; i++) {
+            webTestClient.get().uri("/api/orders").exchange();
+        }
+        int failed = FAILING.requests();
+        assertTrue(failed >= 3, "failing: " + failed);
+
+        // Результат запроса учитывается после отправки ответа клиенту
+        List<ServiceInstance> instances = List.of(instance(HEALTHY), instance(FAILING));
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> assertEquals(List.of(instance(HEALTHY)), registry.available(instances)));
+
+        for (int i = 0; i < 10; i++) {
+            webTestClient.get().uri("/api/orders").exchange()
+                    .expectStatus().isOk()
+                    .expectBody().jsonPath("$.instance").isEqualTo(HEALTHY.name());
+        }
+        assertEquals(failed, FAILING.requests());
+    }
+
+    private static ServiceInstance instance(StubBackend backend) {
+        URI uri = URI.create(backend.uri());
+        return new DefaultServiceInstance(backend.name(), "order-service", uri.getHost(), uri.getPort(), false);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.apigateway.loadbalancer;
+
+import com.example.apigateway.config.LoadBalancingProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PeakEwmaLoadBalancerTest {
+
+    private final ServiceInstance fast = new DefaultServiceInstance("fast", "product-service", "fast", 8081, false);
+    private final ServiceInstance slow = new DefaultServiceInstance("slow", "product-service", "slow", 8081, false);
+    private final List<ServiceInstance> instances = List.of(fast, slow);
+
+    private final AtomicLong clock = new AtomicLong();
+    private InstanceStatsRegistry registry;
+    private PeakEwmaLoadBalancer loadBalancer;
+
+    @BeforeEach
+    void setUp() {
+        LoadBalancingProperties properties = new LoadBalancingProperties();
+        properties.setFailureThreshold(3);
+        properties.setEjectionTime(Duration.ofSeconds(30));
+        registry = new InstanceStatsRegistry(properties, clock::get);
+        loadBalancer = new PeakEwmaLoadBalancer(
+                new DefaultListableBeanFactory().getBeanProvider(ServiceInstanceListSupplier.class),
+                "product-service",
+                registry);
+    }
+
+    @Test
+    void prefersInstanceWithLowerLatency() {
+        request(fast, 10, InstanceStatsRegistry.Outcome.SUCCESS);
+        request(slow, 200, InstanceStatsRegistry.Outcome.SUCCESS);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(fast, choose());
+        }
+    }
+
+    @Test
+    void accountsForOutstandingRequests() {
+        request(fast, 10, InstanceStatsRegistry.Outcome.SUCCESS);
+        request(slow, 30, InstanceStatsRegistry.Outcome.SUCCESS);
+
+        // У быстрого экземпляра накопились незавершённые запросы — он становится дороже медленного
+        for (int i = 0; i < 5; i++) {
+            registry.onStart(fast);
+        }
+        assertEquals(slow, choose());
+    }
+
+    @Test
+    void ejectsFailingInstanceAndReturnsItAfterEjectionTime() {
+        request(fast, 200, InstanceStatsRegistry.Outcome.SUCCESS);
+        for (int i = 0; i < 3; i++) {
+            request(slow, 1, InstanceStatsRegistry.Outcome.FAILURE);
+        }
+        // Сглаживание штрафа за ошибки, чтобы выбор зависел только от исключения
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+
+        assertEquals(List.of(fast), registry.available(instances));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(fast, choose());
+        }
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertEquals(instances, registry.available(instances));
+    }
+
+    @Test
+    void usesEjectedInstancesWhenNoOtherIsLeft() {
+        for (int i = 0; i < 3; i++) {
+            request(fast, 1, InstanceStatsRegistry.Outcome.FAILURE);
+            request(slow, 1, InstanceStatsRegistry.Outcome.FAILURE);
+        }
+        assertEquals(instances, registry.available(instances));
+        assertTrue(instances.contains(choose()));
+    }
+
+    @Test
+    void latencyPeakDecaysWithoutNewSamples() {
+        request(fast, 50, InstanceStatsRegistry.Outcome.SUCCESS);
+        request(slow, 5_000, InstanceStatsRegistry.Outcome.SUCCESS);
+        assertEquals(fast, choose());
+
+        // Через минуту без запросов старый пик почти забыт, и медленный экземпляр снова пробуется
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        request(fast, 50, InstanceStatsRegistry.Outcome.SUCCESS);
+        assertEquals(slow, choose());
+    }
+
+    private void request(ServiceInstance instance, long latencyMillis, InstanceStatsRegistry.Outcome outcome) {
+        long start = registry.onStart(instance);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+        registry.onComplete(instance, start, outcome);
+    }
+
+    private ServiceInstance choose() {
+        return loadBalancer.choose(instances).getServer();
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.apigateway.metrics;
+
+import com.example.apigateway.StubBackend;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет разделение времени запроса на время сервиса и время шлюза на маршруте `product-service`,
+ * направленном на медленную заглушку сервиса.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class RouteLatencyIntegrationTest {
+
+    private static final String ROUTE = "product-service";
+    private static final long BACKEND_DELAY_MS = 300;
+
+    private static final StubBackend BACKEND = StubBackend.start("product-service")
+            .delay(Duration.ofMillis(BACKEND_DELAY_MS));
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void backendProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.discovery.client.simple.instances.product-service[0].uri", BACKEND::uri);
+    }
+
+    @AfterAll
+    static void stopBackend() {
+        BACKEND.close();
+    }
+
+    @Test
+    void upstreamTimeIsSeparatedFromGatewayOverhead() {
+        // Первый запрос создаёт балансировщик и соединение с сервисом; его статус 404 не попадает в проверки
+        webTestClient.get().uri("/api/products/missing").exchange().expectStatus().isNotFound();
+        awaitCount(RouteMetrics.REQUESTS, "404", 1);
+        long totalBefore = count(RouteMetrics.REQUESTS);
+        long upstreamBefore = count(RouteMetrics.UPSTREAM);
+        double totalTimeBefore = totalTime(RouteMetrics.REQUESTS);
+        double splitTimeBefore = totalTime(RouteMetrics.UPSTREAM) + totalTime(RouteMetrics.OVERHEAD);
+
+        for (int i = 0; i < 3; i++) {
+            webTestClient.get().uri("/api/products?page={page}", i).exchange().expectStatus().isOk();
+        }
+        // Ответ из кэша шлюза: обращения к сервису нет, всё время — время шлюза
+        webTestClient.get().uri("/api/products?page=0").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Cache", "HIT");
+        // Метрики записываются после отправки ответа клиенту
+        awaitCount(RouteMetrics.REQUESTS, "200", totalBefore + 4);
+
+        assertEquals(upstreamBefore + 3, count(RouteMetrics.UPSTREAM));
+        assertEquals(totalBefore + 4, count(RouteMetrics.OVERHEAD));
+        Timer upstream = timer(RouteMetrics.UPSTREAM, "200");
+        Timer overhead = timer(RouteMetrics.OVERHEAD, "200");
+        assertTrue(upstream.mean(TimeUnit.MILLISECONDS) >= BACKEND_DELAY_MS,
+                "upstream: " + upstream.mean(TimeUnit.MILLISECONDS));
+        // Задержка сервиса не должна попасть во время шлюза
+        assertTrue(overhead.max(TimeUnit.MILLISECONDS) < BACKEND_DELAY_MS / 2.0,
+                "overhead: " + overhead.max(TimeUnit.MILLISECONDS));
+        // Время сервиса и время шлюза в сумме дают полное время
+        assertEquals(totalTime(RouteMetrics.REQUESTS) - totalTimeBefore,
+                totalTime(RouteMetrics.UPSTREAM) + totalTime(RouteMetrics.OVERHEAD) - splitTimeBefore,
+                1.0);
+    }
+
+    @Test
+    void endpointReportsPercentilesPerRouteAndStatus() {
+        webTestClient.get().uri("/api/products/missing").exchange().expectStatus().isNotFound();
+        webTestClient.get().uri("/api/products?page={page}", 100).exchange().expectStatus().isOk();
+        awaitCount(RouteMetrics.REQUESTS, "404", 1);
+        awaitCount(RouteMetrics.REQUESTS, "200", 1);
+
+        String route = "$.routes['" + ROUTE + "']";
+        String status = route + ".statuses['200']";
+        WebTestClient.BodyContentSpec body = webTestClient.get().uri("/actuator/routelatency").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.window").isEqualTo("PT1M")
+                .jsonPath(route + ".inFlight").isNumber()
+                .jsonPath(status + ".count").value(greaterThanOrEqualTo(1))
+                .jsonPath(route + ".statuses['404'].count").value(greaterThanOrEqualTo(1));
+        for (String part : new String[]{"total", "upstream", "overhead"}) {
+            for (String percentile : RouteMetrics.PERCENTILE_NAMES) {
+                body.jsonPath(status + "." + part + "." + percentile).isNumber();
+            }
+        }
+        // Перцентили считаются по гистограмме, поэтому сравнение с запасом на точность корзин
+        body.jsonPath(status + ".upstream.p50").value(Double.class, greaterThanOrEqualTo(BACKEND_DELAY_MS * 0.8))
+                .jsonPath(status + ".overhead.p999").value(Double.class, lessThan(BACKEND_DELAY_MS / 2.0));
+    }
+
+    private void awaitCount(String name, String status, long expected) {
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            Timer timer = meterRegistry.find(name).tag("route", ROUTE).tag("status", status).timer();
+            assertTrue(timer != null && timer.count() >= expected, name + " " + status);
+        });
+    }
+
+    private long count(String name) {
+        Timer timer = meterRegistry.find(name).tag("route", ROUTE).tag("status", "200").timer();
+        return timer != null ? timer.count() : 0;
+    }
+
+    private double totalTime(String name) {
+        Timer timer = meterRegistry.find(name).tag("route", ROUTE).tag("status", "200").timer();
+        return timer != null ? timer.totalTime(TimeUnit.MILLISECONDS) : 0;
+    }
+
+    private Timer timer(String name, String status) {
+        return meterRegistry.get(name).tag("route", ROUTE).tag("status", status).timer();
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.apigateway.ratelimit;
+
+import com.example.apigateway.config.LocalRateLimiterProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.RequestRateLimiterGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalRateLimiterTest {
+
+    private static final String ROUTE = "products";
+
+    private final AtomicLong clock = new AtomicLong();
+    private LocalRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new LocalRateLimiter(null, new LocalRateLimiterProperties(), clock::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        rateLimiter.shutdown();
+    }
+
+    @Test
+    void admitsBurstThenReplenishRate() {
+        configure(10, 3, 0, 0);
+
+        assertEquals("2", allowed("client").getHeaders().get(LocalRateLimiter.REMAINING_HEADER));
+        assertEquals("1", allowed("client").getHeaders().get(LocalRateLimiter.REMAINING_HEADER));
+        assertEquals("0", allowed("client").getHeaders().get(LocalRateLimiter.REMAINING_HEADER));
+        assertFalse(isAllowed("client").isAllowed());
+        // Лимит считается отдельно для каждого клиента
+        assertTrue(isAllowed("other").isAllowed());
+
+        // Один токен восстанавливается за 1 / replenishRate
+        advanceMillis(99);
+        assertFalse(isAllowed("client").isAllowed());
+        advanceMillis(1);
+        assertTrue(isAllowed("client").isAllowed());
+        assertFalse(isAllowed("client").isAllowed());
+    }
+
+    @Test
+    void rejectedRequestGets429WithRetryAfter() {
+        configure(1, 1, 0, 0);
+        RequestRateLimiterGatewayFilterFactory factory =
+                new RequestRateLimiterGatewayFilterFactory(rateLimiter, exchange -> Mono.just("client"));
+        RequestRateLimiterGatewayFilterFactory.Config config = new RequestRateLimiterGatewayFilterFactory.Config();
+        config.setRouteId(ROUTE);
+        GatewayFilter filter = factory.apply(config);
+        AtomicInteger forwarded = new AtomicInteger();
+
+        MockServerWebExchange first = MockServerWebExchange.from(MockServerHttpRequest.get("/api/products"));
+        filter.filter(first, exchange -> {
+            forwarded.incrementAndGet();
+            return Mono.empty();
+        }).block();
+        MockServerWebExchange second = MockServerWebExchange.from(MockServerHttpRequest.get("/api/products"));
+        filter.filter(second, exchange -> {
+            forwarded.incrementAndGet();
+            return Mono.empty();
+        }).block();
+
+        assertEquals(1, forwarded.get());
+        assertEquals("0", first.getResponse().getHeaders().getFirst(LocalRateLimiter.REMAINING_HEADER));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, second.getResponse().getStatusCode());
+        assertEquals("1", second.getResponse().getHeaders().getFirst(LocalRateLimiter.RETRY_AFTER_HEADER));
+        assertEquals("0", second.getResponse().getHeaders().getFirst(LocalRateLimiter.REMAINING_HEADER));
+    }
+
+    @Test
+    void routeLimitRejectsAllClientsTogether() {
+        configure(10, 10, 2, 2);
+
+        assertTrue(isAllowed("a").isAllowed());
+        assertTrue(isAllowed("b").isAllowed());
+        RateLimiter.Response rejected = isAllowed("c");
+        assertFalse(rejected.isAllowed());
+        assertEquals("1", rejected.getHeaders().get(LocalRateLimiter.RETRY_AFTER_HEADER));
+    }
+
+    @Test
+    void clientTokenIsRefundedWhenRouteRejects() {
+        // Клиент: 1 запрос в секунду, всплеск 2; маршрут: токен раз в 0,5 с, всплеск 1
+        configure(1, 2, 2, 1);
+
+        assertTrue(isAllowed("client").isAllowed());
+        assertFalse(isAllowed("client").isAllowed());
+
+        // Через 0,5 с у маршрута появился токен. Без возврата токена клиент израсходовал бы
+        // свой всплеск на отклонённый запрос и получил бы отказ
+        advanceMillis(500);
+        assertTrue(isAllowed("client").isAllowed());
+    }
+
+    @Test
+    void sweepRemovesOnlyIdleClients() {
+        configure(10, 2, 0, 0);
+        isAllowed("idle");
+        isAllowed("idle");
+        isAllowed("active");
+
+        rateLimiter.sweep();
+        assertEquals(2, rateLimiter.trackedClients());
+
+        advanceMillis(500);
+        isAllowed("active");
+        isAllowed("active");
+        isAllowed("active");
+        rateLimiter.sweep();
+        assertEquals(1, rateLimiter.trackedClients());
+
+        // Удалённый клиент начинает с полного всплеска, как новый
+        assertEquals("1", allowed("idle").getHeaders().get(LocalRateLimiter.REMAINING_HEADER));
+        assertTrue(isAllowed("idle").isAllowed());
+        assertFalse(isAllowed("idle").isAllowed());
+    }
+
+    private void configure(int replenishRate, int burstCapacity, int routeReplenishRate, int routeBurstCapacity) {
+        rateLimiter.getConfig().put(ROUTE, new LocalRateLimiter.Config()
+                .setReplenishRate(replenishRate)
+                .setBurstCapacity(burstCapacity)
+                .setRouteReplenishRate(routeReplenishRate)
+                .setRouteBurstCapacity(routeBurstCapacity));
+    }
+
+    private RateLimiter.Response isAllowed(String client) {
+        return rateLimiter.isAllowed(ROUTE, client).block();
+    }
+
+    private RateLimiter.Response allowed(String client) {
+        RateLimiter.Response response = isAllowed(client);
+        assertTrue(response.isAllowed());
+        return response;
+    }
+
+    private void advanceMillis(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
@@ -0,0 +1,18 @@
+#!/usr/bin/env bash
+# Сборка и запуск JMH-бенчмарков. Результаты пишутся в benchmarks/results/jmh-<ветка>.json.
+#
+#   benchmarks/run.sh                          # все бенчмарки
+#   benchmarks/run.sh Serialization -p items=100   # фильтр и любые аргументы JMH
+#
+# Сравнение двух веток:
+#   git checkout main    && benchmarks/run.sh
+#   git checkout feature && benchmarks/run.sh
+#   java -jar benchmarks/target/benchmarks.jar compare benchmarks/results/jmh-main.json benchmarks/results/jmh-feature.json
+set -euo pipefail
+
+cd "$(dirname "$0")"
+branch=$(git rev-parse --abbrev-ref HEAD | tr '/' '-')
+mkdir -p results
+
+mvn -B -q package
+java -jar target/benchmarks.jar -rf json -rff "results/jmh-${branch}.json" "$@"
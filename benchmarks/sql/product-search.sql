@@ -0,0 +1,70 @@
+-- Бенчмарк поиска продуктов по подстроке в названии:
+-- старый запрос LOWER(name) LIKE LOWER('%x%') против ILIKE с триграммным GIN-индексом (pg_trgm).
+--
+-- Скрипт работает в отдельной схеме bench и не трогает рабочую таблицу products.
+-- Запуск (при поднятом docker compose):
+--   docker exec -i postgres_db psql -U user -d catalog_db -v rows=1000000 < benchmarks/sql/product-search.sql
+--
+-- Для каждого запроса выводится EXPLAIN (ANALYZE, BUFFERS): сравнивайте Execution Time и план
+-- (Seq Scan у старого запроса, Bitmap Index Scan по idx_bench_products_name_trgm у нового).
+
+\set ON_ERROR_STOP on
+\if :{?rows}
+\else
+  \set rows 1000000
+\endif
+\timing on
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+DROP SCHEMA IF EXISTS bench CASCADE;
+CREATE SCHEMA bench;
+
+CREATE TABLE bench.products (LIKE public.products INCLUDING DEFAULTS);
+
+-- Названия из словаря брендов и типов товаров плюс случайный суффикс,
+-- чтобы распределение было похоже на реальный каталог
+INSERT INTO bench.products (id, name, description, price, categories, created_at)
+SELECT gen_random_uuid(),
+       (ARRAY['Ноутбук','Смартфон','Монитор','Клавиатура','Мышь','Наушники','Планшет','Принтер'])[1 + (i % 8)]
+           || ' ' ||
+       (ARRAY['ASUS','Lenovo','Samsung','Apple','Xiaomi','Huawei','Acer','Dell','HP','Sony'])[1 + ((i / 8) % 10)]
+           || ' ' || substr(md5(i::text), 1, 8),
+       NULL,
+       100 + (i % 100000),
+       '["Электроника"]',
+       now() - (i || ' seconds')::interval
+FROM generate_series(1, :rows) AS i;
+
+CREATE INDEX idx_bench_products_name_trgm ON bench.products USING gin (name gin_trgm_ops);
+ANALYZE bench.products;
+
+-- Старый запрос: LOWER(...) LIKE не может использовать индекс, каждый вызов — полный просмотр таблицы
+\echo '=== old: LOWER(name) LIKE, редкая подстрока'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bench.products p
+WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', 'a1b2', '%'))
+ORDER BY p.name ASC;
+
+\echo '=== new: ILIKE + pg_trgm, редкая подстрока'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bench.products p
+WHERE p.name ILIKE '%a1b2%'
+ORDER BY lower(p.name) = lower('a1b2') DESC, p.name ILIKE 'a1b2%' DESC, similarity(p.name, 'a1b2') DESC, p.name ASC
+LIMIT 20;
+
+\echo '=== old: LOWER(name) LIKE, частая подстрока'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bench.products p
+WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', 'ноутбук lenovo', '%'))
+ORDER BY p.name ASC;
+
+\echo '=== new: ILIKE + pg_trgm, частая подстрока'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bench.products p
+WHERE p.name ILIKE '%ноутбук lenovo%'
+ORDER BY lower(p.name) = lower('ноутбук lenovo') DESC, p.name ILIKE 'ноутбук lenovo%' DESC,
+         similarity(p.name, 'ноутбук lenovo') DESC, p.name ASC
+LIMIT 20;
+
+DROP SCHEMA bench CASCADE;
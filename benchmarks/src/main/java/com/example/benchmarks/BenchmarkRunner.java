@@ -0,0 +1,106 @@
+package com.example.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Точка входа `benchmarks.jar`.
+ * <p>
+ * Принимает обычные аргументы JMH и всегда включает профилировщик `gc`, чтобы вместе со временем
+ * выводилась скорость выделения памяти (`gc.alloc.rate`, `gc.alloc.rate.norm` — байт на операцию).
+ * Если формат результатов не задан, результаты пишутся в `jmh-result.json`.
+ * <p>
+ * Режим `compare <base.json> <new.json>` сравнивает два таких файла, например с разных веток.
+ */
+public class BenchmarkRunner {
+
+    private static final String ALLOC_RATE_NORM = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        if (args.length > 0 && args[0].equals("compare")) {
+            if (args.length != 3) {
+                System.err.println("Использование: compare <base.json> <new.json>");
+                System.exit(2);
+            }
+            compare(new File(args[1]), new File(args[2]));
+            return;
+        }
+
+        CommandLineOptions options = new CommandLineOptions(args);
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+        boolean gcProfilerEnabled = options.getProfilers().stream()
+                .anyMatch(profiler -> profiler.getKlass().equals("gc") || profiler.getKlass().equals(GCProfiler.class.getName()));
+        if (!gcProfilerEnabled) {
+            builder.addProfiler(GCProfiler.class);
+        }
+        if (!options.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        new Runner(builder.build()).run();
+    }
+
+    /**
+     * Вывести для каждого бенчмарка время и выделение памяти на операцию в двух прогонах и их изменение.
+     */
+    private static void compare(File baseFile, File newFile) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, JsonNode> base = index(objectMapper.readTree(baseFile));
+        Map<String, JsonNode> current = index(objectMapper.readTree(newFile));
+
+        System.out.printf("%-80s %14s %14s %8s %12s %12s %8s%n",
+                "Benchmark", "base", "new", "Δ", "base B/op", "new B/op", "Δ");
+        current.forEach((key, result) -> {
+            JsonNode previous = base.get(key);
+            double score = result.path("primaryMetric").path("score").asDouble();
+            double allocation = result.path("secondaryMetrics").path(ALLOC_RATE_NORM).path("score").asDouble(Double.NaN);
+            String unit = result.path("primaryMetric").path("scoreUnit").asText();
+            if (previous == null) {
+                System.out.printf("%-80s %14s %14.3f %8s %12s %12.1f %8s  %s%n",
+                        key, "-", score, "-", "-", allocation, "-", unit);
+                return;
+            }
+            double baseScore = previous.path("primaryMetric").path("score").asDouble();
+            double baseAllocation = previous.path("secondaryMetrics").path(ALLOC_RATE_NORM).path("score").asDouble(Double.NaN);
+            System.out.printf("%-80s %14.3f %14.3f %8s %12.1f %12.1f %8s  %s%n",
+                    key, baseScore, score, change(baseScore, score),
+                    baseAllocation, allocation, change(baseAllocation, allocation), unit);
+        });
+        base.keySet().stream()
+                .filter(key -> !current.containsKey(key))
+                .forEach(key -> System.out.printf("%-80s отсутствует в новом прогоне%n", key));
+    }
+
+    /**
+     * Ключ результата — имя бенчмарка с параметрами, например `...SerializationBenchmark.order items=10`.
+     */
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> index = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            result.path("params").properties()
+                    .forEach(param -> key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            index.put(key.toString(), result);
+        }
+        return index;
+    }
+
+    private static String change(double base, double current) {
+        if (Double.isNaN(base) || Double.isNaN(current) || base == 0) {
+            return "-";
+        }
+        return String.format("%+.1f%%", (current - base) / base * 100);
+    }
+}
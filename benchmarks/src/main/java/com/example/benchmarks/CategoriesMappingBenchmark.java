@@ -0,0 +1,77 @@
+package com.example.benchmarks;
+
+import com.example.productservice.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость преобразования категорий продукта между списком и JSON.
+ * <p>
+ * Раньше `Product.getCategories`/`setCategories` хранили категории строкой и создавали
+ * новый `ObjectMapper` при каждом вызове. Сейчас категории лежат в сущности списком, а в jsonb их
+ * переводит Hibernate, поэтому старое поведение воспроизводится методами `perCallMapper*`:
+ * их стоимость сравнивается с общим `ObjectMapper` и с обычными аксессорами сущности.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CategoriesMappingBenchmark {
+
+    private static final TypeReference<List<String>> CATEGORIES = new TypeReference<>() {
+    };
+
+    private final ObjectMapper sharedMapper = new ObjectMapper();
+
+    @Param({"1", "5", "20"})
+    private int size;
+
+    private List<String> categories;
+    private String json;
+    private Product product;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        categories = Fixtures.categories(size);
+        json = sharedMapper.writeValueAsString(categories);
+        product = Fixtures.product(0, size);
+    }
+
+    @Benchmark
+    public String perCallMapperWrite() throws JsonProcessingException {
+        return new ObjectMapper().writeValueAsString(categories);
+    }
+
+    @Benchmark
+    public List<String> perCallMapperRead() throws JsonProcessingException {
+        return new ObjectMapper().readValue(json, CATEGORIES);
+    }
+
+    @Benchmark
+    public String sharedMapperWrite() throws JsonProcessingException {
+        return sharedMapper.writeValueAsString(categories);
+    }
+
+    @Benchmark
+    public List<String> sharedMapperRead() throws JsonProcessingException {
+        return sharedMapper.readValue(json, CATEGORIES);
+    }
+
+    @Benchmark
+    public List<String> entityGet() {
+        return product.getCategories();
+    }
+
+    @Benchmark
+    public Product entitySet() {
+        product.setCategories(categories);
+        return product;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.benchmarks;
+
+import com.example.orderservice.dto.OrderItemRequest;
+import com.example.orderservice.dto.OrderRequest;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderItem;
+import com.example.productservice.dto.ProductRequest;
+import com.example.productservice.model.Product;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Тестовые данные для бенчмарков. Значения детерминированы, чтобы результаты разных веток
+ * были сравнимы: при одинаковых параметрах сериализуется одинаковый JSON.
+ */
+final class Fixtures {
+
+    private static final Instant CREATED_AT = Instant.parse("2024-05-01T12:34:56Z");
+    private static final String ADDRESS = "Москва, ул. Ленина, д. 10, кв. 5";
+
+    private Fixtures() {
+    }
+
+    static float price(int i) {
+        return 1 + (i * 37 % 100_000) / 100f;
+    }
+
+    static List<String> categories(int size) {
+        List<String> categories = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            categories.add("Категория " + i);
+        }
+        return categories;
+    }
+
+    static Product product(int i, int categories) {
+        Product product = new Product();
+        product.setId(new UUID(0, i).toString());
+        product.setName("Ноутбук ASUS " + i);
+        product.setDescription("Мощный игровой ноутбук.");
+        product.setPrice(price(i));
+        product.setCategories(categories(categories));
+        product.setCreatedAt(CREATED_AT);
+        return product;
+    }
+
+    static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(product(i, 3));
+        }
+        return products;
+    }
+
+    static Order order(int items) {
+        Order order = Order.builder()
+                .id(new UUID(1, items))
+                .deliveryAddress(ADDRESS)
+                .createdAt(CREATED_AT)
+                .build();
+        for (int i = 0; i < items; i++) {
+            OrderItem item = OrderItem.builder()
+                    .id(new UUID(2, i))
+                    .productId(new UUID(0, i))
+                    .quantity(1 + i % 5)
+                    .build();
+            item.setPrice(price(i));
+            order.addOrderItem(item);
+        }
+        return order;
+    }
+
+    /**
+     * @param valid `false` — адрес слишком короткий, у товаров нет ID и количество отрицательное.
+     */
+    static OrderRequest orderRequest(int items, boolean valid) {
+        List<OrderItemRequest> products = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            products.add(valid
+                    ? new OrderItemRequest(new UUID(0, i).toString(), 1 + i % 5)
+                    : new OrderItemRequest(null, -1));
+        }
+        return new OrderRequest(valid ? ADDRESS : "М", products);
+    }
+
+    /**
+     * @param valid `false` — все поля нарушают ограничения.
+     */
+    static ProductRequest productRequest(boolean valid) {
+        return valid
+                ? new ProductRequest("Ноутбук ASUS", "Мощный игровой ноутбук.", 1499.99f, categories(3))
+                : new ProductRequest("Н", "д".repeat(1001), -1f, List.of("", "к".repeat(101)));
+    }
+}
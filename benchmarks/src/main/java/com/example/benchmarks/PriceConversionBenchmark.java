@@ -0,0 +1,75 @@
+package com.example.benchmarks;
+
+import com.example.orderservice.model.OrderItem;
+import com.example.productservice.model.Product;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Перевод цены между рублями (`float`) и копейками (`int`) в `Product` и `OrderItem`.
+ * Цены берутся из массива, чтобы JIT не свернул вычисление в константу.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PriceConversionBenchmark {
+
+    private static final int PRICES = 1024;
+
+    private final float[] prices = new float[PRICES];
+    private final Product product = new Product();
+    private final OrderItem orderItem = new OrderItem();
+    private int next;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < PRICES; i++) {
+            prices[i] = Fixtures.price(i);
+        }
+        product.setPrice(1499.99f);
+        orderItem.setPrice(1499.99f);
+    }
+
+    private float nextPrice() {
+        next = (next + 1) & (PRICES - 1);
+        return prices[next];
+    }
+
+    @Benchmark
+    public void productSetPrice(Blackhole blackhole) {
+        product.setPrice(nextPrice());
+        blackhole.consume(product);
+    }
+
+    @Benchmark
+    public float productGetPrice() {
+        return product.getPrice();
+    }
+
+    @Benchmark
+    public float productRoundTrip() {
+        product.setPrice(nextPrice());
+        return product.getPrice();
+    }
+
+    @Benchmark
+    public void orderItemSetPrice(Blackhole blackhole) {
+        orderItem.setPrice(nextPrice());
+        blackhole.consume(orderItem);
+    }
+
+    @Benchmark
+    public float orderItemGetPrice() {
+        return orderItem.getPrice();
+    }
+
+    @Benchmark
+    public int orderItemGetPriceInKopecks() {
+        return orderItem.getPriceInKopecks();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.benchmarks;
+
+import com.example.apigateway.config.LocalRateLimiterProperties;
+import com.example.apigateway.ratelimit.LocalRateLimiter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * `LocalRateLimiter.isAllowed` шлюза на большом количестве клиентов.
+ * Клиенты перебираются в случайном порядке, чтобы состояние не помещалось в кэш процессора так же,
+ * как при постоянном клиенте. Лимит выше достижимой частоты: измеряется путь разрешённого запроса.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    private static final String ROUTE = "product-service";
+
+    @State(Scope.Benchmark)
+    public static class Limiter {
+
+        @Param({"1000", "100000", "1000000"})
+        int clients;
+
+        LocalRateLimiter limiter;
+        String[] ids;
+
+        @Setup
+        public void setUp() {
+            LocalRateLimiterProperties properties = new LocalRateLimiterProperties();
+            properties.setReplenishRate(1_000_000);
+            properties.setBurstCapacity(1_000_000);
+            // Очистка во время измерения заменила бы поиск состояния клиента его созданием
+            properties.setSweepInterval(Duration.ofDays(1));
+            limiter = new LocalRateLimiter(null, properties);
+
+            ids = new String[clients];
+            for (int i = 0; i < clients; i++) {
+                ids[i] = "client-" + i;
+                limiter.isAllowed(ROUTE, ids[i]);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Clients {
+
+        private int[] order;
+        private int next;
+
+        @Setup
+        public void setUp(Limiter limiter) {
+            order = new int[limiter.clients];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Random random = new Random(42);
+            for (int i = order.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+        }
+
+        String next(Limiter limiter) {
+            next = next + 1 == order.length ? 0 : next + 1;
+            return limiter.ids[order[next]];
+        }
+    }
+
+    @Benchmark
+    public Mono<RateLimiter.Response> isAllowed(Limiter limiter, Clients clients) {
+        return limiter.limiter.isAllowed(ROUTE, clients.next(limiter));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Mono<RateLimiter.Response> isAllowedConcurrent(Limiter limiter, Clients clients) {
+        return limiter.limiter.isAllowed(ROUTE, clients.next(limiter));
+    }
+}
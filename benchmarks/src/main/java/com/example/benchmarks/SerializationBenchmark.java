@@ -0,0 +1,65 @@
+package com.example.benchmarks;
+
+import com.example.orderservice.model.Order;
+import com.example.productservice.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация ответов сервисов в JSON: заказ с `items` товарами и список из `products` продуктов.
+ * `ObjectMapper` настроен так же, как в Spring Boot: модули подключены, даты пишутся строками ISO-8601.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @State(Scope.Benchmark)
+    public static class OrderState {
+
+        @Param({"1", "10", "100"})
+        private int items;
+
+        private Order order;
+
+        @Setup
+        public void setUp() {
+            order = Fixtures.order(items);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ProductsState {
+
+        @Param({"50", "500"})
+        private int products;
+
+        private List<Product> productList;
+
+        @Setup
+        public void setUp() {
+            productList = Fixtures.products(products);
+        }
+    }
+
+    @Benchmark
+    public byte[] order(OrderState state) throws JsonProcessingException {
+        return OBJECT_MAPPER.writeValueAsBytes(state.order);
+    }
+
+    @Benchmark
+    public byte[] productList(ProductsState state) throws JsonProcessingException {
+        return OBJECT_MAPPER.writeValueAsBytes(state.productList);
+    }
+}
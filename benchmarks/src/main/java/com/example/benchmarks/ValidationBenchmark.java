@@ -0,0 +1,89 @@
+package com.example.benchmarks;
+
+import com.example.orderservice.dto.OrderRequest;
+import com.example.productservice.dto.ProductRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость Bean Validation входящих запросов.
+ * Корректный запрос проходит все ограничения, некорректный нарушает каждое поле
+ * и дополнительно измеряет построение сообщений об ошибках.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+
+    /**
+     * Общий валидатор: в сервисах Spring создаёт его один раз, и кэш метаданных классов прогрет.
+     */
+    @State(Scope.Benchmark)
+    public static class ValidatorState {
+
+        private ValidatorFactory validatorFactory;
+        private Validator validator;
+
+        @Setup
+        public void setUp() {
+            validatorFactory = Validation.buildDefaultValidatorFactory();
+            validator = validatorFactory.getValidator();
+        }
+
+        @TearDown
+        public void tearDown() {
+            validatorFactory.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class OrderState {
+
+        @Param({"1", "10", "100"})
+        private int items;
+
+        private OrderRequest valid;
+        private OrderRequest invalid;
+
+        @Setup
+        public void setUp() {
+            valid = Fixtures.orderRequest(items, true);
+            invalid = Fixtures.orderRequest(items, false);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ProductState {
+
+        private final ProductRequest valid = Fixtures.productRequest(true);
+        private final ProductRequest invalid = Fixtures.productRequest(false);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<OrderRequest>> validOrderRequest(ValidatorState validator, OrderState state) {
+        return validator.validator.validate(state.valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<OrderRequest>> invalidOrderRequest(ValidatorState validator, OrderState state) {
+        return validator.validator.validate(state.invalid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ProductRequest>> validProductRequest(ValidatorState validator, ProductState state) {
+        return validator.validator.validate(state.valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ProductRequest>> invalidProductRequest(ValidatorState validator, ProductState state) {
+        return validator.validator.validate(state.invalid);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.common;
+
+import com.example.common.jdbc.SqlProfilerProperties;
+import com.example.common.replica.ReplicaProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Общая инфраструктура orderService и productService: чтение с реплики ({@code replica})
+ * и профилировщик SQL-запросов ({@code jdbc}).
+ * Подключается в приложении сервиса через `@Import(CommonConfiguration.class)`; настройки
+ * общих компонентов регистрируются здесь, а не в сервисах.
+ */
+@Configuration
+@ComponentScan
+@EnableConfigurationProperties({ReplicaProperties.class, SqlProfilerProperties.class})
+public class CommonConfiguration {
+}
@@ -0,0 +1,297 @@
+package com.example.common.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Прокси JDBC для {@link SqlProfiler}.
+ * <ul>
+ *     <li>соединение оборачивает создаваемые им `Statement`, `PreparedStatement` и `CallableStatement`;</li>
+ *     <li>запрос запоминает свой SQL и параметры, измеряет время каждого `execute*` и передаёт его профилировщику
+ *     вместе с количеством изменённых строк;</li>
+ *     <li>результат запроса считает прочитанные строки и передаёт их при закрытии результата или запроса.</li>
+ * </ul>
+ */
+final class JdbcProxies {
+
+    private JdbcProxies() {
+    }
+
+    static Connection connection(Connection target, String pool, SqlProfiler profiler) {
+        return proxy(Connection.class, new ConnectionHandler(target, pool, profiler));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(JdbcProxies.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    /**
+     * Общая часть обработчиков: методы `Object`, `unwrap` и вызов обёрнутого объекта.
+     */
+    private abstract static class Handler implements InvocationHandler {
+
+        final Object target;
+
+        Handler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return target.toString();
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                default:
+                    return handle(method, args);
+            }
+            return call(method, args);
+        }
+
+        abstract Object handle(Method method, Object[] args) throws Throwable;
+
+        final Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static final class ConnectionHandler extends Handler {
+
+        private final String pool;
+        private final SqlProfiler profiler;
+
+        ConnectionHandler(Connection target, String pool, SqlProfiler profiler) {
+            super(target);
+            this.pool = pool;
+            this.profiler = profiler;
+        }
+
+        @Override
+        Object handle(Method method, Object[] args) throws Throwable {
+            Object result = call(method, args);
+            return switch (method.getName()) {
+                case "prepareStatement" -> proxy(PreparedStatement.class,
+                        new StatementHandler(result, (String) args[0], pool, profiler));
+                case "prepareCall" -> proxy(CallableStatement.class,
+                        new StatementHandler(result, (String) args[0], pool, profiler));
+                case "createStatement" -> proxy(Statement.class, new StatementHandler(result, null, pool, profiler));
+                default -> result;
+            };
+        }
+    }
+
+    private static final class StatementHandler extends Handler {
+
+        private final String sql;
+        private final String pool;
+        private final SqlProfiler profiler;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+        private final List<String> batchSql = new ArrayList<>();
+        private int batchSize;
+        private StatementStats lastStats;
+        private ResultSetHandler resultSet;
+
+        StatementHandler(Object target, String sql, String pool, SqlProfiler profiler) {
+            super(target);
+            this.sql = sql;
+            this.pool = pool;
+            this.profiler = profiler;
+        }
+
+        @Override
+        Object handle(Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            switch (name) {
+                case "addBatch" -> {
+                    if (args == null) {
+                        batchSize++;
+                    } else {
+                        batchSql.add((String) args[0]);
+                    }
+                }
+                case "clearBatch" -> clearBatch();
+                case "clearParameters" -> parameters.clear();
+                case "getResultSet" -> {
+                    Object result = call(method, args);
+                    return result instanceof ResultSet rows && lastStats != null ? resultSet(rows, lastStats) : result;
+                }
+                case "close" -> flushRows();
+                default -> {
+                    // setInt(1, ...), setString(2, ...), setNull(3, Types.x) и т. п. — параметры по номеру
+                    if (name.startsWith("set") && args != null && args.length >= 2
+                            && method.getParameterTypes()[0] == int.class) {
+                        parameters.put((Integer) args[0], name.equals("setNull") ? null : args[1]);
+                    }
+                }
+            }
+            return call(method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            flushRows();
+            String name = method.getName();
+            boolean batch = name.equals("executeBatch") || name.equals("executeLargeBatch");
+            String statementSql = args != null && args.length > 0 && args[0] instanceof String text ? text : sql;
+            if (statementSql == null && batch && !batchSql.isEmpty()) {
+                statementSql = batchSql.getFirst();
+            }
+            if (statementSql == null) {
+                return call(method, args);
+            }
+
+            int batchRows = batch ? Math.max(batchSize, batchSql.size()) : 0;
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = call(method, args);
+            } catch (Throwable e) {
+                profiler.record(pool, statementSql, System.nanoTime() - start, 0, true, () -> describe(batchRows));
+                if (batch) {
+                    clearBatch();
+                }
+                throw e;
+            }
+            long nanos = System.nanoTime() - start;
+            long rows = switch (result) {
+                case Integer count -> Math.max(count, 0);
+                case Long count -> Math.max(count, 0);
+                case int[] counts -> sum(counts);
+                case long[] counts -> sum(counts);
+                // Строки результата считаются при чтении
+                case ResultSet ignored -> -1;
+                case Boolean hasResultSet -> hasResultSet ? -1 : 0;
+                default -> 0;
+            };
+            lastStats = profiler.record(pool, statementSql, nanos, rows, false, () -> describe(batchRows));
+            if (batch) {
+                clearBatch();
+            }
+            return result instanceof ResultSet rowsRead ? resultSet(rowsRead, lastStats) : result;
+        }
+
+        private ResultSet resultSet(ResultSet target, StatementStats stats) {
+            flushRows();
+            resultSet = new ResultSetHandler(target, stats);
+            return proxy(ResultSet.class, resultSet);
+        }
+
+        private void flushRows() {
+            if (resultSet != null) {
+                resultSet.flush();
+                resultSet = null;
+            }
+        }
+
+        private void clearBatch() {
+            batchSize = 0;
+            batchSql.clear();
+        }
+
+        private String describe(int batchRows) {
+            StringBuilder description = new StringBuilder("[");
+            parameters.forEach((index, value) -> {
+                if (description.length() > 1) {
+                    description.append(", ");
+                }
+                description.append(index).append('=').append(format(value));
+            });
+            description.append(']');
+            if (batchRows > 0) {
+                description.append(" (пакет из ").append(batchRows).append(", параметры последней строки)");
+            }
+            return description.toString();
+        }
+
+        private static String format(Object value) {
+            return switch (value) {
+                case null -> "NULL";
+                case String text -> "'" + text + "'";
+                case byte[] bytes -> "<" + bytes.length + " байт>";
+                default -> value.toString();
+            };
+        }
+
+        private static long sum(int[] counts) {
+            long sum = 0;
+            for (int count : counts) {
+                sum += Math.max(count, 0);
+            }
+            return sum;
+        }
+
+        private static long sum(long[] counts) {
+            long sum = 0;
+            for (long count : counts) {
+                sum += Math.max(count, 0);
+            }
+            return sum;
+        }
+    }
+
+    private static final class ResultSetHandler extends Handler {
+
+        private final StatementStats stats;
+        private long rows;
+        private boolean flushed;
+
+        ResultSetHandler(ResultSet target, StatementStats stats) {
+            super(target);
+            this.stats = stats;
+        }
+
+        @Override
+        Object handle(Method method, Object[] args) throws Throwable {
+            Object result = call(method, args);
+            switch (method.getName()) {
+                case "next" -> {
+                    if ((Boolean) result) {
+                        rows++;
+                    }
+                }
+                case "close" -> flush();
+                default -> {
+                }
+            }
+            return result;
+        }
+
+        void flush() {
+            if (!flushed) {
+                flushed = true;
+                stats.addRows(rows);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.common.jdbc;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Пул соединений, запросы через который учитываются в {@link SqlProfiler}.
+ * Соединения, запросы и результаты оборачиваются прокси ({@link JdbcProxies}); `unwrap` проходит насквозь,
+ * поэтому код, которому нужно соединение драйвера (`PGConnection`), и метрики пула работают как раньше.
+ */
+public class ProfilingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final String pool;
+    private final ObjectProvider<SqlProfiler> sqlProfilerProvider;
+    private volatile SqlProfiler sqlProfiler;
+
+    /**
+     * @param pool                Имя пула для метрик и журнала.
+     * @param sqlProfilerProvider Профилировщик получается при первом соединении: пул создаётся раньше него.
+     */
+    public ProfilingDataSource(DataSource target, String pool, ObjectProvider<SqlProfiler> sqlProfilerProvider) {
+        super(target);
+        this.pool = pool;
+        this.sqlProfilerProvider = sqlProfilerProvider;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    /**
+     * Закрыть пул. Вызывается контекстом Spring вместо `close` обёрнутого пула.
+     */
+    @Override
+    public void close() throws Exception {
+        if (obtainTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Connection wrap(Connection connection) {
+        SqlProfiler profiler = sqlProfiler;
+        if (profiler == null) {
+            profiler = sqlProfilerProvider.getIfAvailable();
+            if (profiler == null) {
+                return connection;
+            }
+            sqlProfiler = profiler;
+        }
+        return JdbcProxies.connection(connection, pool, profiler);
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.common.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Профилировщик SQL на уровне JDBC. Заменяет `spring.jpa.show-sql`: вместо печати каждого запроса
+ * статистика накапливается в памяти по нормализованной сигнатуре ({@link SqlSignature}).
+ * <ul>
+ *     <li>Для каждой сигнатуры учитываются количество выполнений, ошибки, время (среднее, p50, p99, максимум)
+ *     и строки; таблица самых дорогих запросов доступна в `/actuator/sqlstats`.</li>
+ *     <li>Запросы дольше `slow-threshold` попадают в журнал с параметрами — с долей `slow-log-sample-rate`
+ *     и не чаще `slow-log-max-per-second` раз в секунду.</li>
+ *     <li>Если за один HTTP-запрос одинаковый SELECT выполнился не меньше `repeat-threshold` раз,
+ *     это признак N+1: сигнатура помечается, в журнал пишется предупреждение.</li>
+ *     <li>Метрики: `sql.statements` (теги `pool` и `type`), `sql.statements.slow`, `sql.nplusone`.</li>
+ * </ul>
+ * Запросы попадают сюда через {@link ProfilingDataSource}, которым оборачивается каждый пул соединений.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "sql-profiler", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlProfiler {
+
+    /**
+     * Сигнатура, под которой учитываются запросы сверх `max-signatures`.
+     */
+    static final String OTHER = "(другие запросы)";
+
+    private static final ThreadLocal<Map<StatementStats, int[]>> REQUEST = new ThreadLocal<>();
+
+    private final SqlProfilerProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final long slowThresholdNanos;
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Counter slowCounter;
+    private final Counter nPlusOneCounter;
+    private final AtomicLong logSecond = new AtomicLong();
+    private final AtomicInteger logsInSecond = new AtomicInteger();
+
+    public SqlProfiler(SqlProfilerProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdNanos = properties.getSlowThreshold().toNanos();
+        this.slowCounter = Counter.builder("sql.statements.slow")
+                .description("SQL-запросы дольше sql-profiler.slow-threshold")
+                .register(meterRegistry);
+        this.nPlusOneCounter = Counter.builder("sql.nplusone")
+                .description("HTTP-запросы, в которых один и тот же SELECT повторялся (признак N+1)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Учесть выполнение запроса.
+     *
+     * @param pool       Имя пула соединений.
+     * @param sql        Текст запроса.
+     * @param nanos      Время выполнения.
+     * @param rows       Изменённые строки или -1, если строки будут учтены позже через {@link StatementStats#addRows}.
+     * @param failed     Выполнение завершилось исключением.
+     * @param parameters Параметры запроса для журнала; вычисляются только для записываемых в журнал запросов.
+     * @return Статистика сигнатуры запроса.
+     */
+    StatementStats record(String pool, String sql, long nanos, long rows, boolean failed, Supplier<String> parameters) {
+        String signature = SqlSignature.of(sql);
+        StatementStats stats = stats(signature);
+        stats.record(nanos, failed);
+        if (rows >= 0) {
+            stats.addRows(rows);
+        }
+        timers.computeIfAbsent(pool + ':' + SqlSignature.type(signature), key -> Timer.builder("sql.statements")
+                        .description("Время выполнения SQL-запросов")
+                        .tag("pool", pool)
+                        .tag("type", SqlSignature.type(signature))
+                        .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+
+        Map<StatementStats, int[]> request = REQUEST.get();
+        if (request != null) {
+            request.computeIfAbsent(stats, key -> new int[1])[0]++;
+        }
+
+        if (nanos >= slowThresholdNanos) {
+            stats.markSlow();
+            slowCounter.increment();
+            if (sampled()) {
+                log.warn("Медленный SQL: {} мс, пул {}: {}; параметры: {}",
+                        nanos / 1_000_000, pool, truncate(sql), truncate(parameters.get()));
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Начать учёт запросов HTTP-запроса в текущем потоке.
+     *
+     * @return Предыдущее состояние, которое нужно передать в {@link #endRequest}.
+     */
+    Map<StatementStats, int[]> beginRequest() {
+        Map<StatementStats, int[]> previous = REQUEST.get();
+        REQUEST.set(new HashMap<>());
+        return previous;
+    }
+
+    /**
+     * Завершить учёт HTTP-запроса и проверить повторяющиеся SELECT.
+     *
+     * @param description Метод и путь HTTP-запроса для журнала.
+     * @param previous    Значение, возвращённое {@link #beginRequest}.
+     */
+    void endRequest(String description, Map<StatementStats, int[]> previous) {
+        Map<StatementStats, int[]> request = REQUEST.get();
+        if (previous == null) {
+            REQUEST.remove();
+        } else {
+            REQUEST.set(previous);
+        }
+        if (request == null) {
+            return;
+        }
+        request.forEach((stats, executions) -> {
+            if (executions[0] >= properties.getRepeatThreshold()
+                    && SqlSignature.type(stats.signature()).equals("select")) {
+                stats.markNPlusOne();
+                nPlusOneCounter.increment();
+                if (sampled()) {
+                    log.warn("Возможная проблема N+1: запрос выполнен {} раз за {}: {}",
+                            executions[0], description, truncate(stats.signature()));
+                }
+            }
+        });
+    }
+
+    /**
+     * Самые дорогие запросы.
+     *
+     * @param limit Количество запросов.
+     * @param sort  Порядок: `total` (суммарное время), `count`, `mean`, `max`, `rows` или `slow`.
+     */
+    public List<SqlStatementSnapshot> top(int limit, String sort) {
+        Comparator<SqlStatementSnapshot> order = switch (sort) {
+            case "count" -> Comparator.comparingLong(SqlStatementSnapshot::count);
+            case "mean" -> Comparator.comparingDouble(SqlStatementSnapshot::meanMs);
+            case "max" -> Comparator.comparingDouble(SqlStatementSnapshot::maxMs);
+            case "rows" -> Comparator.comparingLong(SqlStatementSnapshot::rows);
+            case "slow" -> Comparator.comparingLong(SqlStatementSnapshot::slow);
+            case "total" -> Comparator.comparingDouble(SqlStatementSnapshot::totalMs);
+            default -> throw new IllegalArgumentException("Неизвестный порядок: " + sort);
+        };
+        return statements.values().stream()
+                .map(StatementStats::snapshot)
+                .sorted(order.reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public int signatures() {
+        return statements.size();
+    }
+
+    /**
+     * Сбросить накопленную статистику.
+     */
+    public void reset() {
+        statements.clear();
+    }
+
+    private StatementStats stats(String signature) {
+        StatementStats stats = statements.get(signature);
+        if (stats != null) {
+            return stats;
+        }
+        if (statements.size() >= properties.getMaxSignatures()) {
+            signature = OTHER;
+        }
+        return statements.computeIfAbsent(signature, StatementStats::new);
+    }
+
+    /**
+     * Решить, писать ли запись в журнал: выборка с долей `slow-log-sample-rate` и лимит записей в секунду.
+     */
+    private boolean sampled() {
+        if (ThreadLocalRandom.current().nextDouble() >= properties.getSlowLogSampleRate()) {
+            return false;
+        }
+        long second = System.nanoTime() / 1_000_000_000;
+        long current = logSecond.get();
+        if (current != second && logSecond.compareAndSet(current, second)) {
+            logsInSecond.set(0);
+        }
+        return logsInSecond.incrementAndGet() <= properties.getSlowLogMaxPerSecond();
+    }
+
+    private String truncate(String text) {
+        if (text == null || text.length() <= properties.getMaxLogLength()) {
+            return text;
+        }
+        return text.substring(0, properties.getMaxLogLength()) + "…";
+    }
+}
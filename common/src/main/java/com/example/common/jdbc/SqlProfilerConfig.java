@@ -0,0 +1,32 @@
+package com.example.common.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Подключение {@link SqlProfiler}: каждый пул соединений ({@link HikariDataSource}) оборачивается
+ * в {@link ProfilingDataSource}. При включённой реплике оборачиваются оба пула, и метрики запросов
+ * различаются по тегу `pool`.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "sql-profiler", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlProfilerConfig {
+
+    @Bean
+    public static BeanPostProcessor profilingDataSourcePostProcessor(ObjectProvider<SqlProfiler> sqlProfiler) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    String pool = hikari.getPoolName() != null ? hikari.getPoolName() : beanName;
+                    return new ProfilingDataSource(hikari, pool, sqlProfiler);
+                }
+                return bean;
+            }
+        };
+    }
+}
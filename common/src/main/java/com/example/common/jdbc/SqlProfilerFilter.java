@@ -0,0 +1,36 @@
+package com.example.common.jdbc;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Границы HTTP-запроса для поиска N+1 в {@link SqlProfiler}: запросы к базе, выполненные
+ * в потоке обработки, учитываются вместе и проверяются после ответа.
+ */
+@Component
+@ConditionalOnProperty(prefix = "sql-profiler", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class SqlProfilerFilter extends OncePerRequestFilter {
+
+    private final SqlProfiler sqlProfiler;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Map<StatementStats, int[]> previous = sqlProfiler.beginRequest();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            sqlProfiler.endRequest(request.getMethod() + " " + request.getRequestURI(), previous);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.common.jdbc;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки профилировщика SQL.
+ * Значения задаются в `application.yml` в разделе `sql-profiler`.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "sql-profiler")
+public class SqlProfilerProperties {
+
+    /**
+     * Учитывать выполнение SQL-запросов через пулы соединений.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Запросы, выполнявшиеся дольше, попадают в журнал вместе с параметрами.
+     */
+    private Duration slowThreshold = Duration.ofMillis(200);
+
+    /**
+     * Доля медленных запросов, попадающих в журнал (от 0 до 1).
+     */
+    private double slowLogSampleRate = 1.0;
+
+    /**
+     * Не больше стольких записей о медленных запросах и N+1 в журнале за секунду.
+     */
+    private int slowLogMaxPerSecond = 10;
+
+    /**
+     * Длина SQL и списка параметров в журнале, после которой текст обрезается.
+     */
+    private int maxLogLength = 2000;
+
+    /**
+     * Максимум различных сигнатур в статистике. Запросы с новыми сигнатурами сверх него учитываются вместе.
+     */
+    private int maxSignatures = 1000;
+
+    /**
+     * Сколько раз один и тот же SELECT должен выполниться за HTTP-запрос, чтобы считаться признаком N+1.
+     */
+    private int repeatThreshold = 10;
+
+    /**
+     * Размер таблицы `/actuator/sqlstats` по умолчанию.
+     */
+    private int topSize = 20;
+}
@@ -0,0 +1,67 @@
+package com.example.common.jdbc;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Нормализация SQL в сигнатуру: литералы и параметры заменяются на `?`, списки `IN (?, ?, ...)` сворачиваются,
+ * комментарии удаляются, пробелы схлопываются. Запросы, отличающиеся только значениями, получают одну сигнатуру.
+ * <p>
+ * Текст запросов Hibernate и JdbcTemplate постоянен, поэтому результаты кэшируются.
+ */
+final class SqlSignature {
+
+    private static final int CACHE_SIZE = 10_000;
+
+    private static final Pattern COMMENTS = Pattern.compile("/\\*.*?\\*/|--[^\\n]*", Pattern.DOTALL);
+    private static final Pattern STRINGS = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBERS = Pattern.compile("(?<![\\w$])-?\\d+(?:\\.\\d+)?(?![\\w$])");
+    private static final Pattern POSITIONAL = Pattern.compile("\\$\\d+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin \\(\\?(?: ?, ?\\?)*\\)");
+
+    private static final Map<String, String> CACHE = new ConcurrentHashMap<>();
+
+    private SqlSignature() {
+    }
+
+    static String of(String sql) {
+        String signature = CACHE.get(sql);
+        if (signature == null) {
+            signature = normalize(sql);
+            if (CACHE.size() < CACHE_SIZE) {
+                CACHE.put(sql, signature);
+            }
+        }
+        return signature;
+    }
+
+    static String normalize(String sql) {
+        String result = COMMENTS.matcher(sql).replaceAll(" ");
+        result = STRINGS.matcher(result).replaceAll("?");
+        result = POSITIONAL.matcher(result).replaceAll("?");
+        result = NUMBERS.matcher(result).replaceAll("?");
+        result = WHITESPACE.matcher(result).replaceAll(" ").trim();
+        return IN_LIST.matcher(result).replaceAll("in (...)");
+    }
+
+    /**
+     * Тип запроса по первому слову: `select`, `insert`, `update`, `delete` или `other`.
+     * Запросы `WITH ...` относятся к `select`, если не изменяют данные.
+     */
+    static String type(String signature) {
+        int end = signature.indexOf(' ');
+        String keyword = (end < 0 ? signature : signature.substring(0, end)).toLowerCase(Locale.ROOT);
+        return switch (keyword) {
+            case "select", "insert", "update", "delete" -> keyword;
+            case "with" -> {
+                String lower = signature.toLowerCase(Locale.ROOT);
+                yield lower.contains(" insert ") || lower.contains(" update ") || lower.contains(" delete ")
+                        ? "other" : "select";
+            }
+            default -> "other";
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.common.jdbc;
+
+/**
+ * Статистика сигнатуры SQL для `/actuator/sqlstats`. Время указано в миллисекундах.
+ *
+ * @param signature Нормализованный текст запроса.
+ * @param count     Количество выполнений.
+ * @param errors    Выполнения, завершившиеся исключением.
+ * @param p50Ms     Медиана задержки (приблизительно, по корзинам-степеням двойки).
+ * @param p99Ms     99-й перцентиль задержки (так же приблизительно).
+ * @param rows      Строки, возвращённые или изменённые всеми выполнениями.
+ * @param slow      Выполнения дольше `sql-profiler.slow-threshold`.
+ * @param nPlusOne  HTTP-запросы, в которых запрос повторялся не меньше `sql-profiler.repeat-threshold` раз.
+ */
+public record SqlStatementSnapshot(
+        String signature,
+        long count,
+        long errors,
+        double totalMs,
+        double meanMs,
+        double p50Ms,
+        double p99Ms,
+        double maxMs,
+        long rows,
+        double meanRows,
+        long maxRows,
+        long slow,
+        long nPlusOne) {
+}
@@ -0,0 +1,47 @@
+package com.example.common.jdbc;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator-эндпоинт `/actuator/sqlstats` с самыми дорогими SQL-запросами.
+ * Параметры: `limit` — количество запросов (по умолчанию `sql-profiler.top-size`),
+ * `sort` — `total`, `count`, `mean`, `max`, `rows` или `slow`. DELETE сбрасывает статистику.
+ */
+@Component
+@Endpoint(id = "sqlstats")
+@ConditionalOnProperty(prefix = "sql-profiler", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class SqlStatsEndpoint {
+
+    private final SqlProfiler sqlProfiler;
+    private final SqlProfilerProperties properties;
+
+    @ReadOperation
+    public Map<String, Object> top(@Nullable Integer limit, @Nullable String sort) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("slowThresholdMs", properties.getSlowThreshold().toMillis());
+        result.put("signatures", sqlProfiler.signatures());
+        try {
+            result.put("statements", sqlProfiler.top(limit != null ? limit : properties.getTopSize(),
+                    sort != null ? sort : "total"));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+        return result;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        sqlProfiler.reset();
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.common.jdbc;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Накопленная статистика одной сигнатуры SQL.
+ * Задержки раскладываются по корзинам с границами-степенями двойки в микросекундах,
+ * поэтому перцентили приблизительные (с точностью до корзины), а учёт не создаёт объектов.
+ */
+final class StatementStats {
+
+    private static final int BUCKETS = 40;
+
+    private final String signature;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder rows = new LongAdder();
+    private final LongAccumulator maxRows = new LongAccumulator(Math::max, 0);
+    private final LongAdder slow = new LongAdder();
+    private final LongAdder nPlusOne = new LongAdder();
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+    StatementStats(String signature) {
+        this.signature = signature;
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    String signature() {
+        return signature;
+    }
+
+    void record(long nanos, boolean failed) {
+        count.increment();
+        if (failed) {
+            errors.increment();
+        }
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        long micros = nanos / 1_000;
+        buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros))].increment();
+    }
+
+    /**
+     * Учесть строки, возвращённые или изменённые одним выполнением запроса.
+     */
+    void addRows(long count) {
+        rows.add(count);
+        maxRows.accumulate(count);
+    }
+
+    void markSlow() {
+        slow.increment();
+    }
+
+    void markNPlusOne() {
+        nPlusOne.increment();
+    }
+
+    long totalNanos() {
+        return totalNanos.sum();
+    }
+
+    SqlStatementSnapshot snapshot() {
+        long executions = count.sum();
+        long total = totalNanos.sum();
+        long rowCount = rows.sum();
+        return new SqlStatementSnapshot(
+                signature,
+                executions,
+                errors.sum(),
+                millis(total),
+                executions == 0 ? 0 : millis(total / executions),
+                percentileMillis(executions, 0.5),
+                percentileMillis(executions, 0.99),
+                millis(maxNanos.get()),
+                rowCount,
+                executions == 0 ? 0 : Math.round(rowCount * 10.0 / executions) / 10.0,
+                maxRows.get(),
+                slow.sum(),
+                nPlusOne.sum());
+    }
+
+    /**
+     * Верхняя граница корзины, в которую попадает перцентиль.
+     */
+    private double percentileMillis(long executions, double percentile) {
+        if (executions == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(executions * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i].sum();
+            if (seen >= rank) {
+                return (1L << i) / 1_000.0;
+            }
+        }
+        return millis(maxNanos.get());
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
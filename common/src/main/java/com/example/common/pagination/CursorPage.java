@@ -0,0 +1,25 @@
+package com.example.common.pagination;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Страница списка при keyset-пагинации.
+ *
+ * @param <T> Тип элементов страницы.
+ */
+@Getter
+@AllArgsConstructor
+@Schema(description = "Страница списка с курсором на следующую страницу")
+public class CursorPage<T> {
+
+    @Schema(description = "Элементы страницы")
+    private List<T> items;
+
+    @Schema(description = "Курсор следующей страницы. Отсутствует, если это последняя страница.",
+            example = "MTcxNDU2NjQ5Ni4xMjMwMDAwMDA6MTIzZTQ1NjctZTg5Yi0xMmQzLWE0NTYtNDI2NjE0MTc0MDAw")
+    private String next;
+}
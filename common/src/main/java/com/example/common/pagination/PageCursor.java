@@ -0,0 +1,49 @@
+package com.example.common.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Позиция в списке для keyset-пагинации: ключ `(created_at, id)` последнего элемента страницы.
+ * Клиент получает курсор в виде непрозрачной строки и передаёт её обратно без изменений.
+ *
+ * @param createdAt Дата создания последнего элемента страницы.
+ * @param id        Идентификатор последнего элемента страницы.
+ */
+public record PageCursor(Instant createdAt, UUID id) {
+
+    /**
+     * Закодировать курсор в строку, безопасную для передачи в URL.
+     */
+    public String encode() {
+        String raw = createdAt.getEpochSecond() + "." + createdAt.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Восстановить курсор из строки, полученной от клиента.
+     *
+     * @param value Закодированный курсор.
+     * @return Курсор.
+     * @throws IllegalArgumentException если строка не является корректным курсором.
+     */
+    public static PageCursor decode(String value) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int colon = raw.indexOf(':');
+            int dot = raw.indexOf('.');
+            if (dot < 0 || colon < dot) {
+                throw new IllegalArgumentException("Некорректный курсор");
+            }
+            Instant createdAt = Instant.ofEpochSecond(
+                    Long.parseLong(raw.substring(0, dot)),
+                    Long.parseLong(raw.substring(dot + 1, colon)));
+            return new PageCursor(createdAt, UUID.fromString(raw.substring(colon + 1)));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IllegalArgumentException("Некорректный курсор", e);
+        }
+    }
+}
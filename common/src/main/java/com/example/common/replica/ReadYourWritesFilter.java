@@ -0,0 +1,110 @@
+package com.example.common.replica;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Защита «читай свои записи» при чтении с реплики.
+ * <p>
+ * Когда в ходе запроса фиксируется пишущая транзакция, ответ получает cookie {@value #COOKIE} со временем записи.
+ * Пока с этого времени не прошло `replica.read-your-writes-window`, чтения этого клиента
+ * направляются в основную базу, поэтому отставание реплики не скрывает от него его же изменения.
+ * Запрос, пришедший на другой экземпляр сервиса, защищён так же: время хранится у клиента.
+ * <p>
+ * Cookie ставится по факту коммита (фильтр — слушатель транзакций, Spring Boot подключает его к менеджеру
+ * транзакций), а не по HTTP-методу: POST, который только читает (например, `/api/products/batch`),
+ * не должен направлять следующие чтения клиента в основную базу.
+ */
+@Component
+@ConditionalOnProperty(prefix = "replica", name = "enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter implements TransactionExecutionListener {
+
+    static final String COOKIE = "last-write";
+
+    // Ответ на запрос, обрабатываемый в текущем потоке
+    private static final ThreadLocal<PendingResponse> RESPONSE = new ThreadLocal<>();
+
+    private final long windowMillis;
+
+    public ReadYourWritesFilter(ReplicaProperties properties) {
+        this.windowMillis = properties.getReadYourWritesWindow().toMillis();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean primary = wroteRecently(request);
+        Boolean previousRouting = primary ? ReplicaRouting.forcePrimary() : null;
+        PendingResponse previousResponse = RESPONSE.get();
+        RESPONSE.set(new PendingResponse(response));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (previousResponse == null) {
+                RESPONSE.remove();
+            } else {
+                RESPONSE.set(previousResponse);
+            }
+            if (primary) {
+                ReplicaRouting.restore(previousRouting);
+            }
+        }
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, @Nullable Throwable commitFailure) {
+        PendingResponse pending = RESPONSE.get();
+        if (pending == null || pending.cookieSet || commitFailure != null
+                || transaction.isReadOnly() || !transaction.isNewTransaction()) {
+            return;
+        }
+        // После отправки заголовков cookie уже не поставить; запись в потоковом ответе клиент не защищает
+        if (pending.response.isCommitted()) {
+            return;
+        }
+        Cookie cookie = new Cookie(COOKIE, Long.toString(System.currentTimeMillis()));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, (windowMillis + 999) / 1000));
+        pending.response.addCookie(cookie);
+        pending.cookieSet = true;
+    }
+
+    private boolean wroteRecently(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return System.currentTimeMillis() - Long.parseLong(cookie.getValue()) < windowMillis;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static final class PendingResponse {
+
+        private final HttpServletResponse response;
+        private boolean cookieSet;
+
+        PendingResponse(HttpServletResponse response) {
+            this.response = response;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.common.replica;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки реплики базы данных для чтения.
+ * Значения задаются в `application.yml` в разделе `replica`; настройки пула реплики —
+ * в `replica.hikari`, пула основной базы — как обычно в `spring.datasource.hikari`.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "replica")
+public class ReplicaProperties {
+
+    /**
+     * Направлять ли транзакции только для чтения на реплику.
+     */
+    private boolean enabled = false;
+
+    /**
+     * JDBC URL реплики.
+     */
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    private String driverClassName;
+
+    /**
+     * Время после записи, в течение которого чтения того же клиента идут в основную базу,
+     * чтобы он увидел свои изменения несмотря на отставание реплики.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(2);
+}
@@ -0,0 +1,67 @@
+package com.example.common.replica;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Выбор базы для транзакций только для чтения.
+ * <p>
+ * Транзакции только для чтения получают соединение с реплики, остальные — с основной базы
+ * (см. {@link ReplicaDataSourceConfig}). Код, которому нужно прочитать только что записанные данные,
+ * выполняется через {@link #onPrimary}: тогда и чтения в текущем потоке идут в основную базу.
+ * Выбор делается при получении соединения, то есть на первом запросе транзакции.
+ */
+public final class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    /**
+     * Выполнить действие, направляя чтения в основную базу.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = PRIMARY.get();
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    static Boolean forcePrimary() {
+        Boolean previous = PRIMARY.get();
+        PRIMARY.set(Boolean.TRUE);
+        return previous;
+    }
+
+    static void restore(Boolean previous) {
+        if (previous == null) {
+            PRIMARY.remove();
+        } else {
+            PRIMARY.set(previous);
+        }
+    }
+
+    /**
+     * Источник соединений для транзакций только для чтения: реплика или основная база,
+     * если чтения в текущем потоке направлены в неё.
+     */
+    static DataSource readOnlyDataSource(DataSource primary, DataSource replica) {
+        AbstractRoutingDataSource routing = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return PRIMARY.get() != null ? "primary" : "replica";
+            }
+        };
+        routing.setTargetDataSources(Map.of("primary", primary, "replica", replica));
+        routing.setDefaultTargetDataSource(replica);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+}
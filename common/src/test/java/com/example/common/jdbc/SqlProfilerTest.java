@@ -0,0 +1,97 @@
+package com.example.common.jdbc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SqlProfilerTest {
+
+    private static final String FIND_BY_ID = "select p1_0.id,p1_0.name from products p1_0 where p1_0.id=?";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SqlProfilerProperties properties = new SqlProfilerProperties();
+    private SqlProfiler sqlProfiler;
+
+    @BeforeEach
+    void setUp() {
+        properties.setSlowThreshold(Duration.ofMillis(100));
+        properties.setRepeatThreshold(3);
+        properties.setMaxSignatures(3);
+        sqlProfiler = new SqlProfiler(properties, meterRegistry);
+    }
+
+    @Test
+    void literalsAndInListsShareSignature() {
+        assertEquals("SELECT * FROM products WHERE name = ? AND price > ? AND id in (...)",
+                SqlSignature.normalize("SELECT * FROM products /* поиск */ WHERE name = 'Ноут''бук'\n"
+                        + "  AND price > 10.5 AND id IN (?, ?, ?)"));
+        assertEquals("update products set price=? where id=?",
+                SqlSignature.normalize("update products set price=$1 where id=$2"));
+        assertEquals("select p1_0.id from products p1_0",
+                SqlSignature.normalize("select p1_0.id from products p1_0"));
+        assertEquals("select", SqlSignature.type("WITH t AS (select ?) select * from t"));
+        assertEquals("insert", SqlSignature.type("insert into products (id) values (?)"));
+    }
+
+    @Test
+    void aggregatesStatementsBySignature() {
+        sqlProfiler.record("primary", "select * from products where id = 1", millis(10), 1, false, () -> "[]");
+        sqlProfiler.record("primary", "select * from products where id = 2", millis(30), 0, false, () -> "[]");
+        StatementStats insert = sqlProfiler.record("primary", "insert into products (id) values (?)",
+                millis(150), -1, false, () -> "[1='a']");
+        insert.addRows(5);
+
+        List<SqlStatementSnapshot> top = sqlProfiler.top(10, "count");
+        assertEquals(2, sqlProfiler.signatures());
+        assertEquals("select * from products where id = ?", top.get(0).signature());
+        assertEquals(2, top.get(0).count());
+        assertEquals(1, top.get(0).rows());
+        assertEquals(40.0, top.get(0).totalMs(), 0.001);
+        assertEquals(5, top.get(1).rows());
+        assertEquals(1, top.get(1).slow());
+        assertEquals(1.0, meterRegistry.counter("sql.statements.slow").count());
+        assertEquals(3, meterRegistry.get("sql.statements").timers().stream().mapToLong(timer -> timer.count()).sum());
+    }
+
+    @Test
+    void repeatedSelectWithinRequestIsMarkedAsNPlusOne() {
+        Map<StatementStats, int[]> previous = sqlProfiler.beginRequest();
+        for (int i = 0; i < 3; i++) {
+            sqlProfiler.record("primary", FIND_BY_ID, millis(1), 1, false, () -> "[]");
+        }
+        sqlProfiler.record("primary", "insert into products (id) values (?)", millis(1), 1, false, () -> "[]");
+        sqlProfiler.endRequest("GET /api/products", previous);
+
+        // Вне HTTP-запроса повторы не учитываются
+        for (int i = 0; i < 3; i++) {
+            sqlProfiler.record("primary", FIND_BY_ID, millis(1), 1, false, () -> "[]");
+        }
+
+        List<SqlStatementSnapshot> top = sqlProfiler.top(10, "count");
+        assertEquals(1, top.get(0).nPlusOne());
+        assertEquals(0, top.get(1).nPlusOne());
+        assertEquals(1.0, meterRegistry.counter("sql.nplusone").count());
+    }
+
+    @Test
+    void signaturesOverLimitAreCombined() {
+        for (int i = 0; i < 5; i++) {
+            sqlProfiler.record("primary", "select * from table_" + (char) ('a' + i), millis(1), 0, false, () -> "[]");
+        }
+
+        assertEquals(4, sqlProfiler.signatures());
+        assertEquals(SqlProfiler.OTHER, sqlProfiler.top(1, "count").getFirst().signature());
+        assertThrows(IllegalArgumentException.class, () -> sqlProfiler.top(1, "name"));
+    }
+
+    private static long millis(long millis) {
+        return Duration.ofMillis(millis).toNanos();
+    }
+}
@@ -0,0 +1,115 @@
+#!/usr/bin/env bash
+# Нагрузочный тест. Отчёт пишется в loadtest/results/load-<коммит>-<режим>.json.
+#
+#   loadtest/run.sh gateway [--load.rate=200 ...]   # Postgres из docker compose, сервисы и apiGateway локально
+#   loadtest/run.sh direct  [--load.rate=200 ...]   # то же, но запросы идут напрямую в сервисы
+#   loadtest/run.sh stub    [--load.rate=200 ...]   # встроенные заглушки сервисов, без базы данных
+#   loadtest/run.sh slow-products [...]             # приём заказов при медленном productService:
+#                                                   # синхронный и асинхронный прогоны, отчёты *-sync и *-async
+#   loadtest/run.sh bulk-orders [...]               # создание заказов по одному и пакетами с одинаковой
+#                                                   # частотой заказов, отчёты *-single и *-bulk
+#
+# Сравнение двух прогонов:
+#   java -jar loadtest/target/loadtest.jar compare loadtest/results/load-<a>-gateway.json loadtest/results/load-<b>-gateway.json
+set -euo pipefail
+
+mode=${1:-gateway}
+shift || true
+root=$(cd "$(dirname "$0")/.." && pwd)
+label=$(git -C "$root" rev-parse --short HEAD)
+logs="$root/loadtest/results/logs"
+mkdir -p "$logs"
+pids=()
+
+cleanup() {
+    for pid in "${pids[@]}"; do
+        kill "$pid" 2>/dev/null || true
+    done
+    wait 2>/dev/null || true
+}
+trap cleanup EXIT
+
+start_service() {
+    local name=$1 port=$2
+    shift 2
+    (cd "$root/$name" && mvn -B -q -DskipTests package)
+    java -jar "$root/$name/target/$name-0.0.1-SNAPSHOT.jar" "$@" > "$logs/$name.log" 2>&1 &
+    pids+=($!)
+    echo "Ожидание $name на порту $port (журнал: $logs/$name.log)"
+    until curl -sf "http://localhost:$port/actuator/health" > /dev/null; do
+        sleep 2
+    done
+}
+
+case "$mode" in
+    gateway|direct)
+        docker compose -f "$root/docker-compose.yml" up -d postgres
+        url=jdbc:postgresql://localhost:5432/catalog_db
+        datasource=(--spring.datasource.username=user --spring.datasource.password=password)
+        start_service productService 8081 --spring.datasource.url="$url" "${datasource[@]}"
+        # Как в application.yml и docker-compose.yml: драйвер объединяет пакетные вставки заказов
+        start_service orderService 8082 --spring.datasource.url="$url?reWriteBatchedInserts=true" "${datasource[@]}" \
+            --product-service.url=http://localhost:8081
+        if [ "$mode" = gateway ]; then
+            start_service apiGateway 8090 --spring.config.additional-location="file:$root/loadtest/gateway-local.yml"
+        fi
+        args=(--load.target="$mode")
+        ;;
+    stub)
+        args=(--load.target=direct --load.stub.enabled=true)
+        ;;
+    slow-products)
+        # Настоящий orderService с базой обращается к заглушке productService генератора, отвечающей с задержкой.
+        # Кэш цен отключён, чтобы каждый синхронный заказ доходил до медленного productService
+        docker compose -f "$root/docker-compose.yml" up -d postgres
+        start_service orderService 8082 \
+            --spring.datasource.url="jdbc:postgresql://localhost:5432/catalog_db?reWriteBatchedInserts=true" \
+            --spring.datasource.username=user --spring.datasource.password=password \
+            --product-service.url=http://localhost:8081 --product-service.cache.max-size=0
+        args=(--load.target=direct --load.stub.enabled=true --load.stub.order-service=false
+              --load.stub.latency=500ms --load.rate=50
+              --load.mix.product-read=0 --load.mix.product-search=0
+              --load.mix.order-create=80 --load.mix.order-lookup=20
+              --load.catalog.products=50 --load.catalog.orders=0)
+        ;;
+    bulk-orders)
+        # Настоящий orderService с базой, цены отдаёт заглушка productService генератора с обычной задержкой
+        docker compose -f "$root/docker-compose.yml" up -d postgres
+        start_service orderService 8082 \
+            --spring.datasource.url="jdbc:postgresql://localhost:5432/catalog_db?reWriteBatchedInserts=true" \
+            --spring.datasource.username=user --spring.datasource.password=password \
+            --product-service.url=http://localhost:8081
+        args=(--load.target=direct --load.stub.enabled=true --load.stub.order-service=false
+              --load.mix.product-read=0 --load.mix.product-search=0
+              --load.mix.order-create=100 --load.mix.order-lookup=0
+              --load.orders.min-lines=3 --load.orders.max-lines=3
+              --load.catalog.products=50 --load.catalog.orders=0)
+        ;;
+    *)
+        echo "Неизвестный режим: $mode (gateway, direct, stub, slow-products или bulk-orders)" >&2
+        exit 2
+        ;;
+esac
+
+(cd "$root/loadtest" && mvn -B -q -DskipTests package)
+
+run_load() {
+    local output=$1
+    shift
+    java -jar "$root/loadtest/target/loadtest.jar" "${args[@]}" \
+        --load.label="$label" \
+        --load.output="$root/loadtest/results/$output.json" \
+        "$@"
+}
+
+if [ "$mode" = slow-products ]; then
+    # Один и тот же поток заказов: ответ после подтверждения цен и ответ 202 сразу после записи в очередь
+    run_load "load-$label-$mode-sync" --load.orders.async=false "$@"
+    run_load "load-$label-$mode-async" --load.orders.async=true "$@"
+elif [ "$mode" = bulk-orders ]; then
+    # 500 заказов в секунду: отдельными запросами и пакетами по 100 заказов
+    run_load "load-$label-$mode-single" --load.rate=500 --load.orders.bulk-size=0 "$@"
+    run_load "load-$label-$mode-bulk" --load.rate=5 --load.orders.bulk-size=100 "$@"
+else
+    run_load "load-$label-$mode" "$@"
+fi
@@ -0,0 +1,36 @@
+package com.example.loadtest;
+
+import com.example.loadtest.config.LoadTestProperties;
+import com.example.loadtest.report.ReportComparator;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Нагрузочный тест сервисов.
+ * <p>
+ * Запуск: `java -jar loadtest.jar --load.rate=200 --load.duration=2m`.
+ * Сравнение двух отчётов: `java -jar loadtest.jar compare base.json new.json`.
+ */
+@SpringBootApplication
+@EnableConfigurationProperties(LoadTestProperties.class)
+public class LoadTestApplication {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("compare")) {
+            if (args.length != 3) {
+                System.err.println("Использование: compare <base.json> <new.json>");
+                System.exit(2);
+            }
+            ReportComparator.compare(new File(args[1]), new File(args[2]), System.out);
+            return;
+        }
+        SpringApplication application = new SpringApplication(LoadTestApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        System.exit(SpringApplication.exit(application.run(args)));
+    }
+}
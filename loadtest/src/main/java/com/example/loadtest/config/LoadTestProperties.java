@@ -0,0 +1,206 @@
+package com.example.loadtest.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Настройки нагрузочного теста.
+ * Значения задаются в `application.yml` в разделе `load` и переопределяются аргументами
+ * командной строки, например `--load.rate=500 --load.mix.order-create=30`.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "load")
+public class LoadTestProperties {
+
+    /**
+     * Куда отправляются запросы.
+     */
+    public enum Target {
+        /** Все запросы идут через apiGateway. */
+        GATEWAY,
+        /** Запросы идут напрямую в productService и orderService. */
+        DIRECT
+    }
+
+    /**
+     * Распределение интервалов между запросами.
+     */
+    public enum Arrival {
+        /** Одинаковые интервалы `1 / rate`. */
+        CONSTANT,
+        /** Экспоненциальные интервалы со средним `1 / rate` (пуассоновский поток). */
+        POISSON
+    }
+
+    private Target target = Target.GATEWAY;
+
+    private URI gatewayUrl = URI.create("http://localhost:8090");
+
+    private URI productServiceUrl = URI.create("http://localhost:8081");
+
+    private URI orderServiceUrl = URI.create("http://localhost:8082");
+
+    /**
+     * Частота запросов в секунду по всем операциям. Запросы отправляются по расписанию
+     * независимо от того, ответил ли сервис на предыдущие (открытая модель нагрузки).
+     */
+    private double rate = 100;
+
+    private Arrival arrival = Arrival.POISSON;
+
+    /**
+     * Прогрев: запросы отправляются, но не попадают в отчёт.
+     */
+    private Duration warmup = Duration.ofSeconds(10);
+
+    /**
+     * Длительность измерения после прогрева.
+     */
+    private Duration duration = Duration.ofSeconds(60);
+
+    /**
+     * Таймаут одного запроса.
+     */
+    private Duration timeout = Duration.ofSeconds(10);
+
+    /**
+     * Максимум запросов в работе. Запросы сверх него не отправляются и учитываются как `dropped`:
+     * это защищает сам генератор, когда сервис перестаёт отвечать.
+     */
+    private int maxInFlight = 10_000;
+
+    /**
+     * Зерно генератора случайных чисел: при одинаковых настройках последовательность операций одинакова.
+     */
+    private long seed = 42;
+
+    /**
+     * Метка прогона в отчёте, например хеш коммита.
+     */
+    private String label;
+
+    /**
+     * Файл отчёта в формате JSON.
+     */
+    private Path output = Path.of("results/load.json");
+
+    /**
+     * Верхняя граница гистограмм задержки. Большие значения записываются как граница.
+     */
+    private Duration maxTrackableLatency = Duration.ofMinutes(1);
+
+    private Mix mix = new Mix();
+
+    private Catalog catalog = new Catalog();
+
+    private Orders orders = new Orders();
+
+    private Stub stub = new Stub();
+
+    /**
+     * Доли операций. Значения — веса, сумма не обязана быть равна 100.
+     */
+    @Getter
+    @Setter
+    public static class Mix {
+
+        /** `GET /api/products/{id}` */
+        private int productRead = 50;
+
+        /** `GET /api/products/search?name=` */
+        private int productSearch = 20;
+
+        /** `POST /api/orders` */
+        private int orderCreate = 10;
+
+        /** `GET /api/orders/{id}` */
+        private int orderLookup = 20;
+    }
+
+    /**
+     * Данные, подготавливаемые перед прогоном.
+     */
+    @Getter
+    @Setter
+    public static class Catalog {
+
+        /**
+         * Сколько продуктов используется в запросах. Недостающие продукты создаются перед прогоном.
+         */
+        private int products = 1000;
+
+        /**
+         * Сколько заказов создаётся перед прогоном, чтобы с самого начала было что запрашивать.
+         */
+        private int orders = 200;
+
+        /**
+         * Строки поиска. Они же входят в названия создаваемых продуктов.
+         */
+        private List<String> searchTerms = List.of("ноутбук", "телефон", "монитор", "клавиатура", "наушники");
+    }
+
+    /**
+     * Состав создаваемых заказов.
+     */
+    @Getter
+    @Setter
+    public static class Orders {
+
+        private int minLines = 1;
+
+        private int maxLines = 5;
+
+        private int maxQuantity = 3;
+
+        /**
+         * Создавать заказы асинхронно (`POST /api/orders?async=true`).
+         */
+        private boolean async = false;
+
+        /**
+         * Заказов в одном запросе `POST /api/orders/bulk`. 0 — каждый заказ отдельным `POST /api/orders`.
+         */
+        private int bulkSize = 0;
+    }
+
+    /**
+     * Встроенные заглушки productService и orderService.
+     * Позволяют проверить сам генератор или измерить apiGateway без сервисов и базы данных.
+     */
+    @Getter
+    @Setter
+    public static class Stub {
+
+        private boolean enabled = false;
+
+        /**
+         * Поднимать заглушку orderService. Если false, заказы создаёт настоящий orderService по адресу
+         * `load.order-service-url`, а заглушка productService отвечает ему на запросы цен с задержкой
+         * `load.stub.latency`.
+         */
+        private boolean orderService = true;
+
+        /**
+         * Порт заглушки productService; 0 — любой свободный.
+         */
+        private int productPort = 8081;
+
+        /**
+         * Порт заглушки orderService; 0 — любой свободный.
+         */
+        private int orderPort = 8082;
+
+        /**
+         * Задержка каждого ответа заглушки.
+         */
+        private Duration latency = Duration.ofMillis(2);
+    }
+}
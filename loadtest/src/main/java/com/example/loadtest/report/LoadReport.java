@@ -0,0 +1,140 @@
+package com.example.loadtest.report;
+
+import com.example.loadtest.config.LoadTestProperties;
+import com.example.loadtest.runner.OperationStats;
+import com.example.loadtest.workload.Operation;
+import org.HdrHistogram.Histogram;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отчёт нагрузочного теста.
+ * Задержки указаны в миллисекундах. Поле `histogram` содержит сжатую гистограмму HdrHistogram
+ * в Base64: по ней можно пересчитать любые перцентили или объединить несколько прогонов.
+ *
+ * @param operations Результаты по операциям и их сумма (`total`).
+ */
+public record LoadReport(
+        String label,
+        Instant startedAt,
+        String target,
+        String arrival,
+        double rate,
+        double warmupSeconds,
+        double durationSeconds,
+        Map<String, Integer> mix,
+        Map<String, OperationReport> operations) {
+
+    public static final String TOTAL = "total";
+
+    /**
+     * Результаты одной операции.
+     *
+     * @param requests     Количество полученных ответов и ошибок.
+     * @param throughput   Ответов в секунду за время измерения.
+     * @param dropped      Запросы, не отправленные из-за `load.max-in-flight`.
+     * @param outcomes     Количество по кодам статуса HTTP и исключениям.
+     * @param responseTime Задержка от запланированного момента отправки.
+     * @param serviceTime  Задержка от фактической отправки.
+     */
+    public record OperationReport(
+            long requests,
+            double throughput,
+            long dropped,
+            Map<String, Long> outcomes,
+            Percentiles responseTime,
+            Percentiles serviceTime,
+            String histogram) {
+    }
+
+    /**
+     * Перцентили задержки в миллисекундах.
+     */
+    public record Percentiles(double min, double mean, double p50, double p90, double p99, double p999,
+                              double p9999, double max) {
+
+        static Percentiles of(Histogram histogram) {
+            if (histogram.getTotalCount() == 0) {
+                return new Percentiles(0, 0, 0, 0, 0, 0, 0, 0);
+            }
+            return new Percentiles(
+                    millis(histogram.getMinValue()),
+                    millis(histogram.getMean()),
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getValueAtPercentile(99.99)),
+                    millis(histogram.getMaxValue()));
+        }
+
+        private static double millis(double nanos) {
+            // Три знака после запятой — точность до микросекунды
+            return Math.round(nanos / 1_000) / 1_000.0;
+        }
+    }
+
+    /**
+     * Собрать отчёт по результатам прогона.
+     */
+    public static LoadReport of(LoadTestProperties properties, Instant startedAt, Map<Operation, OperationStats> results) {
+        double durationSeconds = properties.getDuration().toNanos() / (double) TimeUnit.SECONDS.toNanos(1);
+        LoadTestProperties.Mix mix = properties.getMix();
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        weights.put(Operation.PRODUCT_READ.getKey(), mix.getProductRead());
+        weights.put(Operation.PRODUCT_SEARCH.getKey(), mix.getProductSearch());
+        weights.put(Operation.ORDER_CREATE.getKey(), mix.getOrderCreate());
+        weights.put(Operation.ORDER_LOOKUP.getKey(), mix.getOrderLookup());
+
+        OperationStats total = new OperationStats(properties.getMaxTrackableLatency().toNanos());
+        Map<String, Long> totalOutcomes = new TreeMap<>();
+        Map<String, OperationReport> operations = new LinkedHashMap<>();
+        results.forEach((operation, stats) -> {
+            operations.put(operation.getKey(), operation(stats, stats.outcomeCounts(), durationSeconds));
+            total.getResponseTime().add(stats.getResponseTime());
+            total.getServiceTime().add(stats.getServiceTime());
+            total.getDropped().add(stats.getDropped().sum());
+            stats.outcomeCounts().forEach((outcome, count) -> totalOutcomes.merge(outcome, count, Long::sum));
+        });
+        operations.put(TOTAL, operation(total, totalOutcomes, durationSeconds));
+
+        return new LoadReport(
+                properties.getLabel(),
+                startedAt,
+                properties.getTarget().name(),
+                properties.getArrival().name(),
+                properties.getRate(),
+                properties.getWarmup().toNanos() / (double) TimeUnit.SECONDS.toNanos(1),
+                durationSeconds,
+                weights,
+                operations);
+    }
+
+    private static OperationReport operation(OperationStats stats, Map<String, Long> outcomes, double durationSeconds) {
+        return new OperationReport(
+                stats.getResponseTime().getTotalCount(),
+                throughput(stats.getResponseTime(), durationSeconds),
+                stats.getDropped().sum(),
+                outcomes,
+                Percentiles.of(stats.getResponseTime()),
+                Percentiles.of(stats.getServiceTime()),
+                encode(stats.getResponseTime()));
+    }
+
+    private static double throughput(Histogram histogram, double durationSeconds) {
+        return Math.round(histogram.getTotalCount() / durationSeconds * 10) / 10.0;
+    }
+
+    private static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+}
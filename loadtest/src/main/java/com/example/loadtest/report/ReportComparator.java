@@ -0,0 +1,54 @@
+package com.example.loadtest.report;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Map;
+
+/**
+ * Сравнение двух отчётов {@link LoadReport}, например прогонов на разных коммитах.
+ * Для каждой операции выводятся перцентили задержки `responseTime` в обоих прогонах и их изменение.
+ */
+public final class ReportComparator {
+
+    private static final String[] PERCENTILES = {"p50", "p90", "p99", "p999", "max"};
+
+    private ReportComparator() {
+    }
+
+    public static void compare(File baseFile, File newFile, PrintStream out) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode base = objectMapper.readTree(baseFile);
+        JsonNode current = objectMapper.readTree(newFile);
+        out.printf("base: %s (%s), new: %s (%s)%n",
+                base.path("label").asText("-"), base.path("startedAt").asText(),
+                current.path("label").asText("-"), current.path("startedAt").asText());
+
+        out.printf("%-16s %-6s %12s %12s %9s%n", "operation", "", "base, ms", "new, ms", "Δ");
+        for (Map.Entry<String, JsonNode> operation : current.path("operations").properties()) {
+            JsonNode previous = base.path("operations").path(operation.getKey());
+            if (previous.isMissingNode()) {
+                out.printf("%-16s отсутствует в базовом прогоне%n", operation.getKey());
+                continue;
+            }
+            out.printf("%-16s %-6s %12d %12d %9s%n", operation.getKey(), "count",
+                    previous.path("requests").asLong(), operation.getValue().path("requests").asLong(),
+                    change(previous.path("requests").asDouble(), operation.getValue().path("requests").asDouble()));
+            for (String percentile : PERCENTILES) {
+                double before = previous.path("responseTime").path(percentile).asDouble();
+                double after = operation.getValue().path("responseTime").path(percentile).asDouble();
+                out.printf("%-16s %-6s %12.3f %12.3f %9s%n", "", percentile, before, after, change(before, after));
+            }
+        }
+    }
+
+    private static String change(double base, double current) {
+        if (base == 0) {
+            return "-";
+        }
+        return String.format("%+.1f%%", (current - base) / base * 100);
+    }
+}
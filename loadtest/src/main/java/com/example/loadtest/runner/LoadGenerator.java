@@ -0,0 +1,130 @@
+package com.example.loadtest.runner;
+
+import com.example.loadtest.config.LoadTestProperties;
+import com.example.loadtest.workload.Operation;
+import com.example.loadtest.workload.Workload;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Генератор нагрузки с открытой моделью поступления запросов.
+ * <p>
+ * Поток расписания заранее вычисляет момент отправки каждого запроса (`load.rate`, `load.arrival`)
+ * и передаёт запрос виртуальному потоку, не дожидаясь ответов на предыдущие. Поэтому медленный сервис
+ * не снижает частоту запросов, как в замкнутом цикле «запрос — ответ — следующий запрос», а задержка
+ * считается от запланированного момента: если отправка опоздала, опоздание входит в задержку.
+ */
+@Slf4j
+public class LoadGenerator {
+
+    /**
+     * Пауза перед первым запросом, чтобы поток расписания успел запуститься.
+     */
+    private static final long START_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final LoadTestProperties properties;
+    private final HttpClient httpClient;
+    private final Workload workload;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public LoadGenerator(LoadTestProperties properties, HttpClient httpClient, Workload workload) {
+        this.properties = properties;
+        this.httpClient = httpClient;
+        this.workload = workload;
+    }
+
+    /**
+     * Выполнить прогрев и измерение. Возвращает управление, когда получены ответы на все отправленные запросы.
+     *
+     * @return Результаты по операциям за время измерения.
+     */
+    public Map<Operation, OperationStats> run() {
+        if (properties.getRate() <= 0) {
+            throw new IllegalArgumentException("load.rate должно быть больше 0");
+        }
+        long highestTrackable = properties.getMaxTrackableLatency().toNanos();
+        Map<Operation, OperationStats> results = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            results.put(operation, new OperationStats(highestTrackable));
+        }
+
+        SplittableRandom random = new SplittableRandom(properties.getSeed());
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / properties.getRate();
+        long start = System.nanoTime() + START_DELAY_NANOS;
+        long measureFrom = start + properties.getWarmup().toNanos();
+        long end = measureFrom + properties.getDuration().toNanos();
+        log.info("Нагрузка {} запросов/с ({}): прогрев {}, измерение {}",
+                properties.getRate(), properties.getArrival(), properties.getWarmup(), properties.getDuration());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // Дробная часть интервалов накапливается, чтобы средняя частота точно равнялась load.rate
+            double scheduled = start;
+            long intended = start;
+            while (intended < end) {
+                parkUntil(intended);
+                Workload.Request request = workload.next(random);
+                OperationStats stats = intended >= measureFrom ? results.get(request.operation()) : null;
+                if (inFlight.incrementAndGet() > properties.getMaxInFlight()) {
+                    inFlight.decrementAndGet();
+                    if (stats != null) {
+                        stats.drop();
+                    }
+                } else {
+                    long sendAt = intended;
+                    executor.execute(() -> execute(request, sendAt, stats));
+                }
+                scheduled += interval(random, meanIntervalNanos);
+                intended = (long) scheduled;
+            }
+            log.info("Все запросы отправлены, ожидание ответов ({} в работе)", inFlight.get());
+        }
+        return results;
+    }
+
+    private void execute(Workload.Request request, long intended, OperationStats stats) {
+        long sent = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(request.httpRequest(), HttpResponse.BodyHandlers.ofString());
+            long received = System.nanoTime();
+            workload.onResponse(request, response);
+            if (stats != null) {
+                stats.record(Integer.toString(response.statusCode()), received - intended, received - sent);
+            }
+        } catch (IOException e) {
+            long failed = System.nanoTime();
+            if (stats != null) {
+                stats.record(e.getClass().getSimpleName(), failed - intended, failed - sent);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private double interval(SplittableRandom random, double meanIntervalNanos) {
+        return switch (properties.getArrival()) {
+            case CONSTANT -> meanIntervalNanos;
+            // Экспоненциальное распределение: -ln(U) * среднее, U из (0, 1]
+            case POISSON -> -Math.log(1 - random.nextDouble()) * meanIntervalNanos;
+        };
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.loadtest.runner;
+
+import com.example.loadtest.config.LoadTestProperties;
+import com.example.loadtest.report.LoadReport;
+import com.example.loadtest.stub.StubBackends;
+import com.example.loadtest.workload.Operation;
+import com.example.loadtest.workload.Workload;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * Выполняет нагрузочный тест при запуске приложения: поднимает заглушки (если включены),
+ * готовит данные, запускает {@link LoadGenerator} и записывает отчёт в `load.output`.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoadTestRunner implements ApplicationRunner {
+
+    private final LoadTestProperties properties;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        StubBackends stub = null;
+        if (properties.getStub().isEnabled()) {
+            stub = new StubBackends(properties.getStub(), objectMapper);
+            if (properties.getTarget() == LoadTestProperties.Target.DIRECT) {
+                properties.setProductServiceUrl(stub.productServiceUrl());
+                if (stub.orderServiceUrl() != null) {
+                    properties.setOrderServiceUrl(stub.orderServiceUrl());
+                }
+            }
+        }
+        try (HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(properties.getTimeout())
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build()) {
+            Workload workload = new Workload(properties, httpClient, objectMapper);
+            workload.prepare();
+
+            Instant startedAt = Instant.now();
+            Map<Operation, OperationStats> results = new LoadGenerator(properties, httpClient, workload).run();
+            write(LoadReport.of(properties, startedAt, results));
+        } finally {
+            if (stub != null) {
+                stub.close();
+            }
+        }
+    }
+
+    private void write(LoadReport report) throws IOException {
+        Path output = properties.getOutput();
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        objectMapper.copy()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .writeValue(output.toFile(), report);
+
+        report.operations().forEach((operation, result) -> log.info(
+                "{}: {} запросов ({}/с), отброшено {}, ответы {}, p50 {} мс, p99 {} мс, p99.9 {} мс, max {} мс",
+                operation, result.requests(), result.throughput(), result.dropped(), result.outcomes(),
+                result.responseTime().p50(), result.responseTime().p99(), result.responseTime().p999(),
+                result.responseTime().max()));
+        log.info("Отчёт записан в {}", output.toAbsolutePath());
+    }
+}
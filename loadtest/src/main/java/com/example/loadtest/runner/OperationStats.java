@@ -0,0 +1,69 @@
+package com.example.loadtest.runner;
+
+import lombok.Getter;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Результаты одной операции за время измерения.
+ * <ul>
+ *     <li>`responseTime` — от запланированного момента отправки до получения ответа. Если генератор или
+ *     клиент не успели отправить запрос вовремя, ожидание входит в задержку, поэтому задержка не занижается
+ *     (coordinated omission);</li>
+ *     <li>`serviceTime` — от фактической отправки до получения ответа.</li>
+ * </ul>
+ * Значения хранятся в наносекундах.
+ */
+@Getter
+public class OperationStats {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final long highestTrackableNanos;
+    private final Histogram responseTime;
+    private final Histogram serviceTime;
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+
+    public OperationStats(long highestTrackableNanos) {
+        this.highestTrackableNanos = highestTrackableNanos;
+        this.responseTime = new ConcurrentHistogram(1, highestTrackableNanos, SIGNIFICANT_DIGITS);
+        this.serviceTime = new ConcurrentHistogram(1, highestTrackableNanos, SIGNIFICANT_DIGITS);
+    }
+
+    /**
+     * Учесть ответ сервиса.
+     *
+     * @param outcome Код статуса HTTP или имя исключения, если ответа нет.
+     */
+    void record(String outcome, long responseNanos, long serviceNanos) {
+        responseTime.recordValue(clamp(responseNanos));
+        serviceTime.recordValue(clamp(serviceNanos));
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Учесть запрос, который не был отправлен из-за ограничения `load.max-in-flight`.
+     */
+    void drop() {
+        dropped.increment();
+    }
+
+    /**
+     * Количество ответов и ошибок по кодам статуса и исключениям.
+     */
+    public Map<String, Long> outcomeCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+        return counts;
+    }
+
+    private long clamp(long nanos) {
+        return Math.clamp(nanos, 1, highestTrackableNanos);
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.loadtest.stub;
+
+import com.example.loadtest.config.LoadTestProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Заглушки productService и orderService на встроенном HTTP-сервере JDK.
+ * <p>
+ * Отвечают на те же пути, что и сервисы (`/api/products`, `/api/products/search`, `/api/products/{id}`,
+ * `/api/products/batch`, `/api/orders`, `/api/orders/bulk`, `/api/orders/{id}`), хранят данные в памяти
+ * и задерживают каждый ответ на `load.stub.latency`. Запросы обрабатываются в виртуальных потоках, поэтому задержка
+ * не ограничивает количество одновременных запросов.
+ * <p>
+ * Без заглушки orderService (`load.stub.order-service=false`) заказы принимает настоящий orderService,
+ * а медленной остаётся только заглушка productService, к которой он обращается за ценами.
+ */
+@Slf4j
+public class StubBackends implements AutoCloseable {
+
+    private static final int SEARCH_RESULTS = 10;
+
+    private final ObjectMapper objectMapper;
+    private final long latencyMillis;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, ObjectNode> products = new ConcurrentHashMap<>();
+    private final Map<String, ObjectNode> orders = new ConcurrentHashMap<>();
+    private final HttpServer productServer;
+    private final HttpServer orderServer;
+
+    public StubBackends(LoadTestProperties.Stub settings, ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        this.latencyMillis = settings.getLatency().toMillis();
+        this.productServer = start(settings.getProductPort(), "/api/products", this::handleProducts);
+        if (settings.isOrderService()) {
+            this.orderServer = start(settings.getOrderPort(), "/api/orders", this::handleOrders);
+            log.info("Заглушки запущены: productService на порту {}, orderService на порту {}",
+                    productServer.getAddress().getPort(), orderServer.getAddress().getPort());
+        } else {
+            this.orderServer = null;
+            log.info("Заглушка productService запущена на порту {}", productServer.getAddress().getPort());
+        }
+    }
+
+    public URI productServiceUrl() {
+        return URI.create("http://localhost:" + productServer.getAddress().getPort());
+    }
+
+    /**
+     * @return Адрес заглушки orderService или null, если она не запущена.
+     */
+    public URI orderServiceUrl() {
+        if (orderServer == null) {
+            return null;
+        }
+        return URI.create("http://localhost:" + orderServer.getAddress().getPort());
+    }
+
+    @Override
+    public void close() {
+        productServer.stop(0);
+        if (orderServer != null) {
+            orderServer.stop(0);
+        }
+        executor.close();
+    }
+
+    private HttpServer start(int port, String path, Handler handler) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.setExecutor(executor);
+        server.createContext(path, exchange -> {
+            try (exchange) {
+                Thread.sleep(latencyMillis);
+                handler.handle(exchange);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private void handleProducts(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (method.equals("GET") && path.equals("/api/products")) {
+            ObjectNode page = objectMapper.createObjectNode();
+            page.putArray("items");
+            page.putNull("next");
+            respond(exchange, 200, page);
+        } else if (method.equals("GET") && path.equals("/api/products/search")) {
+            String name = parameter(query, "name").toLowerCase(Locale.ROOT);
+            ArrayNode found = objectMapper.createArrayNode();
+            for (ObjectNode product : products.values()) {
+                if (found.size() == SEARCH_RESULTS) {
+                    break;
+                }
+                if (product.path("name").asText().toLowerCase(Locale.ROOT).contains(name)) {
+                    found.add(product);
+                }
+            }
+            respond(exchange, 200, found);
+        } else if (method.equals("POST") && path.equals("/api/products/batch")) {
+            ArrayNode found = objectMapper.createArrayNode();
+            for (JsonNode id : readBody(exchange)) {
+                ObjectNode product = products.get(id.asText());
+                if (product != null) {
+                    found.add(product);
+                }
+            }
+            respond(exchange, 200, found);
+        } else if (method.equals("POST") && path.equals("/api/products")) {
+            ObjectNode product = (ObjectNode) readBody(exchange);
+            String id = UUID.randomUUID().toString();
+            product.put("id", id);
+            products.put(id, product);
+            respond(exchange, 201, product);
+        } else if (method.equals("GET")) {
+            ObjectNode product = products.get(path.substring("/api/products/".length()));
+            respond(exchange, product == null ? 404 : 200, product);
+        } else {
+            respond(exchange, 405, null);
+        }
+    }
+
+    private void handleOrders(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        if (method.equals("POST") && path.equals("/api/orders")) {
+            respond(exchange, 201, saveOrder((ObjectNode) readBody(exchange)));
+        } else if (method.equals("POST") && path.equals("/api/orders/bulk")) {
+            ArrayNode results = objectMapper.createArrayNode();
+            for (JsonNode order : readBody(exchange)) {
+                ObjectNode result = results.addObject();
+                result.put("index", results.size() - 1);
+                result.put("status", "CREATED");
+                result.put("orderId", saveOrder((ObjectNode) order).path("id").asText());
+            }
+            ObjectNode response = objectMapper.createObjectNode();
+            response.put("created", results.size());
+            response.put("rejected", 0);
+            response.put("failed", 0);
+            response.set("results", results);
+            respond(exchange, 200, response);
+        } else if (method.equals("GET") && path.startsWith("/api/orders/")) {
+            ObjectNode order = orders.get(path.substring("/api/orders/".length()));
+            respond(exchange, order == null ? 404 : 200, order);
+        } else {
+            respond(exchange, 405, null);
+        }
+    }
+
+    private ObjectNode saveOrder(ObjectNode order) {
+        String id = UUID.randomUUID().toString();
+        order.put("id", id);
+        order.put("status", "CONFIRMED");
+        orders.put(id, order);
+        return order;
+    }
+
+    /**
+     * Прочитать тело запроса. В отличие от {@code ObjectMapper.readTree(InputStream)} поток остаётся открытым:
+     * {@link #respond} дочитывает его, чтобы соединение можно было использовать повторно.
+     */
+    private JsonNode readBody(HttpExchange exchange) throws IOException {
+        return objectMapper.readTree(exchange.getRequestBody().readAllBytes());
+    }
+
+    private void respond(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        byte[] bytes = body == null ? new byte[0] : objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static String parameter(String query, String name) {
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int separator = pair.indexOf('=');
+                if (separator > 0 && pair.substring(0, separator).equals(name)) {
+                    return URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+                }
+            }
+        }
+        return "";
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.loadtest.workload;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Операции нагрузочного теста.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum Operation {
+    /** Получение продукта по ID. */
+    PRODUCT_READ("product-read"),
+    /** Поиск продуктов по названию. */
+    PRODUCT_SEARCH("product-search"),
+    /** Создание заказа. */
+    ORDER_CREATE("order-create"),
+    /** Получение заказа по ID. */
+    ORDER_LOOKUP("order-lookup");
+
+    /**
+     * Имя операции в отчёте.
+     */
+    private final String key;
+}
@@ -0,0 +1,258 @@
+package com.example.loadtest.workload;
+
+import com.example.loadtest.config.LoadTestProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Смесь операций нагрузочного теста.
+ * <p>
+ * Перед прогоном {@link #prepare} находит или создаёт продукты и создаёт заказы,
+ * затем {@link #next} выбирает операцию по весам из `load.mix` и строит для неё запрос.
+ * ID заказов, созданных во время прогона, попадают в кольцевой буфер и используются
+ * для получения заказов, поэтому запрашиваются и свежие, и старые заказы.
+ * <p>
+ * Если задан `load.orders.bulk-size`, операция {@link Operation#ORDER_CREATE} создаёт столько заказов
+ * одним запросом `POST /api/orders/bulk`.
+ */
+@Slf4j
+public class Workload {
+
+    /**
+     * Размер буфера ID заказов для операции {@link Operation#ORDER_LOOKUP}.
+     */
+    static final int ORDER_POOL_SIZE = 10_000;
+
+    private static final int PAGE_SIZE = 100;
+    private static final int SETUP_ATTEMPTS = 20;
+
+    private final LoadTestProperties properties;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final URI productsUrl;
+    private final URI ordersUrl;
+    private final Operation[] operations = Operation.values();
+    private final int[] cumulativeWeights;
+
+    private final List<String> productIds = new ArrayList<>();
+    private final AtomicReferenceArray<String> orderIds = new AtomicReferenceArray<>(ORDER_POOL_SIZE);
+    private final AtomicLong ordersCreated = new AtomicLong();
+
+    public Workload(LoadTestProperties properties, HttpClient httpClient, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        boolean gateway = properties.getTarget() == LoadTestProperties.Target.GATEWAY;
+        this.productsUrl = (gateway ? properties.getGatewayUrl() : properties.getProductServiceUrl()).resolve("/api/products");
+        this.ordersUrl = (gateway ? properties.getGatewayUrl() : properties.getOrderServiceUrl()).resolve("/api/orders");
+
+        LoadTestProperties.Orders orders = properties.getOrders();
+        if (orders.getBulkSize() < 0) {
+            throw new IllegalArgumentException("load.orders.bulk-size не может быть отрицательным");
+        }
+        if (orders.getBulkSize() > 0 && orders.isAsync()) {
+            throw new IllegalArgumentException("Пакетное создание заказов не бывает асинхронным: "
+                    + "load.orders.bulk-size и load.orders.async несовместимы");
+        }
+
+        LoadTestProperties.Mix mix = properties.getMix();
+        int[] weights = {mix.getProductRead(), mix.getProductSearch(), mix.getOrderCreate(), mix.getOrderLookup()};
+        this.cumulativeWeights = new int[weights.length];
+        int total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] < 0) {
+                throw new IllegalArgumentException("Вес операции " + operations[i].getKey() + " не может быть отрицательным");
+            }
+            total += weights[i];
+            cumulativeWeights[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Сумма весов операций в load.mix должна быть больше 0");
+        }
+    }
+
+    /**
+     * Подготовить данные: собрать ID существующих продуктов, создать недостающие и создать начальные заказы.
+     */
+    public void prepare() throws IOException, InterruptedException {
+        LoadTestProperties.Catalog catalog = properties.getCatalog();
+        if (catalog.getProducts() < 1) {
+            throw new IllegalArgumentException("load.catalog.products должно быть больше 0");
+        }
+        String cursor = null;
+        do {
+            String query = "?limit=" + PAGE_SIZE + (cursor == null ? "" : "&cursor=" + encode(cursor));
+            JsonNode page = send(HttpRequest.newBuilder(URI.create(productsUrl + query)).GET(), 200);
+            for (JsonNode product : page.path("items")) {
+                if (productIds.size() < catalog.getProducts()) {
+                    productIds.add(product.path("id").asText());
+                }
+            }
+            cursor = page.path("next").isTextual() ? page.path("next").asText() : null;
+        } while (cursor != null && productIds.size() < catalog.getProducts());
+        int existing = productIds.size();
+
+        List<String> terms = catalog.getSearchTerms();
+        for (int i = existing; i < catalog.getProducts(); i++) {
+            String term = terms.isEmpty() ? "товар" : terms.get(i % terms.size());
+            Map<String, Object> product = Map.of(
+                    "name", "Нагрузочный " + term + " " + i,
+                    "description", "Продукт для нагрузочного тестирования",
+                    "price", 100 + i % 10_000,
+                    "categories", List.of("Нагрузка", term));
+            productIds.add(send(post(productsUrl, product), 201).path("id").asText());
+        }
+
+        SplittableRandom random = new SplittableRandom(properties.getSeed());
+        for (int i = 0; i < catalog.getOrders(); i++) {
+            addOrder(send(post(ordersUrl, orderBody(random)), 201).path("id").asText());
+        }
+        log.info("Данные подготовлены: продуктов {} (создано {}), заказов {}",
+                productIds.size(), productIds.size() - existing, catalog.getOrders());
+    }
+
+    /**
+     * Выбрать следующую операцию и построить запрос.
+     * Вызывается из одного потока расписания, поэтому последовательность операций определяется зерном.
+     */
+    public Request next(SplittableRandom random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        Operation operation = operations[0];
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                operation = operations[i];
+                break;
+            }
+        }
+        String orderId = null;
+        if (operation == Operation.ORDER_LOOKUP) {
+            long created = ordersCreated.get();
+            orderId = created == 0 ? null : orderIds.get((int) random.nextLong(Math.min(created, ORDER_POOL_SIZE)));
+            if (orderId == null) {
+                // Запрашивать ещё нечего (или ID только что созданного заказа ещё не записан): создаём заказ
+                operation = Operation.ORDER_CREATE;
+            }
+        }
+
+        HttpRequest.Builder builder = switch (operation) {
+            case PRODUCT_READ -> HttpRequest.newBuilder(
+                    URI.create(productsUrl + "/" + productIds.get(random.nextInt(productIds.size())))).GET();
+            case PRODUCT_SEARCH -> {
+                List<String> terms = properties.getCatalog().getSearchTerms();
+                String term = terms.isEmpty() ? "товар" : terms.get(random.nextInt(terms.size()));
+                yield HttpRequest.newBuilder(URI.create(productsUrl + "/search?name=" + encode(term))).GET();
+            }
+            case ORDER_CREATE -> createOrders(random);
+            case ORDER_LOOKUP -> HttpRequest.newBuilder(URI.create(ordersUrl + "/" + orderId)).GET();
+        };
+        return new Request(operation, builder.timeout(properties.getTimeout()).build());
+    }
+
+    /**
+     * Обработать ответ: запомнить ID созданных заказов.
+     */
+    public void onResponse(Request request, HttpResponse<String> response) {
+        if (request.operation() != Operation.ORDER_CREATE) {
+            return;
+        }
+        try {
+            if (properties.getOrders().getBulkSize() > 0) {
+                if (response.statusCode() == 200) {
+                    for (JsonNode result : objectMapper.readTree(response.body()).path("results")) {
+                        addOrder(result.path("orderId").asText(null));
+                    }
+                }
+            } else if (response.statusCode() == 201 || response.statusCode() == 202) {
+                addOrder(objectMapper.readTree(response.body()).path("id").asText(null));
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Не удалось разобрать ответ на создание заказа: {}", e.getMessage());
+        }
+    }
+
+    private void addOrder(String id) {
+        if (id == null) {
+            return;
+        }
+        orderIds.set((int) (ordersCreated.getAndIncrement() % ORDER_POOL_SIZE), id);
+    }
+
+    private HttpRequest.Builder createOrders(SplittableRandom random) {
+        LoadTestProperties.Orders orders = properties.getOrders();
+        if (orders.getBulkSize() > 0) {
+            List<Map<String, Object>> bodies = new ArrayList<>(orders.getBulkSize());
+            for (int i = 0; i < orders.getBulkSize(); i++) {
+                bodies.add(orderBody(random));
+            }
+            return post(URI.create(ordersUrl + "/bulk"), bodies);
+        }
+        return post(orders.isAsync() ? URI.create(ordersUrl + "?async=true") : ordersUrl, orderBody(random));
+    }
+
+    private Map<String, Object> orderBody(SplittableRandom random) {
+        LoadTestProperties.Orders orders = properties.getOrders();
+        int lines = random.nextInt(orders.getMinLines(), orders.getMaxLines() + 1);
+        List<Map<String, Object>> products = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            products.add(Map.of(
+                    "productId", productIds.get(random.nextInt(productIds.size())),
+                    "quantity", random.nextInt(1, orders.getMaxQuantity() + 1)));
+        }
+        return Map.of("deliveryAddress", "Москва, ул. Ленина, д. 10, кв. 5", "products", products);
+    }
+
+    private HttpRequest.Builder post(URI uri, Object body) {
+        try {
+            return HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Отправить подготовительный запрос. Ответ 429 (лимит частоты шлюза) и ошибки 5xx повторяются.
+     */
+    private JsonNode send(HttpRequest.Builder builder, int expectedStatus) throws IOException, InterruptedException {
+        HttpRequest request = builder.timeout(properties.getTimeout()).build();
+        for (int attempt = 1; ; attempt++) {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == expectedStatus) {
+                return objectMapper.readTree(response.body());
+            }
+            boolean retryable = response.statusCode() == 429 || response.statusCode() >= 500;
+            if (!retryable || attempt == SETUP_ATTEMPTS) {
+                throw new IOException("Подготовка данных: " + request.method() + " " + request.uri()
+                        + " вернул " + response.statusCode() + ": " + response.body());
+            }
+            Thread.sleep(100L * attempt);
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Запрос операции.
+     */
+    public record Request(Operation operation, HttpRequest httpRequest) {
+    }
+}
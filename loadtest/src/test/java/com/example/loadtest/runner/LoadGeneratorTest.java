@@ -0,0 +1,91 @@
+package com.example.loadtest.runner;
+
+import com.example.loadtest.config.LoadTestProperties;
+import com.example.loadtest.report.LoadReport;
+import com.example.loadtest.stub.StubBackends;
+import com.example.loadtest.workload.Operation;
+import com.example.loadtest.workload.Workload;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет генератор нагрузки на встроенных заглушках сервисов.
+ */
+class LoadGeneratorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LoadTestProperties properties = new LoadTestProperties();
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private StubBackends stub;
+
+    @AfterEach
+    void tearDown() {
+        httpClient.close();
+        if (stub != null) {
+            stub.close();
+        }
+    }
+
+    @Test
+    void sendsRequestsAtConfiguredRate() throws Exception {
+        Map<Operation, OperationStats> results = run(Duration.ofMillis(1), 200);
+        LoadReport.OperationReport total = LoadReport.of(properties, Instant.now(), results)
+                .operations().get(LoadReport.TOTAL);
+
+        assertThat(total.requests()).isBetween(199L, 201L);
+        assertThat(total.dropped()).isZero();
+        assertThat(total.outcomes().keySet()).allMatch(status -> status.startsWith("2"));
+        assertThat(results.get(Operation.ORDER_CREATE).getResponseTime().getTotalCount()).isPositive();
+        assertThat(results.get(Operation.ORDER_LOOKUP).outcomeCounts()).containsOnlyKeys("200");
+    }
+
+    @Test
+    void slowResponsesDoNotSlowDownArrivals() throws Exception {
+        // В замкнутом цикле ответ через 300 мс ограничил бы поток несколькими запросами в секунду
+        Map<Operation, OperationStats> results = run(Duration.ofMillis(300), 100);
+        LoadReport.OperationReport total = LoadReport.of(properties, Instant.now(), results)
+                .operations().get(LoadReport.TOTAL);
+
+        assertThat(total.requests()).isBetween(99L, 101L);
+        assertThat(total.responseTime().p50()).isGreaterThanOrEqualTo(300);
+    }
+
+    @Test
+    void createsOrdersInBulk() throws Exception {
+        properties.getOrders().setBulkSize(10);
+        Map<Operation, OperationStats> results = run(Duration.ofMillis(1), 100);
+
+        assertThat(results.get(Operation.ORDER_CREATE).outcomeCounts()).containsOnlyKeys("200");
+        // Заказы из пакетов можно запрашивать по ID
+        assertThat(results.get(Operation.ORDER_LOOKUP).outcomeCounts()).containsOnlyKeys("200");
+    }
+
+    private Map<Operation, OperationStats> run(Duration latency, double rate) throws Exception {
+        properties.getStub().setProductPort(0);
+        properties.getStub().setOrderPort(0);
+        properties.getStub().setLatency(latency);
+        stub = new StubBackends(properties.getStub(), objectMapper);
+
+        properties.setTarget(LoadTestProperties.Target.DIRECT);
+        properties.setProductServiceUrl(stub.productServiceUrl());
+        properties.setOrderServiceUrl(stub.orderServiceUrl());
+        properties.setArrival(LoadTestProperties.Arrival.CONSTANT);
+        properties.setRate(rate);
+        properties.setWarmup(Duration.ofMillis(200));
+        properties.setDuration(Duration.ofSeconds(1));
+        properties.getCatalog().setProducts(20);
+        properties.getCatalog().setOrders(5);
+
+        Workload workload = new Workload(properties, httpClient, objectMapper);
+        workload.prepare();
+        return new LoadGenerator(properties, httpClient, workload).run();
+    }
+}
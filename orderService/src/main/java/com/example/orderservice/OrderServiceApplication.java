@@ -1,11 +1,14 @@
 package com.example.orderservice;
 
+import com.example.common.CommonConfiguration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
 @SpringBootApplication
 @EnableJpaAuditing
+@Import(CommonConfiguration.class)
 public class OrderServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,129 @@
+package com.example.orderservice.cache;
+
+import com.example.orderservice.client.ProductServiceClient;
+import com.example.orderservice.config.ProductServiceProperties;
+import com.example.orderservice.dto.ProductResponse;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Локальный кэш товаров (ID → название и цена) перед `ProductService`.
+ * Размер кэша ограничен, записи живут не дольше заданного TTL. После `refresh-after`
+ * запись перезагружается в фоне, а запросы продолжают получать текущее значение.
+ * Несуществующие товары кэшируются на короткое время, чтобы повторные запросы
+ * с неверными ID не доходили до `ProductService`.
+ */
+@Component
+public class ProductCache {
+
+    private final ProductServiceClient productServiceClient;
+    private final LoadingCache<UUID, Optional<ProductResponse>> cache;
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ProductCache(ProductServiceClient productServiceClient,
+                        ProductServiceProperties properties,
+                        MeterRegistry meterRegistry) {
+        this.productServiceClient = productServiceClient;
+
+        ProductServiceProperties.Cache settings = properties.getCache();
+        long ttl = settings.getTtl().toNanos();
+        long negativeTtl = settings.getNegativeTtl().toNanos();
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxSize())
+                .expireAfter(new Expiry<UUID, Optional<ProductResponse>>() {
+                    @Override
+                    public long expireAfterCreate(UUID key, Optional<ProductResponse> value, long currentTime) {
+                        return value.isPresent() ? ttl : negativeTtl;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(UUID key, Optional<ProductResponse> value,
+                                                  long currentTime, long currentDuration) {
+                        return value.isPresent() ? ttl : negativeTtl;
+                    }
+
+                    @Override
+                    public long expireAfterRead(UUID key, Optional<ProductResponse> value,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .refreshAfterWrite(settings.getRefreshAfter())
+                // Загрузка блокирует поток на HTTP-вызове, поэтому фоновые обновления идут в виртуальных потоках
+                .executor(refreshExecutor)
+                .recordStats()
+                .build(new ProductLoader());
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+    }
+
+    /**
+     * Получить товары по списку ID.
+     * Отсутствующие в кэше товары запрашиваются у `ProductService` одним пакетом.
+     *
+     * @param productIds Уникальные идентификаторы товаров.
+     * @return Найденные товары, сгруппированные по ID. Несуществующие товары в результат не попадают.
+     * @throws org.springframework.web.client.RestClientException при ошибке обращения к `ProductService`.
+     */
+    public Map<UUID, ProductResponse> getProducts(Collection<UUID> productIds) {
+        Map<UUID, ProductResponse> products = new HashMap<>();
+        cache.getAll(productIds).forEach((id, product) -> product.ifPresent(value -> products.put(id, value)));
+        return products;
+    }
+
+    /**
+     * Статистика кэша для подбора его размера.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Текущее (приблизительное) количество записей в кэше.
+     */
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private class ProductLoader implements CacheLoader<UUID, Optional<ProductResponse>> {
+
+        @Override
+        public Optional<ProductResponse> load(UUID productId) {
+            return Optional.ofNullable(productServiceClient.getProducts(List.of(productId)).get(productId));
+        }
+
+        @Override
+        public Map<UUID, Optional<ProductResponse>> loadAll(Set<? extends UUID> productIds) {
+            Map<UUID, ProductResponse> found = productServiceClient.getProducts(List.copyOf(productIds));
+            Map<UUID, Optional<ProductResponse>> result = new HashMap<>();
+            for (UUID productId : productIds) {
+                // Отсутствующий товар тоже попадает в кэш — как отрицательная запись
+                result.put(productId, Optional.ofNullable(found.get(productId)));
+            }
+            return result;
+        }
+    }
+}
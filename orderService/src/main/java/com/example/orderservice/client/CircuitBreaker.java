@@ -0,0 +1,176 @@
+package com.example.orderservice.client;
+
+import com.example.orderservice.config.ProductServiceProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Автомат отключения вызовов `ProductService`.
+ * <p>
+ * В замкнутом состоянии (`CLOSED`) результаты последних `window` вызовов хранятся в кольцевом буфере.
+ * Когда доля ошибок среди них достигает порога, автомат размыкается (`OPEN`) и в течение
+ * `open-duration` вызовы отклоняются сразу, не дожидаясь таймаута соединения. Затем пропускается
+ * `half-open-calls` пробных вызовов (`HALF_OPEN`): если все успешны, автомат замыкается,
+ * при первой ошибке снова размыкается.
+ */
+@Slf4j
+class CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final boolean enabled;
+    private final boolean[] outcomes;
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier clock;
+    private final Consumer<State> onTransition;
+
+    private State state = State.CLOSED;
+    private int next;
+    private int calls;
+    private int failures;
+    private long openUntil;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    CircuitBreaker(ProductServiceProperties.CircuitBreaker settings, LongSupplier clock, Consumer<State> onTransition) {
+        this.enabled = settings.isEnabled();
+        this.outcomes = new boolean[settings.getWindow()];
+        this.minCalls = Math.min(settings.getMinCalls(), settings.getWindow());
+        this.failureRateThreshold = settings.getFailureRateThreshold();
+        this.openDurationNanos = settings.getOpenDuration().toNanos();
+        this.halfOpenCalls = settings.getHalfOpenCalls();
+        this.clock = clock;
+        this.onTransition = onTransition;
+    }
+
+    /**
+     * Получить разрешение на вызов. После разрешённого вызова нужно сообщить его результат
+     * через {@link #onSuccess}, {@link #onFailure} или {@link #onIgnored}.
+     *
+     * @return `false`, если вызов нужно отклонить без обращения к сервису.
+     */
+    synchronized boolean tryAcquire() {
+        if (!enabled) {
+            return true;
+        }
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openUntil < 0) {
+                return false;
+            }
+            transition(State.HALF_OPEN);
+            halfOpenPermits = halfOpenCalls;
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                return false;
+            }
+            halfOpenPermits--;
+        }
+        return true;
+    }
+
+    /**
+     * Вызов завершился ответом сервиса.
+     */
+    synchronized void onSuccess() {
+        if (!enabled) {
+            return;
+        }
+        switch (state) {
+            case CLOSED -> record(false);
+            case HALF_OPEN -> {
+                halfOpenSuccesses++;
+                if (halfOpenSuccesses >= halfOpenCalls) {
+                    reset();
+                    transition(State.CLOSED);
+                }
+            }
+            // Ответ на вызов, начатый до размыкания, состояние не меняет
+            case OPEN -> {
+            }
+        }
+    }
+
+    /**
+     * Вызов завершился ошибкой сервиса или сети.
+     */
+    synchronized void onFailure() {
+        if (!enabled) {
+            return;
+        }
+        switch (state) {
+            case CLOSED -> {
+                record(true);
+                if (calls >= minCalls && failures >= failureRateThreshold * calls) {
+                    open();
+                }
+            }
+            case HALF_OPEN -> open();
+            case OPEN -> {
+            }
+        }
+    }
+
+    /**
+     * Вызов прерван без ответа сервиса (например, отменён вызывающим кодом) и не учитывается.
+     */
+    synchronized void onIgnored() {
+        if (enabled && state == State.HALF_OPEN) {
+            halfOpenPermits++;
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (calls == outcomes.length) {
+            // Буфер заполнен: вытесняем самый старый результат
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            calls++;
+        }
+        outcomes[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void open() {
+        openUntil = clock.getAsLong() + openDurationNanos;
+        if (state == State.CLOSED) {
+            log.warn("ProductService: {} ошибок из {} последних вызовов, вызовы приостановлены на {} мс",
+                    failures, calls, openDurationNanos / 1_000_000);
+        }
+        reset();
+        transition(State.OPEN);
+    }
+
+    private void reset() {
+        next = 0;
+        calls = 0;
+        failures = 0;
+    }
+
+    private void transition(State target) {
+        if (state != target) {
+            if (target == State.CLOSED) {
+                log.info("ProductService снова отвечает, вызовы возобновлены");
+            }
+            state = target;
+            onTransition.accept(target);
+        }
+    }
+}
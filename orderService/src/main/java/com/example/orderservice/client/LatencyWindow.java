@@ -0,0 +1,50 @@
+package com.example.orderservice.client;
+
+import java.util.Arrays;
+
+/**
+ * Задержки последних успешных запросов для расчёта перцентиля.
+ * Перцентиль пересчитывается не на каждом запросе, а после обновления десятой части окна.
+ */
+class LatencyWindow {
+
+    private final long[] samples;
+    private final double quantile;
+    private final int recomputeEvery;
+    private int next;
+    private int count;
+    private int sinceRecompute;
+    private long cached = -1;
+
+    LatencyWindow(int size, double quantile) {
+        this.samples = new long[size];
+        this.quantile = quantile;
+        this.recomputeEvery = Math.max(1, size / 10);
+    }
+
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+        sinceRecompute++;
+    }
+
+    /**
+     * @return Перцентиль задержки в наносекундах или -1, пока окно заполнено меньше чем на десятую часть.
+     */
+    synchronized long percentile() {
+        if (count < recomputeEvery) {
+            return -1;
+        }
+        if (cached < 0 || sinceRecompute >= recomputeEvery) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(quantile * count) - 1;
+            cached = sorted[Math.max(0, Math.min(index, count - 1))];
+            sinceRecompute = 0;
+        }
+        return cached;
+    }
+}
@@ -0,0 +1,359 @@
+package com.example.orderservice.client;
+
+import com.example.orderservice.config.ProductServiceProperties;
+import com.example.orderservice.dto.ProductResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Клиент для получения информации о товарах из `ProductService`.
+ * Список ID разбивается на пакеты, которые запрашиваются параллельно в виртуальных потоках,
+ * поэтому время ответа определяется самым медленным запросом, а не их суммой.
+ * Количество одновременных запросов ограничено семафором.
+ * <p>
+ * Запрос пакета идемпотентен, поэтому, если ответ не пришёл за `product-service.hedge.percentile`
+ * недавних задержек, отправляется второй такой же запрос и используется первый успешный ответ.
+ * Повторы ограничены бюджетом (`budget-ratio` от основных запросов) и свободными местами в семафоре.
+ * Если повтор выиграл, основной запрос не отменяется: время его ответа нужно для метрики
+ * сэкономленной задержки.
+ * <p>
+ * Вызовы проходят через {@link CircuitBreaker}: пока `ProductService` недоступен, запросы
+ * отклоняются сразу с {@link ResourceAccessException}, а не ждут таймаута соединения.
+ */
+@Component
+public class ProductServiceClient {
+
+    private static final String BATCH_PATH = "/api/products/batch";
+    private static final String METRIC_PREFIX = "productservice.client.";
+
+    private final RestClient restClient;
+    private final int batchSize;
+    private final Semaphore inFlight;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ProductServiceProperties.Hedge hedge;
+    private final LatencyWindow latencies;
+    private final RetryBudget retryBudget;
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final Timer requests;
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+    private final Counter hedgesSkippedBudget;
+    private final Counter hedgesSkippedConcurrency;
+    private final Timer hedgeSavedLatency;
+    private final Counter circuitRejected;
+
+    public ProductServiceClient(RestClient productServiceRestClient,
+                                ProductServiceProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.restClient = productServiceRestClient;
+        this.batchSize = properties.getBatchSize();
+        this.inFlight = new Semaphore(properties.getMaxConcurrentRequests());
+        this.hedge = properties.getHedge();
+        this.latencies = new LatencyWindow(hedge.getWindow(), hedge.getPercentile());
+        this.retryBudget = new RetryBudget(hedge.getBudgetRatio(), hedge.getBudgetMax());
+        this.meterRegistry = meterRegistry;
+        this.circuitBreaker = new CircuitBreaker(properties.getCircuitBreaker(), System::nanoTime, this::onTransition);
+
+        this.requests = Timer.builder(METRIC_PREFIX + "requests")
+                .description("Время получения пакета товаров с учётом повторного запроса")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.hedgesSent = Counter.builder(METRIC_PREFIX + "hedges.sent")
+                .description("Отправленные повторные запросы")
+                .register(meterRegistry);
+        this.hedgesWon = Counter.builder(METRIC_PREFIX + "hedges.won")
+                .description("Повторные запросы, ответившие раньше основных")
+                .register(meterRegistry);
+        this.hedgesSkippedBudget = Counter.builder(METRIC_PREFIX + "hedges.skipped")
+                .description("Повторные запросы, не отправленные из-за ограничений")
+                .tag("reason", "budget")
+                .register(meterRegistry);
+        this.hedgesSkippedConcurrency = Counter.builder(METRIC_PREFIX + "hedges.skipped")
+                .description("Повторные запросы, не отправленные из-за ограничений")
+                .tag("reason", "concurrency")
+                .register(meterRegistry);
+        this.hedgeSavedLatency = Timer.builder(METRIC_PREFIX + "hedges.saved")
+                .description("На сколько повторный запрос ответил раньше основного")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + "hedges.delay", this, client -> client.hedgeDelayNanos() / 1e9)
+                .description("Текущая задержка перед повторным запросом")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.circuitRejected = Counter.builder(METRIC_PREFIX + "circuit.rejected")
+                .description("Вызовы, отклонённые без обращения к ProductService")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + "circuit.state", circuitBreaker, breaker -> breaker.state().ordinal())
+                .description("Состояние автомата отключения: 0 — CLOSED, 1 — OPEN, 2 — HALF_OPEN")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Получить товары по списку ID.
+     * Товары, отсутствующие в `ProductService`, в результат не попадают.
+     *
+     * @param productIds Уникальные идентификаторы товаров.
+     * @return Найденные товары, сгруппированные по ID.
+     * @throws org.springframework.web.client.RestClientException при ошибке обращения к `ProductService`.
+     */
+    public Map<UUID, ProductResponse> getProducts(Collection<UUID> productIds) {
+        List<List<UUID>> batches = partition(productIds);
+        Map<UUID, ProductResponse> products = new HashMap<>();
+
+        if (batches.isEmpty()) {
+            return products;
+        }
+        if (batches.size() == 1) {
+            // Один пакет выполняем в текущем потоке, без переключения контекста
+            addAll(products, fetchBatch(batches.get(0)));
+            return products;
+        }
+
+        List<Future<ProductResponse[]>> futures = new ArrayList<>(batches.size());
+        for (List<UUID> batch : batches) {
+            futures.add(executor.submit(() -> fetchBatch(batch)));
+        }
+
+        try {
+            for (Future<ProductResponse[]> future : futures) {
+                addAll(products, future.get());
+            }
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Запрос к ProductService прерван");
+        } finally {
+            // При ошибке одного пакета остальные больше не нужны
+            futures.forEach(future -> future.cancel(true));
+        }
+        return products;
+    }
+
+    private ProductResponse[] fetchBatch(List<UUID> productIds) {
+        if (!circuitBreaker.tryAcquire()) {
+            circuitRejected.increment();
+            throw new ResourceAccessException("ProductService временно недоступен: вызовы приостановлены после серии ошибок");
+        }
+
+        long start = System.nanoTime();
+        try {
+            ProductResponse[] products = hedge.isEnabled() ? fetchHedged(productIds) : fetchDirect(productIds);
+            circuitBreaker.onSuccess();
+            return products;
+        } catch (HttpClientErrorException e) {
+            // Сервис ответил: ошибка в запросе, а не в доступности сервиса
+            circuitBreaker.onSuccess();
+            throw e;
+        } catch (RestClientException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                circuitBreaker.onIgnored();
+            } else {
+                circuitBreaker.onFailure();
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            circuitBreaker.onIgnored();
+            throw e;
+        } finally {
+            requests.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private ProductResponse[] fetchDirect(List<UUID> productIds) {
+        acquire();
+        return attempt(productIds, null, false);
+    }
+
+    private ProductResponse[] fetchHedged(List<UUID> productIds) {
+        retryBudget.deposit();
+        Race race = new Race();
+        CompletionService<ProductResponse[]> attempts = new ExecutorCompletionService<>(executor);
+        Future<ProductResponse[]> primary = attempts.submit(() -> {
+            acquire();
+            return attempt(productIds, race, false);
+        });
+        Future<ProductResponse[]> second = null;
+
+        try {
+            Future<ProductResponse[]> done = attempts.poll(hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+            if (done == null) {
+                second = startHedge(productIds, race, attempts);
+                done = attempts.take();
+            }
+            try {
+                return winner(done, second);
+            } catch (ExecutionException e) {
+                if (second == null) {
+                    throw unwrap(e);
+                }
+                // Первый завершившийся запрос упал — ждём второй
+                try {
+                    return winner(attempts.take(), second);
+                } catch (ExecutionException ignored) {
+                    throw unwrap(e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            primary.cancel(true);
+            if (second != null) {
+                second.cancel(true);
+            }
+            throw new ResourceAccessException("Запрос к ProductService прерван");
+        }
+    }
+
+    private ProductResponse[] winner(Future<ProductResponse[]> done, Future<ProductResponse[]> second)
+            throws ExecutionException, InterruptedException {
+        ProductResponse[] products = done.get();
+        if (done == second) {
+            hedgesWon.increment();
+        } else if (second != null) {
+            second.cancel(true);
+        }
+        return products;
+    }
+
+    private Future<ProductResponse[]> startHedge(List<UUID> productIds, Race race,
+                                                 CompletionService<ProductResponse[]> attempts) {
+        // Пробные вызовы после размыкания автомата не дублируются
+        if (circuitBreaker.state() != CircuitBreaker.State.CLOSED) {
+            return null;
+        }
+        // Повтор не ждёт места в семафоре: если все места заняты, сервис и так перегружен
+        if (!inFlight.tryAcquire()) {
+            hedgesSkippedConcurrency.increment();
+            return null;
+        }
+        if (!retryBudget.tryWithdraw()) {
+            inFlight.release();
+            hedgesSkippedBudget.increment();
+            return null;
+        }
+        hedgesSent.increment();
+        return attempts.submit(() -> attempt(productIds, race, true));
+    }
+
+    /**
+     * Выполнить запрос пакета. Место в семафоре должно быть уже занято; оно освобождается здесь.
+     */
+    private ProductResponse[] attempt(List<UUID> productIds, Race race, boolean hedged) {
+        try {
+            long start = System.nanoTime();
+            ProductResponse[] products = restClient.post()
+                    .uri(BATCH_PATH)
+                    .body(productIds)
+                    .retrieve()
+                    .body(ProductResponse[].class);
+            long finished = System.nanoTime();
+            latencies.record(finished - start);
+            if (race != null) {
+                race.finish(hedged, finished);
+            }
+            return products;
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private void acquire() {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Запрос к ProductService прерван");
+        }
+    }
+
+    private long hedgeDelayNanos() {
+        long min = hedge.getMinDelay().toNanos();
+        long max = hedge.getMaxDelay().toNanos();
+        long percentile = latencies.percentile();
+        // Пока задержек накоплено мало, повтор отправляется только при очень медленном ответе
+        return percentile < 0 ? max : Math.max(min, Math.min(percentile, max));
+    }
+
+    private void onTransition(CircuitBreaker.State state) {
+        Counter.builder(METRIC_PREFIX + "circuit.transitions")
+                .description("Переходы автомата отключения")
+                .tag("state", state.name())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private List<List<UUID>> partition(Collection<UUID> productIds) {
+        List<UUID> ids = new ArrayList<>(productIds);
+        List<List<UUID>> batches = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            batches.add(ids.subList(from, Math.min(from + batchSize, ids.size())));
+        }
+        return batches;
+    }
+
+    private static void addAll(Map<UUID, ProductResponse> products, ProductResponse[] responses) {
+        if (responses == null) {
+            return;
+        }
+        for (ProductResponse response : responses) {
+            products.put(response.getId(), response);
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException cause) {
+            return cause;
+        }
+        return new IllegalStateException("Ошибка при запросе к ProductService", e.getCause());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Момент первого успешного ответа среди основного и повторного запросов.
+     * Если основной запрос ответил вторым, разница записывается как сэкономленная задержка.
+     */
+    private final class Race {
+
+        private static final long NONE = Long.MIN_VALUE;
+
+        private final AtomicLong firstFinishedAt = new AtomicLong(NONE);
+
+        void finish(boolean hedged, long finishedAt) {
+            if (firstFinishedAt.compareAndSet(NONE, finishedAt)) {
+                return;
+            }
+            if (!hedged) {
+                hedgeSavedLatency.record(finishedAt - firstFinishedAt.get(), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.orderservice.client;
+
+/**
+ * Бюджет повторных запросов: каждый основной запрос добавляет `ratio` токена (не больше `max`),
+ * повторный запрос расходует один токен. Так повторы не превышают заданной доли от основного
+ * трафика и не удваивают нагрузку на сервис, который и так отвечает медленно.
+ */
+class RetryBudget {
+
+    private final double ratio;
+    private final double max;
+    private double tokens;
+
+    RetryBudget(double ratio, int max) {
+        this.ratio = ratio;
+        this.max = max;
+        this.tokens = max;
+    }
+
+    synchronized void deposit() {
+        tokens = Math.min(max, tokens + ratio);
+    }
+
+    synchronized boolean tryWithdraw() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.orderservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки асинхронного приёма заказов.
+ * Значения задаются в `application.yml` в разделе `order-intake`.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "order-intake")
+public class OrderIntakeProperties {
+
+    /**
+     * Количество обработчиков очереди. 0 — очередь разбирается только явным вызовом.
+     */
+    private int workers = 4;
+
+    /**
+     * Максимальное количество заказов, обрабатываемых за один проход (цены запрашиваются одним вызовом).
+     */
+    private int batchSize = 100;
+
+    /**
+     * Пауза обработчика, когда очередь пуста. Новый заказ будит обработчик сразу.
+     */
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    /**
+     * Срок захвата записи обработчиком. Если обработчик не завершил работу за это время
+     * (например, экземпляр сервиса остановился), запись берёт другой обработчик.
+     */
+    private Duration lease = Duration.ofSeconds(30);
+
+    /**
+     * Количество попыток при недоступном `ProductService` или ошибке сохранения, после которых заказ отклоняется.
+     */
+    private int maxAttempts = 10;
+
+    /**
+     * Время хранения обработанных записей: в течение него клиент может узнать статус отклонённого заказа.
+     */
+    private Duration retention = Duration.ofDays(7);
+}
@@ -0,0 +1,58 @@
+package com.example.orderservice.config;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Конфигурация HTTP-клиента для обращения к `ProductService`.
+ * Соединения переиспользуются через пул, все операции ограничены таймаутами.
+ */
+@Configuration
+@EnableConfigurationProperties(ProductServiceProperties.class)
+public class ProductServiceClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient productServiceHttpClient(ProductServiceProperties properties) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxConnections())
+                // Все запросы идут на один хост, поэтому лимит на маршрут совпадает с общим
+                .setMaxConnPerRoute(properties.getMaxConnections())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(properties.getReadTimeout()))
+                        .build())
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        // Ожидание свободного соединения в пуле тоже не должно быть бесконечным
+                        .setConnectionRequestTimeout(Timeout.of(properties.getConnectTimeout()))
+                        .setResponseTimeout(Timeout.of(properties.getReadTimeout()))
+                        .build())
+                .evictExpiredConnections()
+                // Cookie ProductService (например, last-write) относятся к клиентам сервиса, а не к orderService:
+                // сохранённый клиентом cookie направлял бы все следующие запросы в основную базу
+                .disableCookieManagement()
+                .build();
+    }
+
+    @Bean
+    public RestClient productServiceRestClient(ProductServiceProperties properties,
+                                               CloseableHttpClient productServiceHttpClient) {
+        return RestClient.builder()
+                .baseUrl(properties.getUrl())
+                .requestFactory(new HttpComponentsClientHttpRequestFactory(productServiceHttpClient))
+                .build();
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.orderservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки клиента `ProductService`.
+ * Значения задаются в `application.yml` в разделе `product-service`.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "product-service")
+public class ProductServiceProperties {
+
+    /**
+     * Базовый URL сервиса продуктов.
+     */
+    private String url = "http://product-service:8081";
+
+    /**
+     * Таймаут установки TCP-соединения.
+     */
+    private Duration connectTimeout = Duration.ofSeconds(1);
+
+    /**
+     * Таймаут ожидания ответа (чтения из сокета).
+     */
+    private Duration readTimeout = Duration.ofSeconds(3);
+
+    /**
+     * Максимальное количество соединений в пуле.
+     */
+    private int maxConnections = 50;
+
+    /**
+     * Максимальное количество ID товаров в одном запросе к `/api/products/batch`.
+     */
+    private int batchSize = 100;
+
+    /**
+     * Максимальное количество одновременно выполняющихся запросов к сервису продуктов.
+     */
+    private int maxConcurrentRequests = 16;
+
+    /**
+     * Настройки локального кэша товаров.
+     */
+    private Cache cache = new Cache();
+
+    /**
+     * Настройки дублирующих (hedged) запросов.
+     */
+    private Hedge hedge = new Hedge();
+
+    /**
+     * Настройки автомата отключения (circuit breaker).
+     */
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    @Getter
+    @Setter
+    public static class Cache {
+
+        /**
+         * Максимальное количество товаров в кэше.
+         */
+        private long maxSize = 10_000;
+
+        /**
+         * Время жизни записи. После него значение загружается заново синхронно.
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+
+        /**
+         * Возраст записи, после которого она обновляется в фоне, а клиенту отдаётся текущее значение.
+         */
+        private Duration refreshAfter = Duration.ofMinutes(1);
+
+        /**
+         * Время жизни записи о несуществующем товаре.
+         */
+        private Duration negativeTtl = Duration.ofSeconds(10);
+    }
+
+    @Getter
+    @Setter
+    public static class Hedge {
+
+        /**
+         * Отправлять ли повторный запрос, если первый отвечает дольше обычного.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Перцентиль недавних задержек, после которого отправляется повторный запрос.
+         */
+        private double percentile = 0.95;
+
+        /**
+         * Нижняя граница задержки перед повторным запросом.
+         */
+        private Duration minDelay = Duration.ofMillis(10);
+
+        /**
+         * Верхняя граница задержки; используется и пока задержек накоплено слишком мало.
+         */
+        private Duration maxDelay = Duration.ofSeconds(1);
+
+        /**
+         * Количество последних задержек, по которым считается перцентиль.
+         */
+        private int window = 1000;
+
+        /**
+         * Доля повторных запросов от основных: каждый основной запрос пополняет бюджет на эту величину,
+         * повторный запрос расходует единицу.
+         */
+        private double budgetRatio = 0.1;
+
+        /**
+         * Максимальный запас бюджета, чтобы после долгого затишья не отправить сразу много повторов.
+         */
+        private int budgetMax = 10;
+    }
+
+    @Getter
+    @Setter
+    public static class CircuitBreaker {
+
+        /**
+         * Включён ли автомат отключения.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Количество последних вызовов, по которым считается доля ошибок.
+         */
+        private int window = 50;
+
+        /**
+         * Минимальное количество вызовов в окне, после которого автомат может сработать.
+         */
+        private int minCalls = 20;
+
+        /**
+         * Доля ошибок, при которой автомат размыкается.
+         */
+        private double failureRateThreshold = 0.5;
+
+        /**
+         * Время, в течение которого вызовы отклоняются сразу.
+         */
+        private Duration openDuration = Duration.ofSeconds(10);
+
+        /**
+         * Количество пробных вызовов после размыкания; если все успешны, автомат замыкается.
+         */
+        private int halfOpenCalls = 5;
+    }
+}
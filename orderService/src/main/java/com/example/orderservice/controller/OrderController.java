@@ -1,33 +1,63 @@
 package com.example.orderservice.controller;
 
+import com.example.common.pagination.CursorPage;
+import com.example.common.pagination.PageCursor;
+import com.example.orderservice.cache.ProductCache;
 import com.example.orderservice.dto.*;
+import com.example.orderservice.metrics.OrderMetrics;
 import com.example.orderservice.model.Order;
 import com.example.orderservice.model.OrderItem;
+import com.example.orderservice.model.OrderIntake;
+import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.model.ProductSalesTotal;
 import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.repository.ProductDailySalesRepository;
+import com.example.orderservice.repository.ProductSalesTotalRepository;
+import com.example.orderservice.service.OrderExportService;
+import com.example.orderservice.service.OrderIntakeService;
+import com.example.orderservice.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.BindingResult;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.ResourceAccessException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Контроллер для управления заказами.
  * Предоставляет функциональность для создания, получения, обновления и удаления заказов.
+ * GET-запросы выполняются в транзакциях только для чтения: при включённой реплике они читают с неё.
  */
 @RestController
 @RequestMapping("/api/orders")
@@ -36,96 +66,305 @@ import java.util.UUID;
 public class OrderController {
 
     private final OrderRepository orderRepository;
+    private final ProductCache productCache;
+    private final OrderExportService orderExportService;
+    private final OrderService orderService;
+    private final OrderIntakeService orderIntakeService;
+    private final ProductDailySalesRepository productDailySalesRepository;
+    private final ProductSalesTotalRepository productSalesTotalRepository;
+    private final Validator validator;
+    private final OrderMetrics orderMetrics;
 
     /**
-     * Получить список всех заказов.
+     * Размер страницы списка заказов по умолчанию.
+     */
+    static final int DEFAULT_PAGE_SIZE = 50;
+
+    /**
+     * Максимальный размер страницы списка заказов.
+     */
+    static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * Максимальное количество заказов в одном пакетном запросе.
+     */
+    static final int MAX_BULK_SIZE = 5000;
+
+    /**
+     * Количество товаров в рейтинге продаж по умолчанию.
+     */
+    static final int DEFAULT_TOP_SIZE = 10;
+
+    /**
+     * Максимальное количество товаров в рейтинге продаж.
+     */
+    static final int MAX_TOP_SIZE = 100;
+
+    /**
+     * Начало периода статистики продаж, если он не указан.
+     */
+    private static final LocalDate STATS_EPOCH = LocalDate.of(1970, 1, 1);
+
+    /**
+     * Размер буфера gzip при выгрузке.
+     */
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Получить список заказов постранично.
+     * Заказы упорядочены по дате создания; для перехода на следующую страницу
+     * нужно передать курсор `next` из предыдущего ответа.
      *
-     * @return ResponseEntity Список заказов в формате JSON.
+     * @param limit  Количество заказов на странице (не больше {@value #MAX_PAGE_SIZE}).
+     * @param cursor Курсор следующей страницы.
+     * @return ResponseEntity Страница заказов в формате JSON или сообщение об ошибке.
      */
-    @Operation(summary = "Получить список всех заказов")
-    @ApiResponse(responseCode = "200", description = "Список заказов",
+    @Operation(summary = "Получить список заказов постранично")
+    @ApiResponse(responseCode = "200", description = "Страница заказов",
             content = @Content(mediaType = "application/json",
-                    schema = @Schema(implementation = Order.class)))
+                    schema = @Schema(implementation = CursorPage.class)))
+    @ApiResponse(responseCode = "400", description = "Некорректный размер страницы или курсор")
+    @Transactional(readOnly = true)
     @GetMapping
-    public ResponseEntity<List<Order>> getOrders() {
-        List<Order> orders = orderRepository.findAll();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<?> getOrders(
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        if (pageSize < 1) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Размер страницы должен быть больше 0");
+        }
+
+        // Запрашиваем на один заказ больше, чтобы узнать, есть ли следующая страница
+        List<UUID> orderIds;
+        if (cursor == null || cursor.isEmpty()) {
+            orderIds = orderRepository.findFirstPageIds(pageSize + 1);
+        } else {
+            PageCursor after;
+            try {
+                after = PageCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Некорректный курсор");
+            }
+            orderIds = orderRepository.findPageIdsAfter(after.createdAt(), after.id(), pageSize + 1);
+        }
+
+        boolean hasNext = orderIds.size() > pageSize;
+        if (hasNext) {
+            orderIds = orderIds.subList(0, pageSize);
+        }
+
+        // Товары всех заказов страницы загружаются вторым запросом, а не отдельно для каждого заказа
+        List<Order> orders = orderIds.isEmpty() ? List.of() : orderRepository.findAllWithItemsByIdIn(orderIds);
+
+        String next = null;
+        if (hasNext && !orders.isEmpty()) {
+            Order last = orders.get(orders.size() - 1);
+            next = new PageCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return ResponseEntity.ok(new CursorPage<>(orders, next));
     }
 
     /**
      * Создать новый заказ.
+     * В асинхронном режиме заказ только ставится в очередь: ответ 202 возвращается сразу,
+     * без обращения к ProductService, а статус заказа проверяется через `GET /api/orders/{id}`.
      *
      * @param orderRequest Данные заказа.
      * @param bindingResult Объект для проверки ошибок валидации.
+     * @param async Принять заказ асинхронно.
      * @return ResponseEntity Результат создания заказа.
      */
     @Operation(summary = "Создать новый заказ")
     @ApiResponse(responseCode = "201", description = "Заказ создан успешно")
+    @ApiResponse(responseCode = "202", description = "Заказ принят в обработку (асинхронный режим)",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = OrderStatusResponse.class)))
     @ApiResponse(responseCode = "400", description = "Ошибка валидации данных")
     @PostMapping
     public ResponseEntity<?> createOrder(
-            @Valid @RequestBody OrderRequest orderRequest,
-            BindingResult bindingResult) {
+            @RequestBody OrderRequest orderRequest,
+            BindingResult bindingResult,
+            @RequestParam(name = "async", defaultValue = "false") boolean async) {
 
-        if (bindingResult.hasErrors()) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(bindingResult.getAllErrors());
+        ResponseEntity<?> rejected = orderMetrics.time(OrderMetrics.Phase.VALIDATION,
+                () -> validateCreateRequest(orderRequest, bindingResult, async));
+        if (rejected != null) {
+            return rejected;
+        }
+
+        if (async) {
+            UUID id = orderIntakeService.submit(orderRequest);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/orders/" + id))
+                    .body(new OrderStatusResponse(id, OrderStatus.PENDING, null, null));
+        }
+
+        Map<UUID, ProductResponse> products;
+        try {
+            products = orderMetrics.time(OrderMetrics.Phase.PRODUCT_LOOKUP, () -> {
+                // Собираем уникальные ID товаров: один и тот же товар может встречаться в нескольких позициях
+                Set<UUID> productIds = new LinkedHashSet<>();
+                for (OrderItemRequest itemRequest : orderRequest.getProducts()) {
+                    productIds.add(UUID.fromString(itemRequest.getProductId()));
+                }
+                orderMetrics.recordProducts(productIds.size());
+                // Запрашиваем информацию обо всех продуктах заказа (сначала из локального кэша)
+                return productCache.getProducts(productIds);
+            });
+        } catch (HttpClientErrorException | HttpServerErrorException | ResourceAccessException e) {
+            return productServiceError(e);
         }
 
         Order order = Order.builder()
                 .deliveryAddress(orderRequest.getDeliveryAddress())
                 .build();
+        UUID missingProductId = orderMetrics.time(OrderMetrics.Phase.PRICE_ASSEMBLY,
+                () -> addItems(order, orderRequest.getProducts(), products));
+        if (missingProductId != null) {
+            log.error("Продукт не найден: {}", missingProductId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body("Продукт с ID " + missingProductId + " не найден в ProductService");
+        }
 
-        RestTemplate restTemplate = new RestTemplate();
-        String productServiceUrl = "http://product-service:8081/api/products/"; // URL для запроса продукта по ID
-        //String productServiceUrl = "http://localhost:8081/api/products/"; // URL для запроса продукта по ID
+        orderMetrics.time(OrderMetrics.Phase.SAVE, () -> orderService.createOrder(order));
+        return ResponseEntity.status(HttpStatus.CREATED).body(order);
+    }
 
-        for (OrderItemRequest itemRequest : orderRequest.getProducts()) {
+    /**
+     * Проверить запрос на создание заказа.
+     * Проверка выполняется здесь, а не аннотацией `@Valid` на параметре, чтобы её время попадало
+     * в метрику этапа `validation`. Ошибки Bean Validation возвращаются в прежнем виде.
+     *
+     * @return Ответ с ошибкой или `null`, если запрос корректен.
+     */
+    private ResponseEntity<?> validateCreateRequest(OrderRequest orderRequest, BindingResult bindingResult, boolean async) {
+        new SpringValidatorAdapter(validator).validate(orderRequest, bindingResult);
+        if (bindingResult.hasErrors()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(bindingResult.getAllErrors());
+        }
+        if (async) {
+            String error = validate(orderRequest);
+            if (error != null) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Добавить в заказ позиции с проверенными ценами товаров.
+     *
+     * @return ID товара, отсутствующего в `products`, или `null`, если найдены все товары.
+     */
+    private static UUID addItems(Order order, List<OrderItemRequest> itemRequests, Map<UUID, ProductResponse> products) {
+        for (OrderItemRequest itemRequest : itemRequests) {
             UUID productId = UUID.fromString(itemRequest.getProductId());
-            Integer quantity = itemRequest.getQuantity();
+            ProductResponse productResponse = products.get(productId);
+            if (productResponse == null) {
+                return productId;
+            }
 
-            try {
-                // Запрашиваем информацию о продукте по его ID
-                ProductResponse productResponse = restTemplate.getForObject(
-                        productServiceUrl + productId, // Формируем URL: http://product-service/api/products/{id}
-                        ProductResponse.class
-                );
+            // Создаём `OrderItem` с проверенной ценой
+            OrderItem item = new OrderItem();
+            item.setProductId(productId);
+            item.setQuantity(itemRequest.getQuantity());
+            item.setPrice(productResponse.getPrice());
+            item.setOrder(order);
+
+            order.addOrderItem(item);
+        }
+        return null;
+    }
+
+    /**
+     * Создать несколько заказов за один запрос.
+     * Каждый заказ проверяется отдельно: заказ с ошибкой отклоняется, остальные сохраняются.
+     * Цены всех различных товаров пакета запрашиваются у ProductService один раз,
+     * заказы сохраняются пакетными вставками JDBC.
+     *
+     * @param orderRequests Список заказов (не больше {@value #MAX_BULK_SIZE}).
+     * @return ResponseEntity Результат по каждому заказу в порядке запроса или сообщение об ошибке.
+     */
+    @Operation(summary = "Создать несколько заказов за один запрос")
+    @ApiResponse(responseCode = "200", description = "Пакет обработан, результат по каждому заказу",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = BulkOrderResponse.class)))
+    @ApiResponse(responseCode = "400", description = "Пустой список или слишком много заказов")
+    @ApiResponse(responseCode = "503", description = "ProductService недоступен")
+    @PostMapping("/bulk")
+    public ResponseEntity<?> createOrders(@RequestBody List<OrderRequest> orderRequests) {
+        if (orderRequests == null || orderRequests.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Список заказов пуст");
+        }
+        if (orderRequests.size() > MAX_BULK_SIZE) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Можно создать не более " + MAX_BULK_SIZE + " заказов за раз");
+        }
 
+        BulkOrderResult[] results = new BulkOrderResult[orderRequests.size()];
+
+        // Проверяем заказы и собираем уникальные ID товаров всего пакета
+        Set<UUID> productIds = new LinkedHashSet<>();
+        for (int i = 0; i < orderRequests.size(); i++) {
+            String error = validate(orderRequests.get(i));
+            if (error != null) {
+                results[i] = BulkOrderResult.rejected(i, error);
+                continue;
+            }
+            for (OrderItemRequest itemRequest : orderRequests.get(i).getProducts()) {
+                productIds.add(UUID.fromString(itemRequest.getProductId()));
+            }
+        }
+
+        Map<UUID, ProductResponse> products;
+        try {
+            products = productIds.isEmpty() ? Map.of() : productCache.getProducts(productIds);
+        } catch (HttpClientErrorException | HttpServerErrorException | ResourceAccessException e) {
+            return productServiceError(e);
+        }
+
+        List<Order> orders = new ArrayList<>();
+        List<Integer> orderIndexes = new ArrayList<>();
+        for (int i = 0; i < orderRequests.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            OrderRequest orderRequest = orderRequests.get(i);
+            Order order = Order.builder()
+                    .deliveryAddress(orderRequest.getDeliveryAddress())
+                    .build();
+
+            for (OrderItemRequest itemRequest : orderRequest.getProducts()) {
+                UUID productId = UUID.fromString(itemRequest.getProductId());
+                ProductResponse productResponse = products.get(productId);
                 if (productResponse == null) {
-                    return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                            .body("Продукт с ID " + productId + " не найден в ProductService");
+                    results[i] = BulkOrderResult.rejected(i, "Продукт с ID " + productId + " не найден в ProductService");
+                    break;
                 }
 
-                // Создаём `OrderItem` с проверенной ценой
                 OrderItem item = new OrderItem();
                 item.setProductId(productId);
-                item.setQuantity(quantity);
+                item.setQuantity(itemRequest.getQuantity());
                 item.setPrice(productResponse.getPrice());
-                item.setOrder(order);
-
                 order.addOrderItem(item);
+            }
 
-            } catch (HttpClientErrorException.NotFound e) {
-                log.error("Продукт не найден: {}", productId);
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body("Продукт с ID " + productId + " не найден в ProductService");
-            } catch (HttpServerErrorException e) {
-                log.error("Ошибка сервера ProductService: {}", e.getMessage());
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body("Ошибка на стороне ProductService");
-            } catch (ResourceAccessException e) {
-                log.error("ProductService недоступен: {}", e.getMessage());
-                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                        .body("ProductService недоступен");
+            if (results[i] == null) {
+                orders.add(order);
+                orderIndexes.add(i);
             }
-//            catch (Exception e) {
-//                log.error("Неожиданная ошибка: {}", e.getMessage());
-//                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-//                        .body("Неожиданная ошибка при запросе к ProductService");
-//            }
         }
 
-        orderRepository.save(order);
-        return ResponseEntity.status(HttpStatus.CREATED).body(order);
+        boolean[] saved = orderService.createOrders(orders);
+        for (int j = 0; j < orders.size(); j++) {
+            int i = orderIndexes.get(j);
+            results[i] = saved[j]
+                    ? BulkOrderResult.created(i, orders.get(j).getId())
+                    : BulkOrderResult.failed(i, "Ошибка сохранения заказа");
+        }
+
+        return ResponseEntity.ok(BulkOrderResponse.of(Arrays.asList(results)));
     }
 
     /**
@@ -137,6 +376,7 @@ public class OrderController {
     @ApiResponse(responseCode = "200", description = "Список заказов")
     @ApiResponse(responseCode = "400", description = "Некорректный запрос")
     @ApiResponse(responseCode = "404", description = "Заказы не найдены")
+    @Transactional(readOnly = true)
     @GetMapping("/search")
     public ResponseEntity<?> searchByProductId(@RequestParam(name = "productId") @NotNull String productId) {
 
@@ -148,23 +388,134 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    /**
+     * Выгрузить все заказы с товарами в формате NDJSON.
+     * Заказы передаются потоком по мере чтения из базы, поэтому размер выгрузки не ограничен памятью сервиса.
+     *
+     * @param gzip Сжимать ли ответ gzip.
+     * @return ResponseEntity Поток заказов, по одному JSON-объекту на строку.
+     */
+    @Operation(summary = "Выгрузить все заказы в формате NDJSON")
+    @ApiResponse(responseCode = "200", description = "Поток заказов, по одному JSON-объекту на строку")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(name = "gzip", defaultValue = "false") boolean gzip) {
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+                orderExportService.export(gzipOut);
+                gzipOut.finish();
+            } else {
+                orderExportService.export(out);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Получить продажи товара.
+     * Без периода возвращается итог за всё время, с периодом — итог за период и продажи по дням.
+     * Ответ строится по агрегатам продаж, поэтому время не зависит от количества заказов.
+     *
+     * @param id   Идентификатор товара.
+     * @param from Первый день периода (UTC), включительно.
+     * @param to   Последний день периода (UTC), включительно.
+     * @return ResponseEntity Продажи товара или сообщение об ошибке.
+     */
+    @Operation(summary = "Получить продажи товара за всё время или за период")
+    @ApiResponse(responseCode = "200", description = "Продажи товара",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ProductSalesResponse.class)))
+    @ApiResponse(responseCode = "400", description = "Некорректный период")
+    @Transactional(readOnly = true)
+    @GetMapping("/stats/products/{id}")
+    public ResponseEntity<?> getProductSales(
+            @PathVariable UUID id,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        if (from == null && to == null) {
+            ProductSalesTotal total = productSalesTotalRepository.findById(id)
+                    .orElseGet(() -> new ProductSalesTotal(id, 0L, 0L));
+            return ResponseEntity.ok(ProductSalesResponse.of(total));
+        }
+
+        LocalDate periodFrom = from == null ? STATS_EPOCH : from;
+        LocalDate periodTo = to == null ? LocalDate.now(ZoneOffset.UTC) : to;
+        if (periodFrom.isAfter(periodTo)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Начало периода позже его окончания");
+        }
+        return ResponseEntity.ok(ProductSalesResponse.of(id,
+                productDailySalesRepository.findByProductIdInPeriod(id, periodFrom, periodTo)));
+    }
+
+    /**
+     * Получить самые продаваемые товары по выручке за всё время или за период.
+     *
+     * @param from  Первый день периода (UTC), включительно.
+     * @param to    Последний день периода (UTC), включительно.
+     * @param limit Количество товаров (не больше {@value #MAX_TOP_SIZE}).
+     * @return ResponseEntity Товары по убыванию выручки или сообщение об ошибке.
+     */
+    @Operation(summary = "Получить самые продаваемые товары")
+    @ApiResponse(responseCode = "200", description = "Товары по убыванию выручки")
+    @ApiResponse(responseCode = "400", description = "Некорректный период или количество товаров")
+    @Transactional(readOnly = true)
+    @GetMapping("/stats/top")
+    public ResponseEntity<?> getTopProducts(
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "limit", required = false) Integer limit) {
+
+        int topSize = limit == null ? DEFAULT_TOP_SIZE : Math.min(limit, MAX_TOP_SIZE);
+        if (topSize < 1) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Количество товаров должно быть больше 0");
+        }
+
+        List<ProductSalesTotal> top;
+        if (from == null && to == null) {
+            top = productSalesTotalRepository.findTop(topSize);
+        } else {
+            LocalDate periodFrom = from == null ? STATS_EPOCH : from;
+            LocalDate periodTo = to == null ? LocalDate.now(ZoneOffset.UTC) : to;
+            if (periodFrom.isAfter(periodTo)) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Начало периода позже его окончания");
+            }
+            top = productDailySalesRepository.findTopInPeriod(periodFrom, periodTo, topSize);
+        }
+        return ResponseEntity.ok(top.stream().map(ProductSalesResponse::of).toList());
+    }
+
     /**
      * Получить заказ по его ID.
+     * Для асинхронно принятого заказа, который ещё не создан или отклонён, возвращается его статус.
      *
      * @param id Идентификатор заказа.
-     * @return ResponseEntity Информация о заказе или ошибка, если не найден.
+     * @return ResponseEntity Информация о заказе, статус заказа в очереди или ошибка, если не найден.
      */
     @Operation(summary = "Получить заказ по ID")
-    @ApiResponse(responseCode = "200", description = "Информация о заказе")
+    @ApiResponse(responseCode = "200", description = "Информация о заказе (статус CONFIRMED) или статус PENDING/REJECTED")
     @ApiResponse(responseCode = "404", description = "Заказ не найден")
+    @Transactional(readOnly = true)
     @GetMapping("/{id}")
     public ResponseEntity<?> getOrder(@PathVariable UUID id) {
-        Optional<Order> order = orderRepository.findById(id);
+        Optional<Order> order = orderRepository.findWithItemsById(id);
+        if (order.isPresent()) {
+            return ResponseEntity.ok(order.get());
+        }
 
-        if (order.isEmpty()) {
+        // Подтверждённый заказ уже найден выше; запись CONFIRMED без заказа означает, что заказ удалён
+        Optional<OrderIntake> intake = orderIntakeService.find(id);
+        if (intake.isEmpty() || intake.get().getStatus() == OrderStatus.CONFIRMED) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Заказ не найден");
         }
-        return ResponseEntity.ok(order.get());
+        return ResponseEntity.ok(OrderStatusResponse.of(intake.get()));
     }
 
     /**
@@ -212,14 +563,54 @@ public class OrderController {
     @ApiResponse(responseCode = "404", description = "Заказ не найден")
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteOrder(@PathVariable UUID id) {
-        Optional<Order> order = orderRepository.findById(id);
-
-        if (order.isEmpty()) {
+        if (!orderService.deleteOrder(id)) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Заказ не найден");
         }
-
-        orderRepository.delete(order.get());
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
-}
 
+    /**
+     * Проверить заказ из пакета.
+     *
+     * @return Описание ошибок или null, если заказ корректен.
+     */
+    private String validate(OrderRequest orderRequest) {
+        if (orderRequest == null) {
+            return "Пустой заказ";
+        }
+        Set<ConstraintViolation<OrderRequest>> violations = validator.validate(orderRequest);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        for (OrderItemRequest itemRequest : orderRequest.getProducts()) {
+            if (itemRequest == null) {
+                return "Пустая позиция заказа";
+            }
+            try {
+                UUID.fromString(itemRequest.getProductId());
+            } catch (IllegalArgumentException e) {
+                return "Некорректный формат UUID: " + itemRequest.getProductId();
+            }
+        }
+        return null;
+    }
+
+    private static ResponseEntity<String> productServiceError(RuntimeException e) {
+        if (e instanceof HttpClientErrorException clientError) {
+            log.error("ProductService отклонил запрос: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("ProductService отклонил запрос: " + clientError.getResponseBodyAsString());
+        }
+        if (e instanceof HttpServerErrorException) {
+            log.error("Ошибка сервера ProductService: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Ошибка на стороне ProductService");
+        }
+        log.error("ProductService недоступен: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body("ProductService недоступен");
+    }
+}
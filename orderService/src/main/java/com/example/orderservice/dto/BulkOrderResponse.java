@@ -0,0 +1,42 @@
+package com.example.orderservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Ответ на пакетное создание заказов: сводка и результат по каждому заказу в порядке запроса.
+ */
+@Getter
+@AllArgsConstructor
+@Schema(description = "Результат пакетного создания заказов")
+public class BulkOrderResponse {
+
+    @Schema(description = "Количество созданных заказов", example = "998")
+    private int created;
+
+    @Schema(description = "Количество заказов, не прошедших проверку", example = "2")
+    private int rejected;
+
+    @Schema(description = "Количество заказов, не сохранённых из-за ошибки базы данных", example = "0")
+    private int failed;
+
+    @Schema(description = "Результаты по каждому заказу в порядке запроса")
+    private List<BulkOrderResult> results;
+
+    public static BulkOrderResponse of(List<BulkOrderResult> results) {
+        int created = 0;
+        int rejected = 0;
+        int failed = 0;
+        for (BulkOrderResult result : results) {
+            switch (result.getStatus()) {
+                case CREATED -> created++;
+                case REJECTED -> rejected++;
+                case FAILED -> failed++;
+            }
+        }
+        return new BulkOrderResponse(created, rejected, failed, results);
+    }
+}
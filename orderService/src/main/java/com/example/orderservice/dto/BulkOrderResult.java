@@ -0,0 +1,54 @@
+package com.example.orderservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Результат обработки одного заказа из пакетного запроса.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Результат обработки заказа из пакета")
+public class BulkOrderResult {
+
+    /**
+     * Состояние заказа после обработки пакета.
+     */
+    public enum Status {
+        /** Заказ сохранён. */
+        CREATED,
+        /** Заказ не прошёл проверку и не сохранялся. */
+        REJECTED,
+        /** Заказ прошёл проверку, но не был сохранён из-за ошибки базы данных. */
+        FAILED
+    }
+
+    @Schema(description = "Номер заказа в запросе, начиная с 0", example = "0")
+    private int index;
+
+    @Schema(description = "Состояние заказа", example = "CREATED")
+    private Status status;
+
+    @Schema(description = "Идентификатор созданного заказа", example = "123e4567-e89b-12d3-a456-426614174000")
+    private UUID orderId;
+
+    @Schema(description = "Причина, по которой заказ не создан", example = "Продукт с ID 123e4567-e89b-12d3-a456-426614174001 не найден")
+    private String error;
+
+    public static BulkOrderResult created(int index, UUID orderId) {
+        return new BulkOrderResult(index, Status.CREATED, orderId, null);
+    }
+
+    public static BulkOrderResult rejected(int index, String error) {
+        return new BulkOrderResult(index, Status.REJECTED, null, error);
+    }
+
+    public static BulkOrderResult failed(int index, String error) {
+        return new BulkOrderResult(index, Status.FAILED, null, error);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.orderservice.dto;
+
+import com.example.orderservice.model.ProductDailySales;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Продажи товара за один день.
+ */
+@Getter
+@AllArgsConstructor
+@Schema(description = "Продажи товара за день")
+public class DailySalesResponse {
+
+    @Schema(description = "День продажи (UTC)", example = "2024-05-01")
+    private LocalDate date;
+
+    @Schema(description = "Количество проданных единиц", example = "12")
+    private long units;
+
+    @Schema(description = "Выручка в рублях", example = "17999.88")
+    private BigDecimal revenue;
+
+    public static DailySalesResponse of(ProductDailySales sales) {
+        return new DailySalesResponse(sales.getSalesDate(), sales.getUnits(), BigDecimal.valueOf(sales.getRevenue(), 2));
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.orderservice.dto;
+
+import com.example.orderservice.model.OrderIntake;
+import com.example.orderservice.model.OrderStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Статус асинхронно принятого заказа, который ещё не создан или отклонён.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Статус асинхронно принятого заказа")
+public class OrderStatusResponse {
+
+    @Schema(description = "Идентификатор заказа", example = "123e4567-e89b-12d3-a456-426614174000")
+    private UUID id;
+
+    @Schema(description = "Статус заказа", example = "PENDING")
+    private OrderStatus status;
+
+    @Schema(description = "Причина отклонения заказа", example = "Продукт с ID 123e4567-e89b-12d3-a456-426614174001 не найден в ProductService")
+    private String error;
+
+    @Schema(description = "Дата приёма заказа", example = "2024-05-01T12:34:56Z")
+    private Instant createdAt;
+
+    public static OrderStatusResponse of(OrderIntake intake) {
+        return new OrderStatusResponse(intake.getId(), intake.getStatus(), intake.getError(), intake.getCreatedAt());
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.orderservice.dto;
+
+import com.example.orderservice.model.ProductDailySales;
+import com.example.orderservice.model.ProductSalesTotal;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Итог продаж товара за всё время или за период.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Продажи товара")
+public class ProductSalesResponse {
+
+    @Schema(description = "UUID идентификатор товара", example = "123e4567-e89b-12d3-a456-426614174001")
+    private UUID productId;
+
+    @Schema(description = "Количество проданных единиц", example = "340")
+    private long units;
+
+    @Schema(description = "Выручка в рублях", example = "509996.60")
+    private BigDecimal revenue;
+
+    @Schema(description = "Продажи по дням. Присутствует, только если запрошен период.")
+    private List<DailySalesResponse> days;
+
+    public static ProductSalesResponse of(ProductSalesTotal total) {
+        return new ProductSalesResponse(total.getProductId(), total.getUnits(),
+                BigDecimal.valueOf(total.getRevenue(), 2), null);
+    }
+
+    public static ProductSalesResponse of(UUID productId, List<ProductDailySales> days) {
+        long units = 0;
+        long revenue = 0;
+        for (ProductDailySales day : days) {
+            units += day.getUnits();
+            revenue += day.getRevenue();
+        }
+        return new ProductSalesResponse(productId, units, BigDecimal.valueOf(revenue, 2),
+                days.stream().map(DailySalesResponse::of).toList());
+    }
+}
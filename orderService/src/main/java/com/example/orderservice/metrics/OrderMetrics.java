@@ -0,0 +1,76 @@
+package com.example.orderservice.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Метрики создания заказа.
+ * <ul>
+ *     <li>`orders.create.phase` — время этапа с тегом `phase`: `validation` (проверка запроса и ID товаров),
+ *     `product-lookup` (получение товаров из кэша или `ProductService`), `price-assembly` (сборка позиций
+ *     с ценами) и `save` (транзакция сохранения заказа вместе с агрегатами продаж);</li>
+ *     <li>`orders.create.products` — количество различных товаров в заказе, то есть ключей одного обращения
+ *     к кэшу товаров. Попадания и промахи по каждому товару видны в `cache.gets{cache=products}`,
+ *     запросы к `ProductService` — в `productservice.client.requests`.</li>
+ * </ul>
+ * Таймеры публикуют гистограмму для Prometheus. Этап учитывается и тогда, когда он завершился исключением.
+ */
+@Component
+public class OrderMetrics {
+
+    /**
+     * Этапы создания заказа.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public enum Phase {
+        VALIDATION("validation"),
+        PRODUCT_LOOKUP("product-lookup"),
+        PRICE_ASSEMBLY("price-assembly"),
+        SAVE("save");
+
+        private final String tag;
+    }
+
+    private final Map<Phase, Timer> phases = new EnumMap<>(Phase.class);
+    private final DistributionSummary products;
+
+    public OrderMetrics(MeterRegistry meterRegistry) {
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, Timer.builder("orders.create.phase")
+                    .description("Время этапа создания заказа")
+                    .tag("phase", phase.getTag())
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(10_000))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(meterRegistry));
+        }
+        this.products = DistributionSummary.builder("orders.create.products")
+                .description("Количество различных товаров в создаваемом заказе")
+                .baseUnit("products")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Выполнить этап создания заказа и учесть его время.
+     */
+    public <T> T time(Phase phase, Supplier<T> action) {
+        return phases.get(phase).record(action);
+    }
+
+    /**
+     * Учесть количество различных товаров в заказе.
+     */
+    public void recordProducts(int count) {
+        products.record(count);
+    }
+}
@@ -32,7 +32,6 @@ public class Order {
      * Уникальный идентификатор заказа в формате UUID.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
     @Column(updatable = false, nullable = false)
     @Schema(description = "Идентификатор заказа", example = "123e4567-e89b-12d3-a456-426614174000")
     private UUID id;
@@ -64,6 +63,26 @@ public class Order {
     @Schema(description = "Дата создания заказа", example = "2024-05-01T12:34:56Z")
     private Instant createdAt;
 
+    /**
+     * Статус заказа. Сохранённый заказ всегда подтверждён: заказы, ожидающие проверки
+     * или отклонённые, хранятся в `order_intake`.
+     */
+    @Schema(description = "Статус заказа", example = "CONFIRMED")
+    public OrderStatus getStatus() {
+        return OrderStatus.CONFIRMED;
+    }
+
+    /**
+     * Назначить идентификатор перед сохранением.
+     * При асинхронном приёме ID выдаётся клиенту заранее и задаётся явно, поэтому генератор Hibernate не используется.
+     */
+    @PrePersist
+    void assignId() {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+    }
+
     /**
      * Добавить товар в заказ.
      *
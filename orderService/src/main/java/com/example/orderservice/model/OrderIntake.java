@@ -0,0 +1,70 @@
+package com.example.orderservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Заказ, принятый асинхронно и ещё не обработанный (или отклонённый).
+ * Запрос клиента хранится как JSON до тех пор, пока обработчик не проверит цены
+ * и не создаст заказ с тем же ID.
+ */
+@Entity
+@Table(name = "order_intake")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderIntake {
+
+    /**
+     * Идентификатор, выданный клиенту. Совпадает с ID создаваемого заказа.
+     */
+    @Id
+    @Column(updatable = false, nullable = false)
+    private UUID id;
+
+    /**
+     * Исходный запрос на создание заказа в формате JSON.
+     */
+    @Column(nullable = false, length = 100_000)
+    private String request;
+
+    /**
+     * Статус обработки.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private OrderStatus status;
+
+    /**
+     * Причина отклонения заказа.
+     */
+    @Column(length = 1000)
+    private String error;
+
+    /**
+     * Количество попыток обработки.
+     */
+    @Column(nullable = false)
+    private int attempts;
+
+    /**
+     * Время, до которого запись захвачена обработчиком. После него запись снова доступна для обработки.
+     */
+    private Instant leaseUntil;
+
+    /**
+     * Дата и время приёма заказа.
+     */
+    @Column(updatable = false, nullable = false)
+    private Instant createdAt;
+
+    /**
+     * Дата и время последнего изменения статуса.
+     */
+    @Column(nullable = false)
+    private Instant updatedAt;
+}
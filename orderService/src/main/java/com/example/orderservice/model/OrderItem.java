@@ -38,7 +38,7 @@ public class OrderItem {
     /**
      * Ссылка на заказ, к которому относится товар.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", nullable = false, foreignKey = @ForeignKey(name = "fk_order_item_order", value = ConstraintMode.CONSTRAINT))
     @Schema(description = "Связанный заказ")
     @JsonIgnore
@@ -77,5 +77,10 @@ public class OrderItem {
     public void setPrice(float price) {
         this.price = (int) (price * 100); // Устанавливает цену в копейках
     }
+
+    @JsonIgnore
+    public int getPriceInKopecks() {
+        return price != null ? price : 0; // Цена в копейках без перевода в рубли
+    }
 }
 
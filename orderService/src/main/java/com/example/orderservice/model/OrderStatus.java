@@ -0,0 +1,13 @@
+package com.example.orderservice.model;
+
+/**
+ * Статус заказа.
+ */
+public enum OrderStatus {
+    /** Заказ принят асинхронно и ожидает проверки цен. */
+    PENDING,
+    /** Заказ проверен и сохранён. */
+    CONFIRMED,
+    /** Заказ отклонён при проверке. */
+    REJECTED
+}
@@ -0,0 +1,59 @@
+package com.example.orderservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Агрегат продаж товара за один день (по UTC).
+ * Строки обновляются в той же транзакции, что и создание или удаление заказа,
+ * поэтому отчёты по продажам не читают `order_items`.
+ */
+@Entity
+@Table(name = "product_daily_sales")
+@IdClass(ProductDailySales.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductDailySales {
+
+    /**
+     * Идентификатор товара.
+     */
+    @Id
+    @Column(nullable = false)
+    private UUID productId;
+
+    /**
+     * День продажи (дата создания заказа по UTC).
+     */
+    @Id
+    @Column(nullable = false)
+    private LocalDate salesDate;
+
+    /**
+     * Количество проданных единиц товара.
+     */
+    @Column(nullable = false)
+    private Long units;
+
+    /**
+     * Выручка в копейках.
+     */
+    @Column(nullable = false)
+    private Long revenue;
+
+    /**
+     * Составной ключ агрегата: товар и день.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID productId;
+        private LocalDate salesDate;
+    }
+}
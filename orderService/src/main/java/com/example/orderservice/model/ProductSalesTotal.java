@@ -0,0 +1,38 @@
+package com.example.orderservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * Агрегат продаж товара за всё время.
+ * Обновляется вместе с {@link ProductDailySales} и позволяет получить итог по товару
+ * или самые продаваемые товары без суммирования по дням.
+ */
+@Entity
+@Table(name = "product_sales_totals")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSalesTotal {
+
+    /**
+     * Идентификатор товара.
+     */
+    @Id
+    @Column(nullable = false)
+    private UUID productId;
+
+    /**
+     * Количество проданных единиц товара.
+     */
+    @Column(nullable = false)
+    private Long units;
+
+    /**
+     * Выручка в копейках.
+     */
+    @Column(nullable = false)
+    private Long revenue;
+}
@@ -0,0 +1,62 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.OrderIntake;
+import com.example.orderservice.model.OrderStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Репозиторий асинхронно принятых заказов {@link OrderIntake}.
+ */
+public interface OrderIntakeRepository extends JpaRepository<OrderIntake, UUID> {
+
+    /**
+     * Выбрать и заблокировать самые старые заказы, ожидающие обработки и не захваченные другим обработчиком.
+     * Строки, заблокированные параллельной транзакцией, пропускаются (`SKIP LOCKED`, значение таймаута -2),
+     * поэтому несколько обработчиков разбирают очередь, не мешая друг другу.
+     *
+     * @param status Статус ожидающих заказов.
+     * @param now    Текущее время: захват с истёкшим сроком не учитывается.
+     * @param limit  Максимальное количество заказов.
+     * @return Заблокированные до конца транзакции записи.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT i FROM OrderIntake i WHERE i.status = :status AND (i.leaseUntil IS NULL OR i.leaseUntil < :now) " +
+            "ORDER BY i.createdAt LIMIT :limit")
+    List<OrderIntake> findClaimable(@Param("status") OrderStatus status,
+                                    @Param("now") Instant now,
+                                    @Param("limit") int limit);
+
+    /**
+     * Заблокировать записи по списку ID до конца транзакции.
+     *
+     * @param ids Идентификаторы записей.
+     * @return Найденные записи.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM OrderIntake i WHERE i.id IN :ids")
+    List<OrderIntake> lockAllByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Удалить обработанные записи, статус которых не менялся с заданного момента.
+     *
+     * @param pending Статус ожидающих заказов — такие записи не удаляются.
+     * @param before  Граница по времени последнего изменения.
+     * @return Количество удалённых записей.
+     */
+    @Modifying
+    @Query("DELETE FROM OrderIntake i WHERE i.status <> :pending AND i.updatedAt < :before")
+    int deleteFinishedBefore(@Param("pending") OrderStatus pending, @Param("before") Instant before);
+}
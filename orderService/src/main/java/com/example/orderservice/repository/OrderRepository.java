@@ -1,10 +1,14 @@
 package com.example.orderservice.repository;
 
 import com.example.orderservice.model.Order;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -12,16 +16,60 @@ import java.util.UUID;
  * Этот интерфейс предоставляет методы для выполнения запросов к базе данных,
  * связанных с сущностью `Order`, используя возможности Spring Data JPA.
  */
-public interface OrderRepository extends JpaRepository<Order, UUID> {
+public interface OrderRepository extends JpaRepository<Order, UUID>, OrderRepositoryCustom {
 
     /**
      * Находит заказы по идентификатору продукта.
      * Этот метод выполняет запрос для поиска всех заказов, которые содержат
      * указанный идентификатор продукта в списке товаров заказа.
+     * Товары заказов загружаются тем же запросом, а условие по продукту вынесено
+     * в `EXISTS`, поэтому каждый заказ возвращается один раз и с полным списком товаров.
      *
      * @param productId Идентификатор продукта (UUID).
      * @return Список заказов, содержащих указанный продукт.
      */
-    @Query("SELECT o FROM Order o JOIN o.orderItems oi WHERE oi.productId = :productId")
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderItems " +
+            "WHERE EXISTS (SELECT 1 FROM OrderItem oi WHERE oi.order = o AND oi.productId = :productId) " +
+            "ORDER BY o.createdAt, o.id")
     List<Order> findByProductId(@Param("productId") UUID productId);
+
+    /**
+     * Находит заказ по ID вместе с товарами одним запросом.
+     *
+     * @param id Идентификатор заказа.
+     * @return Заказ с товарами.
+     */
+    @EntityGraph(attributePaths = "orderItems")
+    Optional<Order> findWithItemsById(UUID id);
+
+    /**
+     * Загружает заказы с товарами по списку ID одним запросом.
+     * Hibernate сам убирает дубликаты корневых сущностей, возникающие из-за JOIN FETCH.
+     *
+     * @param ids Идентификаторы заказов.
+     * @return Заказы с товарами в порядке `(created_at, id)`.
+     */
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderItems WHERE o.id IN :ids ORDER BY o.createdAt, o.id")
+    List<Order> findAllWithItemsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Идентификаторы первой страницы заказов в порядке `(created_at, id)`.
+     *
+     * @param limit Максимальное количество заказов.
+     * @return Список идентификаторов заказов.
+     */
+    @Query("SELECT o.id FROM Order o ORDER BY o.createdAt, o.id LIMIT :limit")
+    List<UUID> findFirstPageIds(@Param("limit") int limit);
+
+    /**
+     * Идентификаторы следующей страницы заказов после заданной позиции `(created_at, id)`.
+     * Сравнение кортежей позволяет PostgreSQL использовать индекс `idx_orders_created_at_id`.
+     *
+     * @param createdAt Дата создания последнего заказа предыдущей страницы.
+     * @param id        Идентификатор последнего заказа предыдущей страницы.
+     * @param limit     Максимальное количество заказов.
+     * @return Список идентификаторов заказов.
+     */
+    @Query("SELECT o.id FROM Order o WHERE (o.createdAt, o.id) > (:createdAt, :id) ORDER BY o.createdAt, o.id LIMIT :limit")
+    List<UUID> findPageIdsAfter(@Param("createdAt") Instant createdAt, @Param("id") UUID id, @Param("limit") int limit);
 }
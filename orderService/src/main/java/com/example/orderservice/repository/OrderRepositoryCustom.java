@@ -0,0 +1,20 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.Order;
+
+import java.util.stream.Stream;
+
+/**
+ * Дополнительные методы репозитория заказов, которые нельзя описать через `@Query`.
+ */
+public interface OrderRepositoryCustom {
+
+    /**
+     * Потоково прочитать все заказы вместе с товарами через курсор JDBC.
+     * Метод должен вызываться внутри транзакции, а поток — закрываться после использования.
+     *
+     * @param fetchSize Количество строк, получаемых из базы за одно обращение.
+     * @return Поток заказов, упорядоченных по `(created_at, id)`.
+     */
+    Stream<Order> streamAllWithItems(int fetchSize);
+}
@@ -0,0 +1,27 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.AvailableHints;
+
+import java.util.stream.Stream;
+
+/**
+ * Реализация {@link OrderRepositoryCustom}.
+ */
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<Order> streamAllWithItems(int fetchSize) {
+        // Строки одного заказа идут подряд, поэтому Hibernate собирает товары заказа прямо при чтении курсора
+        return entityManager.createQuery(
+                        "SELECT o FROM Order o LEFT JOIN FETCH o.orderItems ORDER BY o.createdAt, o.id", Order.class)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.ProductDailySales;
+import com.example.orderservice.model.ProductSalesTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Репозиторий дневных агрегатов продаж {@link ProductDailySales}.
+ */
+public interface ProductDailySalesRepository extends JpaRepository<ProductDailySales, ProductDailySales.Key> {
+
+    /**
+     * Продажи товара по дням за период.
+     * Читается диапазон первичного ключа `(product_id, sales_date)`.
+     *
+     * @param productId Идентификатор товара.
+     * @param from      Первый день периода.
+     * @param to        Последний день периода.
+     * @return Продажи по дням в порядке дат.
+     */
+    @Query("SELECT d FROM ProductDailySales d " +
+            "WHERE d.productId = :productId AND d.salesDate BETWEEN :from AND :to ORDER BY d.salesDate")
+    List<ProductDailySales> findByProductIdInPeriod(@Param("productId") UUID productId,
+                                                    @Param("from") LocalDate from,
+                                                    @Param("to") LocalDate to);
+
+    /**
+     * Самые продаваемые товары за период по выручке.
+     * Суммируются только строки дней из периода (индекс `idx_product_daily_sales_date`),
+     * поэтому время не зависит от количества заказов.
+     *
+     * @param from  Первый день периода.
+     * @param to    Последний день периода.
+     * @param limit Максимальное количество товаров.
+     * @return Итоги по товарам за период, по убыванию выручки.
+     */
+    @Query("SELECT new com.example.orderservice.model.ProductSalesTotal(d.productId, SUM(d.units), SUM(d.revenue)) " +
+            "FROM ProductDailySales d WHERE d.salesDate BETWEEN :from AND :to " +
+            "GROUP BY d.productId ORDER BY SUM(d.revenue) DESC, d.productId LIMIT :limit")
+    List<ProductSalesTotal> findTopInPeriod(@Param("from") LocalDate from,
+                                            @Param("to") LocalDate to,
+                                            @Param("limit") int limit);
+}
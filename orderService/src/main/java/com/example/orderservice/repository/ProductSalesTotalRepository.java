@@ -0,0 +1,25 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.ProductSalesTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Репозиторий итогов продаж по товарам за всё время {@link ProductSalesTotal}.
+ */
+public interface ProductSalesTotalRepository extends JpaRepository<ProductSalesTotal, UUID> {
+
+    /**
+     * Самые продаваемые товары за всё время по выручке.
+     * Читается начало индекса `idx_product_sales_totals_revenue`.
+     *
+     * @param limit Максимальное количество товаров.
+     * @return Итоги по товарам, по убыванию выручки.
+     */
+    @Query("SELECT s FROM ProductSalesTotal s ORDER BY s.revenue DESC, s.productId LIMIT :limit")
+    List<ProductSalesTotal> findTop(@Param("limit") int limit);
+}
@@ -0,0 +1,74 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.repository.OrderRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+
+/**
+ * Выгрузка всех заказов в формате NDJSON (один JSON-объект заказа на строку).
+ * Заказы читаются из курсора JDBC и сразу пишутся в выходной поток, после записи
+ * сущность отсоединяется от контекста persistence. Расход памяти не зависит от количества заказов.
+ */
+@Service
+public class OrderExportService {
+
+    private final OrderRepository orderRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int fetchSize;
+
+    public OrderExportService(OrderRepository orderRepository,
+                              EntityManager entityManager,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${export.fetch-size:500}") int fetchSize) {
+        this.orderRepository = orderRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Записать все заказы с товарами в выходной поток.
+     * Поток не закрывается — это ответственность вызывающего кода.
+     *
+     * @param out Выходной поток.
+     */
+    public void export(OutputStream out) {
+        // Курсор PostgreSQL работает только внутри транзакции
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Order> orders = orderRepository.streamAllWithItems(fetchSize);
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+
+                orders.forEach(order -> {
+                    try {
+                        generator.writeObject(order);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    entityManager.detach(order);
+                });
+                generator.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
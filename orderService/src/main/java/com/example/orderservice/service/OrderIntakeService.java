@@ -0,0 +1,368 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.cache.ProductCache;
+import com.example.orderservice.config.OrderIntakeProperties;
+import com.example.orderservice.dto.OrderItemRequest;
+import com.example.orderservice.dto.OrderRequest;
+import com.example.orderservice.dto.ProductResponse;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderIntake;
+import com.example.orderservice.model.OrderItem;
+import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.repository.OrderIntakeRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Асинхронный приём заказов.
+ * <p>
+ * {@link #submit} только сохраняет запрос в таблицу `order_intake` со статусом `PENDING` и сразу
+ * возвращает ID будущего заказа, не обращаясь к `ProductService`. Очередь разбирают
+ * `order-intake.workers` обработчиков: каждый захватывает до `order-intake.batch-size` самых старых
+ * записей (`FOR UPDATE SKIP LOCKED` и срок захвата), запрашивает цены всех товаров пачки одним
+ * вызовом и в одной транзакции создаёт заказы с теми же ID, обновляет агрегаты продаж и
+ * переводит записи в `CONFIRMED` или `REJECTED`.
+ * <p>
+ * Медленный или недоступный `ProductService` задерживает только подтверждение заказов, а не ответ клиенту.
+ * Если сервис недоступен, записи остаются в очереди и обрабатываются повторно после истечения
+ * срока захвата; после `order-intake.max-attempts` попыток заказ отклоняется.
+ * <p>
+ * Если транзакция пачки откатилась из-за ошибки базы данных, заказы пачки сохраняются по одному, чтобы
+ * ошибочная запись не задерживала остальные; сама она отклоняется после `order-intake.max-attempts` попыток.
+ * Лимит попыток проверяется и при захвате, поэтому запись, обработка которой прервалась
+ * непредвиденной ошибкой, тоже не разбирается бесконечно.
+ */
+@Service
+@Slf4j
+@EnableConfigurationProperties(OrderIntakeProperties.class)
+public class OrderIntakeService {
+
+    private final OrderIntakeRepository orderIntakeRepository;
+    private final ProductCache productCache;
+    private final SalesStatsService salesStatsService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transaction;
+    private final OrderIntakeProperties properties;
+    private final Semaphore wakeups = new Semaphore(0);
+    private final ExecutorService workers;
+    private volatile boolean running = true;
+
+    public OrderIntakeService(OrderIntakeRepository orderIntakeRepository,
+                              ProductCache productCache,
+                              SalesStatsService salesStatsService,
+                              EntityManager entityManager,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              OrderIntakeProperties properties) {
+        this.orderIntakeRepository = orderIntakeRepository;
+        this.productCache = productCache;
+        this.salesStatsService = salesStatsService;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        // Обработчики большую часть времени ждут ProductService или базу, поэтому работают в виртуальных потоках
+        this.workers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("order-intake-", 0).factory());
+    }
+
+    /**
+     * Принять заказ в очередь.
+     *
+     * @param orderRequest Проверенный запрос на создание заказа.
+     * @return ID заказа, по которому клиент узнаёт его статус.
+     */
+    public UUID submit(OrderRequest orderRequest) {
+        String request;
+        try {
+            request = objectMapper.writeValueAsString(orderRequest);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Не удалось сериализовать заказ", e);
+        }
+
+        Instant now = Instant.now();
+        OrderIntake intake = OrderIntake.builder()
+                .id(UUID.randomUUID())
+                .request(request)
+                .status(OrderStatus.PENDING)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        // ID задан заранее, поэтому save() выполнил бы лишний SELECT перед вставкой
+        transaction.executeWithoutResult(status -> entityManager.persist(intake));
+
+        // Будим один свободный обработчик; лишние пробуждения не копятся, пока все обработчики заняты
+        if (wakeups.availablePermits() < properties.getWorkers()) {
+            wakeups.release();
+        }
+        return intake.getId();
+    }
+
+    /**
+     * Найти асинхронно принятый заказ.
+     *
+     * @param id ID заказа.
+     * @return Запись очереди, если она ещё хранится.
+     */
+    public Optional<OrderIntake> find(UUID id) {
+        return orderIntakeRepository.findById(id);
+    }
+
+    /**
+     * Обработать одну пачку ожидающих заказов.
+     *
+     * @return Количество захваченных записей; 0, если очередь пуста.
+     */
+    public int processPending() {
+        List<OrderIntake> intakes = transaction.execute(status -> {
+            Instant now = Instant.now();
+            List<OrderIntake> found = orderIntakeRepository.findClaimable(
+                    OrderStatus.PENDING, now, properties.getBatchSize());
+            for (OrderIntake intake : found) {
+                // Все попытки уже израсходованы, но последняя прервалась, не отклонив заказ
+                if (intake.getAttempts() >= properties.getMaxAttempts()) {
+                    intake.setUpdatedAt(now);
+                    intake.setLeaseUntil(null);
+                    reject(intake, "Превышено количество попыток обработки");
+                    continue;
+                }
+                intake.setLeaseUntil(now.plus(properties.getLease()));
+                intake.setAttempts(intake.getAttempts() + 1);
+            }
+            return found;
+        });
+        if (intakes == null || intakes.isEmpty()) {
+            return 0;
+        }
+        List<OrderIntake> claimed = intakes.stream()
+                .filter(intake -> intake.getStatus() == OrderStatus.PENDING)
+                .toList();
+        if (claimed.isEmpty()) {
+            return intakes.size();
+        }
+
+        Map<UUID, OrderRequest> requests = new HashMap<>();
+        Set<UUID> productIds = new HashSet<>();
+        for (OrderIntake intake : claimed) {
+            try {
+                OrderRequest request = objectMapper.readValue(intake.getRequest(), OrderRequest.class);
+                for (OrderItemRequest item : request.getProducts()) {
+                    productIds.add(UUID.fromString(item.getProductId()));
+                }
+                requests.put(intake.getId(), request);
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                log.error("Некорректный запрос в очереди заказов {}: {}", intake.getId(), e.getMessage());
+            }
+        }
+
+        Map<UUID, ProductResponse> products;
+        try {
+            // Цены товаров всей пачки запрашиваются вне транзакции, чтобы не держать соединение с базой
+            products = productIds.isEmpty() ? Map.of() : productCache.getProducts(productIds);
+        } catch (RestClientException e) {
+            log.warn("ProductService недоступен, {} заказов остаются в очереди: {}", claimed.size(), e.getMessage());
+            rejectExhausted(claimed, "ProductService недоступен");
+            return intakes.size();
+        }
+
+        List<UUID> ids = claimed.stream().map(OrderIntake::getId).toList();
+        try {
+            transaction.executeWithoutResult(status -> finish(ids, requests, products));
+        } catch (DataAccessException | PersistenceException e) {
+            // flush() общего EntityManager бросает исключения JPA без преобразования в DataAccessException
+            log.warn("Не удалось сохранить пачку из {} заказов, заказы сохраняются по одному: {}",
+                    ids.size(), e.getMessage());
+            entityManager.clear();
+            finishOneByOne(claimed, requests, products);
+        }
+        return intakes.size();
+    }
+
+    /**
+     * Удалить обработанные записи старше `order-intake.retention`.
+     *
+     * @return Количество удалённых записей.
+     */
+    public int purgeFinished() {
+        Instant before = Instant.now().minus(properties.getRetention());
+        Integer deleted = transaction.execute(status ->
+                orderIntakeRepository.deleteFinishedBefore(OrderStatus.PENDING, before));
+        return deleted == null ? 0 : deleted;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWorkers() {
+        for (int i = 0; i < properties.getWorkers(); i++) {
+            boolean purger = i == 0;
+            workers.execute(() -> work(purger));
+        }
+        if (properties.getWorkers() > 0) {
+            log.info("Запущено обработчиков очереди заказов: {}", properties.getWorkers());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        workers.shutdownNow();
+    }
+
+    private void finish(List<UUID> ids, Map<UUID, OrderRequest> requests, Map<UUID, ProductResponse> products) {
+        Instant now = Instant.now();
+        List<Order> orders = new ArrayList<>();
+        for (OrderIntake intake : orderIntakeRepository.lockAllByIdIn(ids)) {
+            // Запись могла быть уже обработана другим обработчиком после истечения срока захвата
+            if (intake.getStatus() != OrderStatus.PENDING) {
+                continue;
+            }
+            intake.setUpdatedAt(now);
+            intake.setLeaseUntil(null);
+
+            OrderRequest request = requests.get(intake.getId());
+            if (request == null) {
+                reject(intake, "Некорректный запрос");
+                continue;
+            }
+
+            Order order = Order.builder()
+                    .id(intake.getId())
+                    .deliveryAddress(request.getDeliveryAddress())
+                    .build();
+            String error = null;
+            for (OrderItemRequest itemRequest : request.getProducts()) {
+                UUID productId = UUID.fromString(itemRequest.getProductId());
+                ProductResponse productResponse = products.get(productId);
+                if (productResponse == null) {
+                    error = "Продукт с ID " + productId + " не найден в ProductService";
+                    break;
+                }
+
+                OrderItem item = new OrderItem();
+                item.setProductId(productId);
+                item.setQuantity(itemRequest.getQuantity());
+                item.setPrice(productResponse.getPrice());
+                order.addOrderItem(item);
+            }
+
+            if (error != null) {
+                reject(intake, error);
+                continue;
+            }
+            // ID заказа задан заранее, поэтому save() выполнил бы лишний SELECT перед вставкой
+            entityManager.persist(order);
+            orders.add(order);
+            intake.setStatus(OrderStatus.CONFIRMED);
+        }
+
+        entityManager.flush();
+        if (!orders.isEmpty()) {
+            salesStatsService.recordCreated(orders);
+        }
+    }
+
+    private void finishOneByOne(List<OrderIntake> claimed,
+                                Map<UUID, OrderRequest> requests,
+                                Map<UUID, ProductResponse> products) {
+        List<OrderIntake> failed = new ArrayList<>();
+        for (OrderIntake intake : claimed) {
+            try {
+                transaction.executeWithoutResult(status -> finish(List.of(intake.getId()), requests, products));
+            } catch (DataAccessException | PersistenceException e) {
+                log.error("Не удалось сохранить заказ {} из очереди (попытка {}): {}",
+                        intake.getId(), intake.getAttempts(), e.getMessage());
+                entityManager.clear();
+                failed.add(intake);
+            }
+        }
+        // Остальные ошибочные записи повторяются после истечения срока захвата
+        rejectExhausted(failed, "Ошибка сохранения заказа");
+    }
+
+    private void rejectExhausted(List<OrderIntake> claimed, String error) {
+        List<UUID> exhausted = claimed.stream()
+                .filter(intake -> intake.getAttempts() >= properties.getMaxAttempts())
+                .map(OrderIntake::getId)
+                .toList();
+        if (exhausted.isEmpty()) {
+            return;
+        }
+        transaction.executeWithoutResult(status -> {
+            Instant now = Instant.now();
+            for (OrderIntake intake : orderIntakeRepository.lockAllByIdIn(exhausted)) {
+                if (intake.getStatus() == OrderStatus.PENDING) {
+                    intake.setUpdatedAt(now);
+                    intake.setLeaseUntil(null);
+                    reject(intake, error);
+                }
+            }
+        });
+    }
+
+    private static void reject(OrderIntake intake, String error) {
+        intake.setStatus(OrderStatus.REJECTED);
+        intake.setError(error);
+    }
+
+    private void work(boolean purger) {
+        long purgeIntervalNanos = properties.getLease().toNanos();
+        long nextPurge = System.nanoTime();
+        while (running) {
+            try {
+                if (purger && System.nanoTime() - nextPurge >= 0) {
+                    int deleted = purgeFinished();
+                    if (deleted > 0) {
+                        log.info("Удалено обработанных записей очереди заказов: {}", deleted);
+                    }
+                    nextPurge = System.nanoTime() + purgeIntervalNanos;
+                }
+                if (processPending() == 0) {
+                    wakeups.tryAcquire(properties.getPollInterval().toMillis(), TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (DataAccessException e) {
+                log.error("Ошибка обработки очереди заказов: {}", e.getMessage());
+                sleep();
+            } catch (RuntimeException e) {
+                log.error("Ошибка обработки очереди заказов", e);
+                sleep();
+            }
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(properties.getPollInterval());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
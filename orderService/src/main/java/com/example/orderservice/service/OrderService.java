@@ -0,0 +1,119 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Создание и удаление заказов вместе с агрегатами продаж ({@link SalesStatsService})
+ * в одной транзакции.
+ * <p>
+ * Изменения в `orders` отправляются в базу до обновления агрегатов: {@link SalesStatsService#rebuild()}
+ * блокирует таблицы в том же порядке, поэтому транзакции не блокируют друг друга взаимно.
+ * <p>
+ * При пакетном создании заказы делятся на части по `bulk-orders.chunk-size`, каждая часть сохраняется в своей транзакции.
+ * Вставки в `orders` и `order_items` группируются Hibernate в пакеты JDBC
+ * (`hibernate.jdbc.batch_size`, `hibernate.order_inserts`), а драйвер PostgreSQL с
+ * `reWriteBatchedInserts=true` превращает каждый пакет в один многострочный INSERT.
+ */
+@Service
+@Slf4j
+public class OrderService {
+
+    private final OrderRepository orderRepository;
+    private final SalesStatsService salesStatsService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transaction;
+    private final int chunkSize;
+
+    public OrderService(OrderRepository orderRepository,
+                        SalesStatsService salesStatsService,
+                        EntityManager entityManager,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${bulk-orders.chunk-size:500}") int chunkSize) {
+        this.orderRepository = orderRepository;
+        this.salesStatsService = salesStatsService;
+        this.entityManager = entityManager;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Сохранить заказ вместе с товарами.
+     *
+     * @param order Новый заказ.
+     * @return Сохранённый заказ.
+     */
+    public Order createOrder(Order order) {
+        return transaction.execute(status -> {
+            Order saved = orderRepository.save(order);
+            // Сначала строка в orders, затем агрегаты: в том же порядке блокирует таблицы пересчёт агрегатов
+            entityManager.flush();
+            salesStatsService.recordCreated(List.of(saved));
+            return saved;
+        });
+    }
+
+    /**
+     * Удалить заказ по ID.
+     *
+     * @param id Идентификатор заказа.
+     * @return false, если заказ не найден.
+     */
+    public boolean deleteOrder(UUID id) {
+        return Boolean.TRUE.equals(transaction.execute(status -> {
+            Optional<Order> order = orderRepository.findWithItemsById(id);
+            if (order.isEmpty()) {
+                return false;
+            }
+            orderRepository.delete(order.get());
+            entityManager.flush();
+            salesStatsService.recordDeleted(order.get());
+            return true;
+        }));
+    }
+
+    /**
+     * Сохранить заказы вместе с товарами.
+     * Ошибка базы данных откатывает только ту часть, в которой она произошла; остальные части сохраняются.
+     *
+     * @param orders Заказы для сохранения.
+     * @return Для каждого заказа (в том же порядке) — сохранён ли он.
+     */
+    public boolean[] createOrders(List<Order> orders) {
+        boolean[] saved = new boolean[orders.size()];
+        for (int from = 0; from < orders.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, orders.size());
+            List<Order> chunk = orders.subList(from, to);
+            try {
+                transaction.executeWithoutResult(status -> {
+                    orderRepository.saveAll(chunk);
+                    entityManager.flush();
+                    salesStatsService.recordCreated(chunk);
+                    // Контекст постоянства живёт до конца транзакции: без очистки тысячи сохранённых заказов
+                    // и их товаров оставались бы в нём до коммита, и каждый flush проверял бы их все
+                    entityManager.clear();
+                });
+                for (int i = from; i < to; i++) {
+                    saved[i] = true;
+                }
+            } catch (DataAccessException | PersistenceException e) {
+                // flush() общего EntityManager бросает исключения JPA без преобразования в DataAccessException
+                log.error("Не удалось сохранить заказы {}-{} из пакета: {}", from, to - 1, e.getMessage());
+                entityManager.clear();
+            }
+        }
+        return saved;
+    }
+}
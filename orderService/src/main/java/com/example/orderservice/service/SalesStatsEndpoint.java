@@ -0,0 +1,24 @@
+package com.example.orderservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator-эндпоинт `/actuator/salesstats` для пересчёта агрегатов продаж по всем заказам.
+ */
+@Component
+@Endpoint(id = "salesstats")
+@RequiredArgsConstructor
+public class SalesStatsEndpoint {
+
+    private final SalesStatsService salesStatsService;
+
+    @WriteOperation
+    public Map<String, Object> rebuild() {
+        return Map.of("dailyRows", salesStatsService.rebuild());
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderItem;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Инкрементальные агрегаты продаж: количество и выручка по товару за каждый день (`product_daily_sales`)
+ * и за всё время (`product_sales_totals`).
+ * <p>
+ * {@link #recordCreated} и {@link #recordDeleted} вызываются внутри транзакции, в которой заказ
+ * создаётся или удаляется, и прибавляют к агрегатам изменение одним пакетом upsert-запросов.
+ * Строки обновляются в одном и том же порядке ключей, чтобы параллельные транзакции не блокировали
+ * друг друга взаимно. День продажи — дата создания заказа по UTC; `created_at` записывается
+ * по UTC (`hibernate.jdbc.time_zone`), поэтому пересчёт определяет день так же.
+ * <p>
+ * {@link #rebuild()} пересчитывает агрегаты по `order_items` целиком, например после появления таблиц
+ * в базе с уже существующими заказами.
+ */
+@Service
+@Slf4j
+public class SalesStatsService {
+
+    private static final String UPSERT_DAILY_POSTGRES = """
+            INSERT INTO product_daily_sales AS t (product_id, sales_date, units, revenue)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (product_id, sales_date) DO UPDATE SET
+                units   = t.units + EXCLUDED.units,
+                revenue = t.revenue + EXCLUDED.revenue
+            """;
+
+    private static final String UPSERT_TOTAL_POSTGRES = """
+            INSERT INTO product_sales_totals AS t (product_id, units, revenue)
+            VALUES (?, ?, ?)
+            ON CONFLICT (product_id) DO UPDATE SET
+                units   = t.units + EXCLUDED.units,
+                revenue = t.revenue + EXCLUDED.revenue
+            """;
+
+    // Стандартный MERGE для остальных баз (встроенная H2 в тестах): там нет ON CONFLICT DO UPDATE
+    private static final String UPSERT_DAILY_MERGE = """
+            MERGE INTO product_daily_sales t
+            USING (SELECT CAST(? AS UUID) AS product_id, CAST(? AS DATE) AS sales_date,
+                          CAST(? AS BIGINT) AS units, CAST(? AS BIGINT) AS revenue) s
+            ON t.product_id = s.product_id AND t.sales_date = s.sales_date
+            WHEN MATCHED THEN UPDATE SET units = t.units + s.units, revenue = t.revenue + s.revenue
+            WHEN NOT MATCHED THEN INSERT (product_id, sales_date, units, revenue)
+                VALUES (s.product_id, s.sales_date, s.units, s.revenue)
+            """;
+
+    private static final String UPSERT_TOTAL_MERGE = """
+            MERGE INTO product_sales_totals t
+            USING (SELECT CAST(? AS UUID) AS product_id,
+                          CAST(? AS BIGINT) AS units, CAST(? AS BIGINT) AS revenue) s
+            ON t.product_id = s.product_id
+            WHEN MATCHED THEN UPDATE SET units = t.units + s.units, revenue = t.revenue + s.revenue
+            WHEN NOT MATCHED THEN INSERT (product_id, units, revenue)
+                VALUES (s.product_id, s.units, s.revenue)
+            """;
+
+    private static final String REBUILD_DAILY = """
+            INSERT INTO product_daily_sales (product_id, sales_date, units, revenue)
+            SELECT oi.product_id, CAST(o.created_at AS DATE), SUM(oi.quantity), SUM(CAST(oi.quantity AS BIGINT) * oi.price)
+            FROM order_items oi
+            JOIN orders o ON o.id = oi.order_id
+            GROUP BY oi.product_id, CAST(o.created_at AS DATE)
+            """;
+
+    private static final String REBUILD_TOTALS = """
+            INSERT INTO product_sales_totals (product_id, units, revenue)
+            SELECT product_id, SUM(units), SUM(revenue)
+            FROM product_daily_sales
+            GROUP BY product_id
+            """;
+
+    private static final Comparator<DayKey> DAY_KEY_ORDER =
+            Comparator.comparing(DayKey::productId).thenComparing(DayKey::salesDate);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final boolean rebuildOnStartup;
+    private final boolean postgres;
+
+    public SalesStatsService(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${sales-stats.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.postgres = "PostgreSQL".equals(jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+    }
+
+    /**
+     * Прибавить к агрегатам товары созданных заказов.
+     * Должен вызываться в транзакции, сохраняющей заказы, после того как им назначена дата создания.
+     *
+     * @param orders Созданные заказы с товарами.
+     */
+    public void recordCreated(Collection<Order> orders) {
+        apply(orders, 1);
+    }
+
+    /**
+     * Вычесть из агрегатов товары удаляемого заказа.
+     * Должен вызываться в транзакции, удаляющей заказ.
+     *
+     * @param order Удаляемый заказ с товарами.
+     */
+    public void recordDeleted(Order order) {
+        apply(List.of(order), -1);
+    }
+
+    /**
+     * Пересчитать агрегаты по всем заказам.
+     * На время пересчёта таблица `orders` блокируется от изменений, поэтому заказы,
+     * создаваемые параллельно, не теряются и не учитываются дважды.
+     *
+     * @return Количество строк дневных агрегатов после пересчёта.
+     */
+    public int rebuild() {
+        long startedAt = System.nanoTime();
+        Integer rows = transaction.execute(status -> {
+            if (postgres) {
+                // Блокирует вставку и удаление заказов (и параллельный пересчёт), но не чтение
+                jdbcTemplate.execute("LOCK TABLE orders IN SHARE ROW EXCLUSIVE MODE");
+            }
+            jdbcTemplate.update("DELETE FROM product_sales_totals");
+            jdbcTemplate.update("DELETE FROM product_daily_sales");
+            int daily = jdbcTemplate.update(REBUILD_DAILY);
+            jdbcTemplate.update(REBUILD_TOTALS);
+            return daily;
+        });
+        log.info("Агрегаты продаж пересчитаны: {} строк по дням за {} мс",
+                rows, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        return rows == null ? 0 : rows;
+    }
+
+    /**
+     * Заполнить агрегаты при старте, если они пусты, а заказы уже есть.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (!rebuildOnStartup) {
+            return;
+        }
+        boolean empty = !Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM product_sales_totals)", Boolean.class));
+        boolean hasOrders = Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM order_items)", Boolean.class));
+        if (empty && hasOrders) {
+            log.info("Агрегаты продаж пусты, выполняется первичное заполнение");
+            rebuild();
+        }
+    }
+
+    private void apply(Collection<Order> orders, int sign) {
+        Map<DayKey, long[]> daily = new TreeMap<>(DAY_KEY_ORDER);
+        Map<UUID, long[]> totals = new TreeMap<>();
+        for (Order order : orders) {
+            LocalDate salesDate = LocalDate.ofInstant(order.getCreatedAt(), ZoneOffset.UTC);
+            for (OrderItem item : order.getOrderItems()) {
+                long units = (long) sign * item.getQuantity();
+                long revenue = units * item.getPriceInKopecks();
+                add(daily.computeIfAbsent(new DayKey(item.getProductId(), salesDate), key -> new long[2]), units, revenue);
+                add(totals.computeIfAbsent(item.getProductId(), key -> new long[2]), units, revenue);
+            }
+        }
+        if (daily.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> dailyArgs = new ArrayList<>(daily.size());
+        daily.forEach((key, sums) -> dailyArgs.add(new Object[]{key.productId(), key.salesDate(), sums[0], sums[1]}));
+        List<Object[]> totalArgs = new ArrayList<>(totals.size());
+        totals.forEach((productId, sums) -> totalArgs.add(new Object[]{productId, sums[0], sums[1]}));
+
+        jdbcTemplate.batchUpdate(postgres ? UPSERT_DAILY_POSTGRES : UPSERT_DAILY_MERGE, dailyArgs);
+        jdbcTemplate.batchUpdate(postgres ? UPSERT_TOTAL_POSTGRES : UPSERT_TOTAL_MERGE, totalArgs);
+    }
+
+    private static void add(long[] sums, long units, long revenue) {
+        sums[0] += units;
+        sums[1] += revenue;
+    }
+
+    private record DayKey(UUID productId, LocalDate salesDate) {
+    }
+}
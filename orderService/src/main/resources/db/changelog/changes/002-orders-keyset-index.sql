@@ -0,0 +1,5 @@
+--liquibase formatted sql
+
+--changeset orderService:002-orders-keyset-index
+--comment: Индекс для keyset-пагинации списка заказов по (created_at, id)
+CREATE INDEX IF NOT EXISTS idx_orders_created_at_id ON orders (created_at, id);
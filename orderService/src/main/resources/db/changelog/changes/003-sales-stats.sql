@@ -0,0 +1,23 @@
+--liquibase formatted sql
+
+--changeset orderService:003-sales-stats
+--comment: Агрегаты продаж по товарам и дням, обновляемые вместе с заказами
+CREATE TABLE IF NOT EXISTS product_daily_sales (
+    product_id UUID   NOT NULL,
+    sales_date DATE   NOT NULL,
+    units      BIGINT NOT NULL,
+    revenue    BIGINT NOT NULL,
+    PRIMARY KEY (product_id, sales_date)
+);
+
+-- Самые продаваемые товары за период: перебираются только строки дней из периода
+CREATE INDEX IF NOT EXISTS idx_product_daily_sales_date ON product_daily_sales (sales_date);
+
+CREATE TABLE IF NOT EXISTS product_sales_totals (
+    product_id UUID   PRIMARY KEY,
+    units      BIGINT NOT NULL,
+    revenue    BIGINT NOT NULL
+);
+
+-- Самые продаваемые товары за всё время читаются по индексу без сортировки
+CREATE INDEX IF NOT EXISTS idx_product_sales_totals_revenue ON product_sales_totals (revenue DESC, product_id);
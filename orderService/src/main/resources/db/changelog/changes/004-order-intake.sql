@@ -0,0 +1,20 @@
+--liquibase formatted sql
+
+--changeset orderService:004-order-intake
+--comment: Очередь асинхронно принятых заказов
+CREATE TABLE IF NOT EXISTS order_intake (
+    id          UUID         PRIMARY KEY,
+    request     TEXT         NOT NULL,
+    status      VARCHAR(16)  NOT NULL,
+    error       VARCHAR(1000),
+    attempts    INTEGER      NOT NULL DEFAULT 0,
+    lease_until TIMESTAMP,
+    created_at  TIMESTAMP    NOT NULL,
+    updated_at  TIMESTAMP    NOT NULL
+);
+
+-- Обработчики выбирают самые старые ожидающие заказы; обработанные записи в индекс не попадают
+CREATE INDEX IF NOT EXISTS idx_order_intake_pending ON order_intake (created_at) WHERE status = 'PENDING';
+
+-- Удаление обработанных записей по сроку хранения
+CREATE INDEX IF NOT EXISTS idx_order_intake_finished ON order_intake (updated_at) WHERE status <> 'PENDING';
@@ -0,0 +1,138 @@
+package com.example.orderservice.client;
+
+import com.example.orderservice.config.ProductServiceProperties;
+import com.example.orderservice.dto.ProductResponse;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Проверяет повторные запросы и автомат отключения клиента на заглушке `ProductService`.
+ */
+class ProductServiceClientTest {
+
+    private static final UUID PRODUCT_ID = UUID.randomUUID();
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ProductServiceProperties properties = new ProductServiceProperties();
+    private HttpServer stub;
+    // Номер запроса (с 1) → задержка ответа в мс; отрицательное значение — ответ 500
+    private volatile IntUnaryOperator behaviour = request -> 0;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        stub.createContext("/api/products/batch", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            int delay = behaviour.applyAsInt(requests.incrementAndGet());
+            byte[] body = delay < 0
+                    ? new byte[0]
+                    : ("[{\"id\":\"" + PRODUCT_ID + "\",\"name\":\"Товар\",\"price\":100.0}]").getBytes(StandardCharsets.UTF_8);
+            try {
+                Thread.sleep(Math.max(0, delay));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(delay < 0 ? 500 : 200, body.length == 0 ? -1 : body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stub.start();
+
+        properties.getHedge().setMinDelay(Duration.ofMillis(20));
+        properties.getHedge().setMaxDelay(Duration.ofMillis(100));
+        properties.getCircuitBreaker().setWindow(10);
+        properties.getCircuitBreaker().setMinCalls(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.stop(0);
+    }
+
+    @Test
+    void hedgeAnswersWhenPrimaryIsSlow() {
+        behaviour = request -> request == 1 ? 2000 : 0;
+        ProductServiceClient client = client();
+
+        long start = System.nanoTime();
+        Map<UUID, ProductResponse> products = client.getProducts(List.of(PRODUCT_ID));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(products).containsKey(PRODUCT_ID);
+        assertThat(elapsedMs).isLessThan(1000);
+        assertThat(requests.get()).isEqualTo(2);
+        assertThat(meterRegistry.counter("productservice.client.hedges.won").count()).isEqualTo(1);
+    }
+
+    @Test
+    void circuitOpensAfterFailuresAndFailsFast() {
+        behaviour = request -> -1;
+        properties.getHedge().setEnabled(false);
+        properties.getCircuitBreaker().setOpenDuration(Duration.ofMinutes(1));
+        ProductServiceClient client = client();
+
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> client.getProducts(List.of(PRODUCT_ID)))
+                    .isInstanceOf(HttpServerErrorException.class);
+        }
+        assertThatThrownBy(() -> client.getProducts(List.of(PRODUCT_ID)))
+                .isInstanceOf(ResourceAccessException.class);
+
+        assertThat(requests.get()).isEqualTo(4);
+        assertThat(meterRegistry.counter("productservice.client.circuit.rejected").count()).isEqualTo(1);
+    }
+
+    @Test
+    void circuitClosesAfterSuccessfulProbes() throws InterruptedException {
+        behaviour = request -> -1;
+        properties.getHedge().setEnabled(false);
+        properties.getCircuitBreaker().setOpenDuration(Duration.ofMillis(200));
+        properties.getCircuitBreaker().setHalfOpenCalls(2);
+        ProductServiceClient client = client();
+
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> client.getProducts(List.of(PRODUCT_ID)))
+                    .isInstanceOf(HttpServerErrorException.class);
+        }
+        behaviour = request -> 0;
+        Thread.sleep(250);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(client.getProducts(List.of(PRODUCT_ID))).containsKey(PRODUCT_ID);
+        }
+        assertThat(meterRegistry.get("productservice.client.circuit.state").gauge().value())
+                .isEqualTo(CircuitBreaker.State.CLOSED.ordinal());
+    }
+
+    private ProductServiceClient client() {
+        RestClient restClient = RestClient.builder()
+                .baseUrl("http://localhost:" + stub.getAddress().getPort())
+                .build();
+        return new ProductServiceClient(restClient, properties, meterRegistry);
+    }
+}
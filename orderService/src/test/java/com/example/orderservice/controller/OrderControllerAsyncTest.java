@@ -0,0 +1,179 @@
+package com.example.orderservice.controller;
+
+import com.example.orderservice.model.OrderIntake;
+import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.repository.OrderIntakeRepository;
+import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.service.OrderIntakeService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет асинхронный приём заказов: ответ 202 без обращения к ProductService,
+ * статус PENDING до обработки очереди и CONFIRMED/REJECTED после неё.
+ */
+class OrderControllerAsyncTest extends OrderControllerIntegrationTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderIntakeRepository orderIntakeRepository;
+
+    @Autowired
+    private OrderIntakeService orderIntakeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${order-intake.max-attempts}")
+    private int maxAttempts;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        orderIntakeRepository.deleteAll();
+    }
+
+    @Test
+    void acceptsOrderWithoutCallingProductService() throws Exception {
+        String id = submit(PRODUCT_ID);
+
+        mockMvc.perform(get("/api/orders/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("PENDING"));
+        verifyNoInteractions(productCache);
+    }
+
+    @Test
+    void confirmsOrderWithSameId() throws Exception {
+        String id = submit(PRODUCT_ID);
+
+        assertThat(orderIntakeService.processPending()).isEqualTo(1);
+
+        mockMvc.perform(get("/api/orders/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id))
+                .andExpect(jsonPath("$.status").value("CONFIRMED"))
+                .andExpect(jsonPath("$.orderItems[0].price").value(150.0));
+        assertThat(orderIntakeService.processPending()).isZero();
+    }
+
+    @Test
+    void rejectsOrderWithUnknownProduct() throws Exception {
+        UUID unknown = UUID.randomUUID();
+        String id = submit(unknown);
+
+        orderIntakeService.processPending();
+
+        mockMvc.perform(get("/api/orders/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("REJECTED"))
+                .andExpect(jsonPath("$.error").value("Продукт с ID " + unknown + " не найден в ProductService"));
+        assertThat(orderRepository.count()).isZero();
+    }
+
+    @Test
+    void keepsOrderPendingWhileProductServiceIsUnavailable() throws Exception {
+        when(productCache.getProducts(anyCollection())).thenThrow(new ResourceAccessException("timeout"));
+        String id = submit(PRODUCT_ID);
+
+        orderIntakeService.processPending();
+
+        mockMvc.perform(get("/api/orders/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("PENDING"));
+        // Запись захвачена до истечения срока и повторно не выбирается
+        assertThat(orderIntakeService.processPending()).isZero();
+    }
+
+    @Test
+    void isolatesOrderFailingInDatabaseAndRejectsItAfterMaxAttempts() throws Exception {
+        jdbcTemplate.execute("ALTER TABLE orders ADD CONSTRAINT test_rejected_address "
+                + "CHECK (delivery_address <> 'Адрес, отвергнутый базой')");
+        try {
+            String first = submit(PRODUCT_ID);
+            String bad = submit(PRODUCT_ID, "Адрес, отвергнутый базой");
+            String last = submit(PRODUCT_ID);
+
+            assertThat(orderIntakeService.processPending()).isEqualTo(3);
+
+            // Ошибка одной записи откатывает пачку, но остальные заказы сохраняются по одному
+            assertThat(intake(first).getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+            assertThat(intake(last).getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+            assertThat(intake(bad).getStatus()).isEqualTo(OrderStatus.PENDING);
+
+            // Последняя попытка после истечения срока захвата
+            OrderIntake failing = intake(bad);
+            failing.setAttempts(maxAttempts - 1);
+            failing.setLeaseUntil(null);
+            orderIntakeRepository.save(failing);
+
+            assertThat(orderIntakeService.processPending()).isEqualTo(1);
+
+            mockMvc.perform(get("/api/orders/{id}", bad))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.status").value("REJECTED"))
+                    .andExpect(jsonPath("$.error").value("Ошибка сохранения заказа"));
+            assertThat(orderRepository.count()).isEqualTo(2);
+            assertThat(orderIntakeService.processPending()).isZero();
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE orders DROP CONSTRAINT test_rejected_address");
+        }
+    }
+
+    @Test
+    void rejectsOrderWhoseAttemptsAreExhaustedWhenClaimed() throws Exception {
+        String id = submit(PRODUCT_ID);
+        // Обработчик израсходовал последнюю попытку и прервался, не отклонив заказ
+        OrderIntake interrupted = intake(id);
+        interrupted.setAttempts(maxAttempts);
+        orderIntakeRepository.save(interrupted);
+
+        assertThat(orderIntakeService.processPending()).isEqualTo(1);
+
+        mockMvc.perform(get("/api/orders/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("REJECTED"))
+                .andExpect(jsonPath("$.error").value("Превышено количество попыток обработки"));
+        verifyNoInteractions(productCache);
+    }
+
+    private OrderIntake intake(String id) {
+        return orderIntakeRepository.findById(UUID.fromString(id)).orElseThrow();
+    }
+
+    private String submit(UUID productId) throws Exception {
+        return submit(productId, "Москва, ул. Ленина, д. 1");
+    }
+
+    private String submit(UUID productId, String deliveryAddress) throws Exception {
+        String body = "{\"deliveryAddress\":\"" + deliveryAddress + "\","
+                + "\"products\":[{\"productId\":\"" + productId + "\",\"quantity\":2}]}";
+        String response = mockMvc.perform(post("/api/orders").param("async", "true")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andExpect(jsonPath("$.status").value("PENDING"))
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(response, "$.id");
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.orderservice.controller;
+
+import com.example.orderservice.repository.OrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет пакетное создание заказов: результат по каждому заказу,
+ * один запрос цен на весь пакет и пакетные вставки в базу.
+ */
+class OrderControllerBulkTest extends OrderControllerIntegrationTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${bulk-orders.chunk-size}")
+    private int chunkSize;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void reportsResultForEachOrder() throws Exception {
+        String body = "["
+                + order("Москва, ул. Ленина, д. 1", PRODUCT_ID, OTHER_PRODUCT_ID) + ","
+                + order("Нет", PRODUCT_ID) + ","
+                + order("Москва, ул. Ленина, д. 3", UUID.randomUUID()) + ","
+                + order("Москва, ул. Ленина, д. 4", OTHER_PRODUCT_ID)
+                + "]";
+
+        mockMvc.perform(post("/api/orders/bulk").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[0].orderId").isNotEmpty())
+                .andExpect(jsonPath("$.results[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$.results[1].error").isNotEmpty())
+                .andExpect(jsonPath("$.results[2].status").value("REJECTED"))
+                .andExpect(jsonPath("$.results[3].index").value(3))
+                .andExpect(jsonPath("$.results[3].status").value("CREATED"));
+
+        assertThat(orderRepository.count()).isEqualTo(2);
+        verify(productCache, times(1)).getProducts(anyCollection());
+    }
+
+    @Test
+    void insertsOrdersAndItemsInBatches() throws Exception {
+        StringJoiner body = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < 20; i++) {
+            body.add(order("Москва, ул. Ленина, д. " + i, PRODUCT_ID, OTHER_PRODUCT_ID, PRODUCT_ID));
+        }
+
+        mockMvc.perform(post("/api/orders/bulk").contentType(MediaType.APPLICATION_JSON).content(body.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(20));
+
+        // Один пакет вставок в orders и один в order_items
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        verify(productCache).getProducts(Set.of(PRODUCT_ID, OTHER_PRODUCT_ID));
+    }
+
+    @Test
+    void databaseErrorFailsOnlyItsOwnChunk() throws Exception {
+        // Ограничение, которое проходит проверку в контроллере, но нарушается при вставке
+        jdbcTemplate.execute("ALTER TABLE orders ADD CONSTRAINT test_rejected_address "
+                + "CHECK (delivery_address <> 'Адрес, отвергнутый базой')");
+        try {
+            int orders = chunkSize * 2 + chunkSize / 2;
+            int bad = chunkSize + 1;
+            StringJoiner body = new StringJoiner(",", "[", "]");
+            for (int i = 0; i < orders; i++) {
+                body.add(order(i == bad ? "Адрес, отвергнутый базой" : "Москва, ул. Ленина, д. " + i, PRODUCT_ID));
+            }
+
+            mockMvc.perform(post("/api/orders/bulk").contentType(MediaType.APPLICATION_JSON).content(body.toString()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.created").value(orders - chunkSize))
+                    .andExpect(jsonPath("$.failed").value(chunkSize))
+                    .andExpect(jsonPath("$.results[" + (chunkSize - 1) + "].status").value("CREATED"))
+                    .andExpect(jsonPath("$.results[" + chunkSize + "].status").value("FAILED"))
+                    .andExpect(jsonPath("$.results[" + (chunkSize * 2 - 1) + "].status").value("FAILED"))
+                    .andExpect(jsonPath("$.results[" + (chunkSize * 2) + "].status").value("CREATED"));
+
+            assertThat(orderRepository.count()).isEqualTo(orders - chunkSize);
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE orders DROP CONSTRAINT test_rejected_address");
+        }
+    }
+
+    @Test
+    void rejectsEmptyBatch() throws Exception {
+        mockMvc.perform(post("/api/orders/bulk").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static String order(String address, UUID... productIds) {
+        StringJoiner items = new StringJoiner(",", "[", "]");
+        for (UUID productId : productIds) {
+            items.add("{\"productId\":\"" + productId + "\",\"quantity\":2}");
+        }
+        return "{\"deliveryAddress\":\"" + address + "\",\"products\":" + items + "}";
+    }
+}
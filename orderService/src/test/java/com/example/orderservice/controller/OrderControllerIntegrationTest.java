@@ -0,0 +1,70 @@
+package com.example.orderservice.controller;
+
+import com.example.orderservice.cache.ProductCache;
+import com.example.orderservice.dto.ProductResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Основа интеграционных тестов API заказов на профиле `test` (H2).
+ * <p>
+ * {@link ProductCache} заменён заглушкой, которая знает два товара: {@link #PRODUCT_ID} по цене 150
+ * и {@link #OTHER_PRODUCT_ID} по цене 20. Наследники не объявляют своих `@MockitoBean` и свойств
+ * контекста, поэтому все они используют один закэшированный контекст Spring.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+abstract class OrderControllerIntegrationTest {
+
+    protected static final UUID PRODUCT_ID = UUID.randomUUID();
+    protected static final UUID OTHER_PRODUCT_ID = UUID.randomUUID();
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @MockitoBean
+    protected ProductCache productCache;
+
+    @BeforeEach
+    void stubProducts() {
+        when(productCache.getProducts(anyCollection())).thenReturn(Map.of(
+                PRODUCT_ID, product(PRODUCT_ID, 150f),
+                OTHER_PRODUCT_ID, product(OTHER_PRODUCT_ID, 20f)));
+    }
+
+    /**
+     * Создать заказ на две единицы {@link #PRODUCT_ID}.
+     */
+    protected MvcResult createOrder() throws Exception {
+        String body = "{\"deliveryAddress\":\"Москва, ул. Ленина, д. 1\","
+                + "\"products\":[{\"productId\":\"" + PRODUCT_ID + "\",\"quantity\":2}]}";
+        return mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andReturn();
+    }
+
+    protected static ProductResponse product(UUID id, float price) {
+        ProductResponse product = new ProductResponse();
+        product.setId(id);
+        product.setPrice(price);
+        return product;
+    }
+}
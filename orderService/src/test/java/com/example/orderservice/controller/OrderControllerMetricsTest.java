@@ -0,0 +1,83 @@
+package com.example.orderservice.controller;
+
+import com.example.orderservice.metrics.OrderMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет метрики создания заказа, методов репозиториев и их публикацию в `/actuator/prometheus`.
+ */
+class OrderControllerMetricsTest extends OrderControllerIntegrationTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void createOrderRecordsEveryPhase() throws Exception {
+        Map<OrderMetrics.Phase, Long> before = phaseCounts();
+        double saves = repositoryInvocations("save");
+
+        createOrder();
+
+        phaseCounts().forEach((phase, count) -> assertThat(count).as(phase.getTag()).isEqualTo(before.get(phase) + 1));
+        assertThat(repositoryInvocations("save")).isEqualTo(saves + 1);
+    }
+
+    @Test
+    void invalidOrderStopsAfterValidation() throws Exception {
+        Map<OrderMetrics.Phase, Long> before = phaseCounts();
+
+        mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"deliveryAddress\":\"М\",\"products\":[]}"))
+                .andExpect(status().isBadRequest());
+
+        Map<OrderMetrics.Phase, Long> after = phaseCounts();
+        assertThat(after.get(OrderMetrics.Phase.VALIDATION)).isEqualTo(before.get(OrderMetrics.Phase.VALIDATION) + 1);
+        assertThat(after.get(OrderMetrics.Phase.SAVE)).isEqualTo(before.get(OrderMetrics.Phase.SAVE));
+    }
+
+    @Test
+    void prometheusEndpointExposesServiceMetrics() throws Exception {
+        createOrder();
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(allOf(
+                        containsString("orders_create_phase_seconds_bucket"),
+                        containsString("spring_data_repository_invocations_seconds_bucket"),
+                        containsString("http_server_requests_seconds_bucket{"),
+                        containsString("le=\"0.025\""),
+                        containsString("hikaricp_connections_active"),
+                        containsString("hibernate_query_executions_total"))));
+    }
+
+    private Map<OrderMetrics.Phase, Long> phaseCounts() {
+        Map<OrderMetrics.Phase, Long> counts = new EnumMap<>(OrderMetrics.Phase.class);
+        for (OrderMetrics.Phase phase : OrderMetrics.Phase.values()) {
+            counts.put(phase, meterRegistry.get("orders.create.phase").tag("phase", phase.getTag()).timer().count());
+        }
+        return counts;
+    }
+
+    private double repositoryInvocations(String method) {
+        Timer timer = meterRegistry.find("spring.data.repository.invocations")
+                .tag("repository", "OrderRepository")
+                .tag("method", method)
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
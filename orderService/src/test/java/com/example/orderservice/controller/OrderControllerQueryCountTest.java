@@ -0,0 +1,116 @@
+package com.example.orderservice.controller;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderItem;
+import com.example.orderservice.repository.OrderRepository;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет, что чтение заказов выполняется фиксированным количеством SQL-запросов,
+ * независимо от количества заказов и товаров (нет проблемы N+1).
+ */
+class OrderControllerQueryCountTest extends OrderControllerIntegrationTest {
+
+    private static final int ORDERS = 5;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Order> orders = new ArrayList<>();
+    private UUID sharedProductId;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        orders.clear();
+        sharedProductId = UUID.randomUUID();
+
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = Order.builder().deliveryAddress("Москва, ул. Ленина, д. " + i).build();
+            for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+                // Общий товар встречается дважды в первом заказе и один раз во втором
+                boolean shared = (i == 0 && j < 2) || (i == 1 && j == 0);
+                order.addOrderItem(item(shared ? sharedProductId : UUID.randomUUID()));
+            }
+            orders.add(orderRepository.save(order));
+        }
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getOrdersLoadsPageAndItemsInTwoQueries() throws Exception {
+        mockMvc.perform(get("/api/orders").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(ORDERS))
+                .andExpect(jsonPath("$.items[0].orderItems.length()").value(ITEMS_PER_ORDER))
+                .andExpect(jsonPath("$.items[4].orderItems.length()").value(ITEMS_PER_ORDER));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void nextPageByCursorAlsoTakesTwoQueries() throws Exception {
+        String body = mockMvc.perform(get("/api/orders").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.next").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        String next = JsonPath.read(body, "$.next");
+        statistics.clear();
+
+        mockMvc.perform(get("/api/orders").param("limit", "2").param("cursor", next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void getOrderLoadsItemsInSingleQuery() throws Exception {
+        mockMvc.perform(get("/api/orders/{id}", orders.get(2).getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderItems.length()").value(ITEMS_PER_ORDER));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void searchByProductIdReturnsDistinctOrdersInSingleQuery() throws Exception {
+        mockMvc.perform(get("/api/orders/search").param("productId", sharedProductId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].orderItems.length()").value(ITEMS_PER_ORDER))
+                .andExpect(jsonPath("$[1].orderItems.length()").value(ITEMS_PER_ORDER));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private static OrderItem item(UUID productId) {
+        OrderItem item = new OrderItem();
+        item.setProductId(productId);
+        item.setQuantity(1);
+        item.setPrice(100f);
+        return item;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.orderservice.controller;
+
+import com.example.common.replica.ReplicaRouting;
+import com.example.orderservice.repository.OrderRepository;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет маршрутизацию между основной базой и репликой на двух отдельных базах H2.
+ * Репликация не настроена: реплика получает только схему, поэтому по ответу видно,
+ * из какой базы прочитаны данные.
+ * <p>
+ * Две базы нужны только этому тесту, поэтому он, в отличие от остальных наследников
+ * {@link OrderControllerIntegrationTest}, работает в отдельном контексте.
+ */
+@SpringBootTest(properties = {
+        "replica.enabled=true",
+        "replica.url=jdbc:h2:mem:order_service_replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "replica.username=sa",
+        "replica.password=",
+        "replica.driver-class-name=org.h2.Driver",
+        "replica.hikari.read-only=false"
+})
+class OrderControllerReplicaTest extends OrderControllerIntegrationTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        orderRepository.deleteAll();
+        copySchemaToReplica();
+    }
+
+    @Test
+    void writesGoToPrimaryAndReadsToReplica() throws Exception {
+        String id = JsonPath.read(createOrder().getResponse().getContentAsString(), "$.id");
+
+        assertThat(ReplicaRouting.onPrimary(() -> orderRepository.existsById(UUID.fromString(id)))).isTrue();
+        mockMvc.perform(get("/api/orders/{id}", id))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void readsOwnWritesFromPrimary() throws Exception {
+        MvcResult created = createOrder();
+        String id = JsonPath.read(created.getResponse().getContentAsString(), "$.id");
+        Cookie lastWrite = created.getResponse().getCookie("last-write");
+        assertThat(lastWrite).isNotNull();
+
+        mockMvc.perform(get("/api/orders/{id}", id).cookie(lastWrite))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id));
+    }
+
+    @Test
+    void requestWithoutCommittedWriteDoesNotPinToPrimary() throws Exception {
+        mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"deliveryAddress\":\"М\",\"products\":[]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(cookie().doesNotExist("last-write"));
+        mockMvc.perform(get("/api/orders"))
+                .andExpect(status().isOk())
+                .andExpect(cookie().doesNotExist("last-write"));
+    }
+
+    @Test
+    void readsRowsPresentOnlyOnReplica() throws Exception {
+        UUID id = UUID.randomUUID();
+        try (Connection connection = replicaDataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO orders (id, delivery_address, created_at) VALUES (?, ?, ?)")) {
+            insert.setObject(1, id);
+            insert.setString(2, "Москва, ул. Ленина, д. 1");
+            insert.setTimestamp(3, Timestamp.from(Instant.now()));
+            insert.executeUpdate();
+        }
+
+        mockMvc.perform(get("/api/orders"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(id.toString()));
+        assertThat(ReplicaRouting.onPrimary(() -> orderRepository.existsById(id))).isFalse();
+    }
+
+    /**
+     * Пересоздаёт в реплике схему основной базы без данных.
+     */
+    private void copySchemaToReplica() throws SQLException {
+        try (Connection primary = primaryDataSource.getConnection();
+             Connection replica = replicaDataSource.getConnection();
+             Statement read = primary.createStatement();
+             Statement write = replica.createStatement()) {
+            write.execute("DROP ALL OBJECTS");
+            try (ResultSet script = read.executeQuery("SCRIPT NODATA")) {
+                while (script.next()) {
+                    write.execute(script.getString(1));
+                }
+            }
+        }
+    }
+}
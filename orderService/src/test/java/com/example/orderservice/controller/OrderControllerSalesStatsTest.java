@@ -0,0 +1,150 @@
+package com.example.orderservice.controller;
+
+import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.repository.ProductDailySalesRepository;
+import com.example.orderservice.repository.ProductSalesTotalRepository;
+import com.example.orderservice.service.SalesStatsService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет, что агрегаты продаж обновляются при создании и удалении заказов
+ * и совпадают с результатом полного пересчёта.
+ */
+class OrderControllerSalesStatsTest extends OrderControllerIntegrationTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductDailySalesRepository productDailySalesRepository;
+
+    @Autowired
+    private ProductSalesTotalRepository productSalesTotalRepository;
+
+    @Autowired
+    private SalesStatsService salesStatsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        productDailySalesRepository.deleteAll();
+        productSalesTotalRepository.deleteAll();
+    }
+
+    @Test
+    void createdOrdersAreAddedToStats() throws Exception {
+        createOrder(PRODUCT_ID, 2, OTHER_PRODUCT_ID, 1);
+        mockMvc.perform(post("/api/orders/bulk").contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + order(PRODUCT_ID, 3) + "," + order(OTHER_PRODUCT_ID, 4) + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2));
+
+        mockMvc.perform(get("/api/orders/stats/products/{id}", PRODUCT_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.units").value(5))
+                .andExpect(jsonPath("$.revenue").value(750.0))
+                .andExpect(jsonPath("$.days").doesNotExist());
+
+        String today = LocalDate.now(ZoneOffset.UTC).toString();
+        mockMvc.perform(get("/api/orders/stats/products/{id}", OTHER_PRODUCT_ID).param("from", today).param("to", today))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.units").value(5))
+                .andExpect(jsonPath("$.days.length()").value(1))
+                .andExpect(jsonPath("$.days[0].date").value(today))
+                .andExpect(jsonPath("$.days[0].revenue").value(100.0));
+
+        mockMvc.perform(get("/api/orders/stats/top").param("from", today))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].productId").value(PRODUCT_ID.toString()))
+                .andExpect(jsonPath("$[1].productId").value(OTHER_PRODUCT_ID.toString()));
+    }
+
+    @Test
+    void deletedOrderIsSubtractedFromStats() throws Exception {
+        createOrder(PRODUCT_ID, 2, OTHER_PRODUCT_ID, 1);
+        String orderId = createOrder(PRODUCT_ID, 1, OTHER_PRODUCT_ID, 10);
+
+        mockMvc.perform(delete("/api/orders/{id}", orderId))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/orders/stats/top").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].productId").value(PRODUCT_ID.toString()))
+                .andExpect(jsonPath("$[0].units").value(2))
+                .andExpect(jsonPath("$[0].revenue").value(300.0));
+    }
+
+    @Test
+    void rebuildMatchesIncrementalStats() throws Exception {
+        createOrder(PRODUCT_ID, 2, OTHER_PRODUCT_ID, 1);
+        createOrder(PRODUCT_ID, 7, PRODUCT_ID, 1);
+        var daily = productDailySalesRepository.findAll();
+        var totals = productSalesTotalRepository.findAll();
+
+        salesStatsService.rebuild();
+
+        assertThat(productDailySalesRepository.findAll()).containsExactlyInAnyOrderElementsOf(daily);
+        assertThat(productSalesTotalRepository.findAll()).containsExactlyInAnyOrderElementsOf(totals);
+    }
+
+    @Test
+    void rebuildUsesUtcDayWhateverJvmTimeZone() throws Exception {
+        String orderId = createOrder(PRODUCT_ID, 2, OTHER_PRODUCT_ID, 1);
+        Instant createdAt = orderRepository.findById(UUID.fromString(orderId)).orElseThrow().getCreatedAt();
+
+        // Тесты запускаются в зоне Pacific/Kiritimati (UTC+14): день там отличается от UTC большую часть суток
+        LocalDateTime stored = jdbcTemplate.queryForObject(
+                "SELECT created_at FROM orders WHERE id = ?", LocalDateTime.class, UUID.fromString(orderId));
+        assertThat(stored).isEqualTo(LocalDateTime.ofInstant(createdAt, ZoneOffset.UTC));
+
+        var daily = productDailySalesRepository.findAll();
+        salesStatsService.rebuild();
+        assertThat(productDailySalesRepository.findAll()).containsExactlyInAnyOrderElementsOf(daily);
+    }
+
+    @Test
+    void rejectsReversedPeriod() throws Exception {
+        mockMvc.perform(get("/api/orders/stats/top").param("from", "2024-05-02").param("to", "2024-05-01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String createOrder(UUID productId, int quantity, UUID otherProductId, int otherQuantity) throws Exception {
+        String body = mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content(order(productId, quantity, otherProductId, otherQuantity)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(body, "$.id");
+    }
+
+    private static String order(Object... items) {
+        StringJoiner products = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < items.length; i += 2) {
+            products.add("{\"productId\":\"" + items[i] + "\",\"quantity\":" + items[i + 1] + "}");
+        }
+        return "{\"deliveryAddress\":\"Москва, ул. Ленина, д. 1\",\"products\":" + products + "}";
+    }
+}
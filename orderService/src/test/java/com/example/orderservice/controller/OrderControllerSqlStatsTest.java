@@ -0,0 +1,57 @@
+package com.example.orderservice.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет профилировщик SQL: запросы через пул соединений попадают в `/actuator/sqlstats`
+ * под нормализованными сигнатурами вместе с количеством строк.
+ */
+class OrderControllerSqlStatsTest extends OrderControllerIntegrationTest {
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mockMvc.perform(delete("/actuator/sqlstats"))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void statementsAreGroupedBySignature() throws Exception {
+        createOrder();
+        createOrder();
+
+        mockMvc.perform(get("/actuator/sqlstats").param("sort", "count"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.slowThresholdMs").isNumber())
+                .andExpect(jsonPath("$.statements[?(@.signature =~ /insert into orders .*/)].count").value(hasItem(2)))
+                .andExpect(jsonPath("$.statements[?(@.signature =~ /insert into orders .*/)].rows").value(hasItem(2)));
+    }
+
+    @Test
+    void selectRowsAreCountedFromResultSet() throws Exception {
+        createOrder();
+        mockMvc.perform(get("/api/orders"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/sqlstats").param("sort", "rows"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.statements[?(@.signature =~ /select .* from orders .*/)].rows")
+                        .value(hasItem(greaterThanOrEqualTo(1))));
+        mockMvc.perform(get("/actuator/sqlstats").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.statements.length()").value(1));
+    }
+
+    @Test
+    void unknownSortIsRejected() throws Exception {
+        mockMvc.perform(get("/actuator/sqlstats").param("sort", "name"))
+                .andExpect(status().isBadRequest());
+    }
+}
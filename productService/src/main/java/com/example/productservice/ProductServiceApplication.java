@@ -1,11 +1,18 @@
 package com.example.productservice;
 
+import com.example.common.CommonConfiguration;
 import org.springframework.boot.SpringApplication;
+import com.example.productservice.config.ProductCacheProperties;
+import com.example.productservice.config.ProductChangesProperties;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
 @SpringBootApplication
 @EnableJpaAuditing
+@Import(CommonConfiguration.class)
+@EnableConfigurationProperties({ProductCacheProperties.class, ProductChangesProperties.class})
 public class ProductServiceApplication {
 
     public static void main(String[] args) {
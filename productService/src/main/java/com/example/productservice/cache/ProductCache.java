@@ -0,0 +1,231 @@
+package com.example.productservice.cache;
+
+import com.example.common.replica.ReplicaProperties;
+import com.example.common.replica.ReplicaRouting;
+import com.example.productservice.config.ProductCacheProperties;
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Локальный кэш продуктов перед `ProductRepository`: продукты по ID и результаты поиска по имени.
+ * <p>
+ * После изменения продукта на этом узле запись сбрасывается (после коммита, если изменение
+ * выполняется в транзакции), поэтому последующее чтение не вернёт устаревшие данные.
+ * Загрузка, начатая до изменения, тоже не оставит старое значение в кэше:
+ * незавершённая загрузка удаляется из кэша вместе с записью.
+ * <p>
+ * Любое изменение может затронуть результаты любого поиска, поэтому при изменении сбрасываются все
+ * результаты поиска, а ключ поиска содержит номер поколения — результат поиска, начатого
+ * до изменения, сохранится под старым ключом и больше не будет прочитан.
+ * <p>
+ * Если чтение идёт с реплики, в течение `replica.read-your-writes-window` после сброса продукты
+ * загружаются из основной базы, чтобы отставшая реплика не вернула в кэш старое значение.
+ * <p>
+ * Кэшированные продукты общие для всех запросов и не должны изменяться вызывающим кодом.
+ */
+@Component
+public class ProductCache {
+
+    private final ProductRepository productRepository;
+    private final AsyncCache<String, Optional<Product>> products;
+    private final Cache<SearchKey, List<Product>> searches;
+    private final AtomicLong generation = new AtomicLong();
+    private final long primaryReadsNanos;
+    private volatile long lastInvalidation;
+
+    public ProductCache(ProductRepository productRepository,
+                        ProductCacheProperties properties,
+                        ReplicaProperties replicaProperties,
+                        MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.primaryReadsNanos = replicaProperties.isEnabled()
+                ? replicaProperties.getReadYourWritesWindow().toNanos()
+                : 0;
+        this.lastInvalidation = System.nanoTime() - primaryReadsNanos;
+
+        // Асинхронный кэш нужен ради пакетной загрузки: отсутствующие ключи сначала регистрируются
+        // в кэше, и сброс записи во время загрузки отменяет её результат. Сама загрузка
+        // выполняется в вызывающем потоке.
+        this.products = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .executor(Runnable::run)
+                .recordStats()
+                .buildAsync();
+
+        this.searches = Caffeine.newBuilder()
+                .maximumSize(properties.getSearchMaxSize())
+                .expireAfterWrite(properties.getSearchTtl())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "products");
+        CaffeineCacheMetrics.monitor(meterRegistry, searches, "productSearches");
+    }
+
+    /**
+     * Получить продукт по ID.
+     *
+     * @param productId Идентификатор продукта (UUID).
+     * @return Продукт или пустой Optional, если продукт не найден.
+     */
+    public Optional<Product> findById(String productId) {
+        return products.synchronous().get(normalize(productId), key -> load(() -> productRepository.findById(key)));
+    }
+
+    /**
+     * Получить продукты по списку ID.
+     * Отсутствующие в кэше продукты загружаются из базы одним запросом.
+     *
+     * @param productIds Идентификаторы продуктов (UUID).
+     * @return Найденные продукты в порядке запрошенных ID. Несуществующие продукты в результат не попадают.
+     */
+    public List<Product> findAllById(Collection<String> productIds) {
+        Set<String> keys = new LinkedHashSet<>();
+        productIds.forEach(productId -> keys.add(normalize(productId)));
+
+        Map<String, Optional<Product>> found = products.synchronous().getAll(keys, this::loadAll);
+
+        List<Product> result = new ArrayList<>(found.size());
+        for (String key : keys) {
+            found.getOrDefault(key, Optional.empty()).ifPresent(result::add);
+        }
+        return result;
+    }
+
+    /**
+     * Поиск продуктов по имени.
+     *
+     * @param name       Строка поиска.
+     * @param maxResults Максимальное количество результатов.
+     * @return Результаты поиска (неизменяемый список).
+     */
+    public List<Product> search(String name, int maxResults) {
+        SearchKey key = new SearchKey(name, maxResults, generation.get());
+        return searches.get(key, k -> {
+            String escaped = escapeLike(k.name());
+            return load(() -> List.copyOf(
+                    productRepository.searchByName(k.name(), "%" + escaped + "%", escaped + "%", k.maxResults())));
+        });
+    }
+
+    /**
+     * Сбросить продукт и все результаты поиска.
+     * Если вызов выполняется внутри транзакции, сброс откладывается до её коммита.
+     *
+     * @param productId Идентификатор изменённого продукта.
+     */
+    public void evict(String productId) {
+        String key = normalize(productId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(key);
+                }
+            });
+        } else {
+            invalidate(key);
+        }
+    }
+
+    /**
+     * Сбросить все продукты и результаты поиска, например после массового импорта.
+     * Вызывается после коммита изменений.
+     */
+    public void evictAll() {
+        lastInvalidation = System.nanoTime();
+        products.synchronous().invalidateAll();
+        generation.incrementAndGet();
+        searches.invalidateAll();
+    }
+
+    /**
+     * Статистика кэша продуктов по ID.
+     */
+    public CacheStats productStats() {
+        return products.synchronous().stats();
+    }
+
+    /**
+     * Статистика кэша результатов поиска.
+     */
+    public CacheStats searchStats() {
+        return searches.stats();
+    }
+
+    /**
+     * Текущее (приблизительное) количество продуктов в кэше.
+     */
+    public long productCount() {
+        return products.synchronous().estimatedSize();
+    }
+
+    /**
+     * Текущее (приблизительное) количество результатов поиска в кэше.
+     */
+    public long searchCount() {
+        return searches.estimatedSize();
+    }
+
+    private void invalidate(String key) {
+        lastInvalidation = System.nanoTime();
+        products.synchronous().invalidate(key);
+        generation.incrementAndGet();
+        searches.invalidateAll();
+    }
+
+    private <T> T load(Supplier<T> loader) {
+        return System.nanoTime() - lastInvalidation < primaryReadsNanos ? ReplicaRouting.onPrimary(loader) : loader.get();
+    }
+
+    private Map<String, Optional<Product>> loadAll(Set<? extends String> keys) {
+        Map<String, Optional<Product>> result = new HashMap<>();
+        for (Product product : load(() -> productRepository.findAllById(List.copyOf(keys)))) {
+            result.put(product.getId(), Optional.of(product));
+        }
+        for (String key : keys) {
+            // Отсутствующий продукт тоже попадает в кэш, чтобы повторные запросы не доходили до базы
+            result.putIfAbsent(key, Optional.empty());
+        }
+        return result;
+    }
+
+    /**
+     * Экранирует спецсимволы LIKE (`%`, `_` и `\`), чтобы строка поиска сравнивалась буквально.
+     */
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Приводит UUID к каноническому виду, чтобы один продукт не попадал в кэш под разными ключами.
+     */
+    private static String normalize(String productId) {
+        return UUID.fromString(productId).toString();
+    }
+
+    private record SearchKey(String name, int maxResults, long generation) {
+    }
+}
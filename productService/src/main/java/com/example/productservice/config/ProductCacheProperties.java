@@ -0,0 +1,39 @@
+package com.example.productservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки локального кэша продуктов.
+ * Значения задаются в `application.yml` в разделе `product-cache`.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "product-cache")
+public class ProductCacheProperties {
+
+    /**
+     * Максимальное количество продуктов в кэше по ID.
+     */
+    private long maxSize = 10_000;
+
+    /**
+     * Время жизни записи о продукте.
+     * Изменения на этом узле сбрасывают запись сразу, TTL ограничивает устаревание
+     * при изменениях через другие экземпляры сервиса.
+     */
+    private Duration ttl = Duration.ofMinutes(5);
+
+    /**
+     * Максимальное количество закэшированных результатов поиска.
+     */
+    private long searchMaxSize = 1_000;
+
+    /**
+     * Время жизни результата поиска.
+     */
+    private Duration searchTtl = Duration.ofSeconds(30);
+}
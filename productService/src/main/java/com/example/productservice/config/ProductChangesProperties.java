@@ -0,0 +1,39 @@
+package com.example.productservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки журнала изменений продуктов.
+ * Значения задаются в `application.yml` в разделе `product-changes`.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "product-changes")
+public class ProductChangesProperties {
+
+    /**
+     * Максимальное время ожидания новых изменений в одном запросе (long-poll).
+     */
+    private Duration maxWait = Duration.ofSeconds(30);
+
+    /**
+     * Возраст, после которого запись удаляется, если у того же продукта есть более новая запись.
+     * После уплотнения для каждого продукта остаётся только последнее состояние.
+     */
+    private Duration compactAfter = Duration.ofHours(1);
+
+    /**
+     * Время хранения записей об удалении продуктов. Потребитель, получивший курсор до очистки
+     * и отставший сильнее, получает признак `resetRequired` и должен синхронизироваться заново с `since=0`.
+     */
+    private Duration tombstoneRetention = Duration.ofDays(7);
+
+    /**
+     * Интервал запуска уплотнения журнала.
+     */
+    private Duration compactionInterval = Duration.ofMinutes(10);
+}
@@ -1,85 +1,378 @@
 package com.example.productservice.controller;
 
+import com.example.common.pagination.CursorPage;
+import com.example.common.pagination.PageCursor;
+import com.example.productservice.cache.ProductCache;
+import com.example.productservice.dto.ChangeCursor;
+import com.example.productservice.dto.ProductChangePage;
+import com.example.productservice.dto.ProductImportReport;
 import com.example.productservice.dto.ProductRequest;
 import com.example.productservice.model.Product;
 import com.example.productservice.repository.ProductRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.example.productservice.service.ProductChangeFeed;
+import com.example.productservice.service.ProductExportService;
+import com.example.productservice.service.ProductImportService;
+import com.example.productservice.service.ProductService;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 
 import jakarta.validation.Valid;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Контроллер для управления продуктами.*
  * Этот контроллер предоставляет REST API для управления продуктами,
  * включая создание, получение, обновление и удаление записей о продуктах.
+ * Чтение (включая пакетный запрос по списку ID) выполняется в транзакциях только для чтения:
+ * при включённой реплике оно идёт на неё.
  */
 @RestController
 @RequestMapping("/api/products")
 @Validated
 public class ProductController {
 
+    /**
+     * Максимальное количество идентификаторов в одном пакетном запросе.
+     */
+    static final int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * Размер страницы списка продуктов по умолчанию.
+     */
+    static final int DEFAULT_PAGE_SIZE = 50;
+
+    /**
+     * Максимальный размер страницы списка продуктов.
+     */
+    static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * Максимальное количество категорий в фильтре списка продуктов.
+     */
+    static final int MAX_CATEGORY_FILTERS = 20;
+
+    /**
+     * Количество результатов поиска по умолчанию.
+     */
+    static final int DEFAULT_SEARCH_RESULTS = 20;
+
+    /**
+     * Максимальное количество результатов поиска.
+     */
+    static final int MAX_SEARCH_RESULTS = 100;
+
+    /**
+     * Количество изменений в одной порции журнала по умолчанию.
+     */
+    static final int DEFAULT_CHANGES_LIMIT = 100;
+
+    /**
+     * Максимальное количество изменений в одной порции журнала.
+     */
+    static final int MAX_CHANGES_LIMIT = 1000;
+
+    /**
+     * Размер буфера gzip при выгрузке.
+     */
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
     private final ProductRepository productRepository;
+    private final ProductExportService productExportService;
+    private final ProductCache productCache;
+    private final ProductImportService productImportService;
+    private final ProductService productService;
+    private final ProductChangeFeed productChangeFeed;
 
     /**
      * Конструктор контроллера продуктов.
      *
      * @param productRepository Репозиторий для работы с сущностью Product.
+     * @param productExportService Сервис потоковой выгрузки продуктов.
+     * @param productCache Локальный кэш продуктов для чтения по ID и поиска.
+     * @param productImportService Сервис потокового импорта продуктов.
+     * @param productService Сервис изменения продуктов.
+     * @param productChangeFeed Журнал изменений продуктов.
      */
     @Autowired
-    public ProductController(ProductRepository productRepository) {
+    public ProductController(ProductRepository productRepository,
+                             ProductExportService productExportService,
+                             ProductCache productCache,
+                             ProductImportService productImportService,
+                             ProductService productService,
+                             ProductChangeFeed productChangeFeed) {
         this.productRepository = productRepository;
+        this.productExportService = productExportService;
+        this.productCache = productCache;
+        this.productImportService = productImportService;
+        this.productService = productService;
+        this.productChangeFeed = productChangeFeed;
     }
 
     /**
-     * Получение списка всех продуктов.
+     * Получение списка продуктов постранично.
+     * Продукты упорядочены по дате создания; для перехода на следующую страницу
+     * нужно передать курсор `next` из предыдущего ответа.
+     * Список можно отфильтровать по категориям: продукт должен входить во все указанные
+     * категории (`match=all`) или хотя бы в одну из них (`match=any`, по умолчанию).
      *
-     * @return ResponseEntity Список продуктов в формате JSON.
+     * @param limit      Количество продуктов на странице (не больше {@value #MAX_PAGE_SIZE}).
+     * @param cursor     Курсор следующей страницы.
+     * @param categories Категории для фильтра.
+     * @param match      Режим фильтра по категориям: `all` или `any`.
+     * @return ResponseEntity Страница продуктов в формате JSON или сообщение об ошибке.
      */
-    @Operation(summary = "Получить список всех продуктов")
+    @Operation(summary = "Получить список продуктов постранично")
+    @Parameter(name = "limit", description = "Количество продуктов на странице")
+    @Parameter(name = "cursor", description = "Курсор следующей страницы из поля next предыдущего ответа")
+    @Parameter(name = "category", description = "Категория для фильтра (можно указать несколько раз)")
+    @Parameter(name = "match", description = "all — продукт во всех категориях, any — хотя бы в одной")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Список продуктов")
+        @ApiResponse(responseCode = "200", description = "Страница продуктов"),
+        @ApiResponse(responseCode = "400", description = "Некорректный размер страницы, курсор или фильтр")
     })
+    @Transactional(readOnly = true)
     @GetMapping
-    public ResponseEntity<List<Product>> index() {
-        List<Product> products = productRepository.findAll();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<?> index(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(name = "category", required = false) List<String> categories,
+            @RequestParam(defaultValue = "any") String match) {
+
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        if (pageSize < 1) {
+            return ResponseEntity.badRequest().body("Размер страницы должен быть больше 0");
+        }
+
+        if (!"all".equals(match) && !"any".equals(match)) {
+            return ResponseEntity.badRequest().body("Параметр match должен быть all или any");
+        }
+        Set<String> categoryFilter = categories == null ? Set.of() : new LinkedHashSet<>(categories);
+        if (categoryFilter.size() > MAX_CATEGORY_FILTERS) {
+            return ResponseEntity.badRequest().body("Можно указать не более " + MAX_CATEGORY_FILTERS + " категорий");
+        }
+        for (String category : categoryFilter) {
+            if (category.isBlank() || category.length() > 100) {
+                return ResponseEntity.badRequest().body("Некорректная категория: " + category);
+            }
+        }
+
+        PageCursor after = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                after = PageCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body("Некорректный курсор");
+            }
+        }
+
+        // Запрашиваем на один продукт больше, чтобы узнать, есть ли следующая страница
+        List<Product> products = productRepository.findPage(
+                List.copyOf(categoryFilter),
+                "all".equals(match),
+                after == null ? null : after.createdAt(),
+                after == null ? null : after.id().toString(),
+                pageSize + 1);
+
+        String next = null;
+        if (products.size() > pageSize) {
+            products = products.subList(0, pageSize);
+            Product last = products.get(pageSize - 1);
+            next = new PageCursor(last.getCreatedAt(), UUID.fromString(last.getId())).encode();
+        }
+        return ResponseEntity.ok(new CursorPage<>(products, next));
     }
 
     /**
      * Поиск продуктов по имени.*
      * Метод выполняет поиск продуктов, имя которых содержит указанную подстроку.
-     * Поиск регистронезависимый и упорядочивает результаты в алфавитном порядке.
+     * Поиск регистронезависимый, результаты упорядочены по релевантности
+     * (точное совпадение, совпадение по началу имени, сходство) и ограничены по количеству.
      *
      * @param name Имя продукта или часть имени для поиска.
+     * @param limit Максимальное количество результатов (не больше {@value #MAX_SEARCH_RESULTS}).
      * @return ResponseEntity Результаты поиска или сообщение об ошибке.
      */
     @Operation(summary = "Поиск продуктов по имени")
     @Parameter(name = "name", description = "Имя продукта", required = true)
+    @Parameter(name = "limit", description = "Максимальное количество результатов")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Результаты поиска"),
         @ApiResponse(responseCode = "400", description = "Ошибка запроса")
     })
+    @Transactional(readOnly = true)
     @GetMapping("/search")
-    public ResponseEntity<List<Product>> searchByName(@RequestParam String name) {
+    public ResponseEntity<List<Product>> searchByName(
+            @RequestParam String name,
+            @RequestParam(required = false) Integer limit) {
         if (name == null || name.isEmpty()) {
             return ResponseEntity.badRequest().body(null);
         }
 
-        List<Product> products = productRepository.findByName(name);
-        return ResponseEntity.ok(products);
+        int maxResults = limit == null ? DEFAULT_SEARCH_RESULTS : Math.min(limit, MAX_SEARCH_RESULTS);
+        if (maxResults < 1) {
+            return ResponseEntity.badRequest().body(null);
+        }
+
+        return ResponseEntity.ok(productCache.search(name, maxResults));
+    }
+
+    /**
+     * Получение нескольких продуктов за один запрос.
+     * Используется сервисом заказов, чтобы получить цены всех товаров заказа за один сетевой вызов.
+     * Дубликаты идентификаторов игнорируются, отсутствующие продукты просто не попадают в ответ.
+     *
+     * @param ids Список идентификаторов продуктов (UUID).
+     * @return ResponseEntity Список найденных продуктов или сообщение об ошибке.
+     */
+    @Operation(summary = "Получить несколько продуктов по списку ID")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Список найденных продуктов"),
+        @ApiResponse(responseCode = "400", description = "Пустой список, слишком много ID или некорректный формат UUID")
+    })
+    @Transactional(readOnly = true)
+    @PostMapping("/batch")
+    public ResponseEntity<?> batch(@RequestBody List<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return ResponseEntity.badRequest().body("Список идентификаторов пуст");
+        }
+
+        Set<String> uniqueIds = new LinkedHashSet<>(ids);
+        if (uniqueIds.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().body("Можно запросить не более " + MAX_BATCH_SIZE + " продуктов за раз");
+        }
+        for (String id : uniqueIds) {
+            if (id == null || isNotValidUUID(id)) {
+                return ResponseEntity.badRequest().body("Некорректный формат UUID: " + id);
+            }
+        }
+
+        return ResponseEntity.ok(productCache.findAllById(uniqueIds));
+    }
+
+    /**
+     * Выгрузка всех продуктов в формате NDJSON.
+     * Продукты передаются потоком по мере чтения из базы, поэтому размер выгрузки не ограничен памятью сервиса.
+     *
+     * @param gzip Сжимать ли ответ gzip.
+     * @return ResponseEntity Поток продуктов, по одному JSON-объекту на строку.
+     */
+    @Operation(summary = "Выгрузить все продукты в формате NDJSON")
+    @Parameter(name = "gzip", description = "Сжимать ли ответ gzip")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Поток продуктов, по одному JSON-объекту на строку")
+    })
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "false") boolean gzip) {
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+                productExportService.export(gzipOut);
+                gzipOut.finish();
+            } else {
+                productExportService.export(out);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Импорт продуктов из CSV или NDJSON.
+     * Файл читается потоком и загружается частями через PostgreSQL COPY, поэтому его размер
+     * не ограничен памятью сервиса. Строки с `id` обновляют существующие продукты,
+     * строки без `id` создают новые. Некорректные строки пропускаются и перечисляются в отчёте.
+     *
+     * @param contentType Тип содержимого: `text/csv` или `application/x-ndjson`.
+     * @param body        Содержимое файла в UTF-8.
+     * @return ResponseEntity Отчёт об импорте.
+     */
+    @Operation(summary = "Импортировать продукты из CSV или NDJSON",
+            description = "CSV: заголовок с колонками id (необязательная), name, description, price, categories "
+                    + "(категории через |). NDJSON: по одному объекту продукта на строку, с необязательным полем id.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Импорт завершён"),
+        @ApiResponse(responseCode = "400", description = "Некорректный файл; части, загруженные до ошибки, сохранены"),
+        @ApiResponse(responseCode = "500", description = "Импорт прерван ошибкой базы данных; части, загруженные до ошибки, сохранены")
+    })
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ProductImportReport> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        ProductImportService.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(contentType))
+                ? ProductImportService.Format.NDJSON
+                : ProductImportService.Format.CSV;
+
+        ProductImportReport report = productImportService.importProducts(body, format);
+        if (report.getError() == null) {
+            return ResponseEntity.ok(report);
+        }
+        return ResponseEntity.status(report.isClientError() ? HttpStatus.BAD_REQUEST : HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(report);
+    }
+
+    /**
+     * Получение изменений продуктов после заданной позиции.
+     * Потребитель начинает с `since=0` (полный каталог в виде последних состояний продуктов),
+     * а затем передаёт курсор `next` из предыдущего ответа. Если новых изменений нет и задан `wait`,
+     * ответ откладывается до появления изменений или истечения ожидания.
+     *
+     * @param since Курсор из поля `next` предыдущего ответа или `0`.
+     * @param limit Максимальное количество изменений (не больше {@value #MAX_CHANGES_LIMIT}).
+     * @param wait  Время ожидания новых изменений в секундах (0 — не ждать).
+     * @return Отложенный результат с порцией журнала.
+     */
+    @Operation(summary = "Получить изменения продуктов после заданной позиции")
+    @Parameter(name = "since", description = "Курсор из поля next предыдущего ответа; 0 — с начала журнала")
+    @Parameter(name = "limit", description = "Максимальное количество изменений")
+    @Parameter(name = "wait", description = "Сколько секунд ждать новых изменений, если их нет")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Порция журнала изменений (пустая, если ожидание истекло)"),
+        @ApiResponse(responseCode = "400", description = "Некорректные параметры запроса")
+    })
+    @GetMapping("/changes")
+    public DeferredResult<ProductChangePage> changes(
+            @RequestParam(defaultValue = "0") String since,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "0") int wait) {
+        int maxChanges = limit == null ? DEFAULT_CHANGES_LIMIT : Math.min(limit, MAX_CHANGES_LIMIT);
+        if (maxChanges < 1 || wait < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "wait не может быть отрицательным, limit должен быть больше 0");
+        }
+        ChangeCursor cursor;
+        try {
+            cursor = ChangeCursor.decode(since);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Некорректный курсор since");
+        }
+        return productChangeFeed.poll(cursor, maxChanges, Duration.ofSeconds(wait));
     }
 
     /**
@@ -95,13 +388,14 @@ public class ProductController {
         @ApiResponse(responseCode = "400", description = "Некорректный формат UUID"),
         @ApiResponse(responseCode = "404", description = "Продукт не найден")
     })
+    @Transactional(readOnly = true)
     @GetMapping("/{id}")
     public ResponseEntity<Product> show(@PathVariable String id) {
         if (isNotValidUUID(id)) {
             return ResponseEntity.badRequest().body(null);
         }
 
-        Product product = productRepository.findById(id).orElse(null);
+        Product product = productCache.findById(id).orElse(null);
         if (product == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
@@ -121,14 +415,14 @@ public class ProductController {
         @ApiResponse(responseCode = "400", description = "Ошибка валидации данных")
     })
     @PostMapping
-    public ResponseEntity<Product> create(@Valid @RequestBody ProductRequest productRequest) throws JsonProcessingException {
+    public ResponseEntity<Product> create(@Valid @RequestBody ProductRequest productRequest) {
         Product product = new Product();
         product.setName(productRequest.getName());
         product.setDescription(productRequest.getDescription());
         product.setPrice(productRequest.getPrice());
         product.setCategories(productRequest.getCategories());
 
-        productRepository.save(product);
+        productService.create(product);
         return ResponseEntity.status(HttpStatus.CREATED).body(product);
     }
 
@@ -186,7 +480,7 @@ public class ProductController {
             product.setCategories(productRequest.getCategories());
         }
 
-        productRepository.save(product);
+        productService.update(product);
         return ResponseEntity.ok(product);
     }
 
@@ -214,7 +508,7 @@ public class ProductController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
 
-        productRepository.delete(product);
+        productService.delete(product);
         return ResponseEntity.noContent().build();
     }
 
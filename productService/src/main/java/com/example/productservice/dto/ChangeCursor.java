@@ -0,0 +1,73 @@
+package com.example.productservice.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Позиция потребителя в журнале изменений продуктов: номер последнего полученного изменения и граница
+ * удалённых записей об удалении (`purged_through`), которую сервис видел при выдаче курсора.
+ * <p>
+ * По границе видно, удалялись ли записи после того, как потребитель получил курсор: если нет, он ничего
+ * не пропустил, даже если его номер меньше границы (например, посередине первичной синхронизации с начала).
+ * Клиент получает курсор в виде непрозрачной строки и передаёт её обратно без изменений;
+ * `0` означает начало журнала. Число без границы принимается как курсор, выданный до любой очистки.
+ *
+ * @param seq           Номер последнего полученного изменения.
+ * @param purgedThrough Граница удалённых записей на момент выдачи курсора.
+ */
+public record ChangeCursor(long seq, long purgedThrough) {
+
+    /**
+     * Начало журнала.
+     */
+    public static final ChangeCursor START = new ChangeCursor(0, 0);
+
+    /**
+     * Потребитель мог пропустить удаление продукта: после выдачи курсора были удалены записи об удалении
+     * с номерами больше его позиции. Синхронизация с начала журнала пропусков не имеет.
+     *
+     * @param currentPurgedThrough Текущая граница удалённых записей.
+     */
+    public boolean resetRequired(long currentPurgedThrough) {
+        return seq > 0 && seq < currentPurgedThrough && purgedThrough < currentPurgedThrough;
+    }
+
+    /**
+     * Закодировать курсор в строку, безопасную для передачи в URL.
+     */
+    public String encode() {
+        if (seq == 0) {
+            return "0";
+        }
+        String raw = seq + ":" + purgedThrough;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Восстановить курсор из строки, полученной от клиента.
+     *
+     * @param value Закодированный курсор или номер изменения.
+     * @return Курсор.
+     * @throws IllegalArgumentException если строка не является корректным курсором.
+     */
+    public static ChangeCursor decode(String value) {
+        try {
+            if (value.chars().allMatch(Character::isDigit) && !value.isEmpty()) {
+                return new ChangeCursor(Long.parseLong(value), 0);
+            }
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int colon = raw.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Некорректный курсор");
+            }
+            ChangeCursor cursor = new ChangeCursor(
+                    Long.parseLong(raw.substring(0, colon)), Long.parseLong(raw.substring(colon + 1)));
+            if (cursor.seq() < 0 || cursor.purgedThrough() < 0) {
+                throw new IllegalArgumentException("Некорректный курсор");
+            }
+            return cursor;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Некорректный курсор", e);
+        }
+    }
+}
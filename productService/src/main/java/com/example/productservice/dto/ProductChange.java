@@ -0,0 +1,50 @@
+package com.example.productservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Запись журнала изменений продуктов.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Изменение продукта")
+public class ProductChange {
+
+    /**
+     * Вид изменения.
+     */
+    public enum Operation {
+        /** Продукт создан. */
+        CREATED,
+        /** Продукт изменён. */
+        UPDATED,
+        /** Продукт удалён. */
+        DELETED
+    }
+
+    @Schema(description = "Порядковый номер изменения. Номера растут в порядке фиксации, но могут идти с пропусками.",
+            example = "1042")
+    private long seq;
+
+    @Schema(description = "UUID идентификатор продукта", example = "123e4567-e89b-12d3-a456-426614174000")
+    private UUID productId;
+
+    @Schema(description = "Вид изменения", example = "UPDATED")
+    private Operation operation;
+
+    @Schema(description = "Дата и время изменения", example = "2024-05-01T12:34:56Z")
+    private Instant changedAt;
+
+    @JsonRawValue
+    @Schema(description = "Состояние продукта после изменения. Отсутствует для удалённого продукта.",
+            implementation = Object.class)
+    private String product;
+}
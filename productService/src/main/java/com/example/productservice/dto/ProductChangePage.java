@@ -0,0 +1,27 @@
+package com.example.productservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Порция журнала изменений продуктов.
+ */
+@Getter
+@AllArgsConstructor
+@Schema(description = "Изменения продуктов после заданного номера")
+public class ProductChangePage {
+
+    @Schema(description = "Изменения в порядке номеров")
+    private List<ProductChange> items;
+
+    @Schema(description = "Курсор для следующего запроса (параметр since)", example = "MTA0MjoxMDAw")
+    private String next;
+
+    @Schema(description = "Потребитель мог пропустить удаление продукта: записи об удалении очищены после "
+            + "выдачи его курсора. Нужно заново синхронизироваться с since=0 и удалить продукты, "
+            + "которых нет в журнале", example = "false")
+    private boolean resetRequired;
+}
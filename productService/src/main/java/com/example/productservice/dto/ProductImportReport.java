@@ -0,0 +1,78 @@
+package com.example.productservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Итог импорта продуктов.
+ * Отклонённые строки перечисляются не все, а только первые `product-import.max-reported-errors`,
+ * чтобы размер отчёта не зависел от размера файла; общее количество — в поле `rejected`.
+ */
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Итог импорта продуктов")
+public class ProductImportReport {
+
+    @Schema(description = "Количество прочитанных строк с данными", example = "2000000")
+    private long processed;
+
+    @Schema(description = "Количество загруженных (созданных или обновлённых) строк", example = "1999990")
+    private long imported;
+
+    @Schema(description = "Количество отклонённых строк", example = "10")
+    private long rejected;
+
+    @Schema(description = "Количество зафиксированных частей", example = "200")
+    private int chunks;
+
+    @Schema(description = "Длительность импорта в миллисекундах", example = "95000")
+    private long durationMs;
+
+    @Schema(description = "Первые отклонённые строки с причиной")
+    private final List<RejectedRow> rejectedRows = new ArrayList<>();
+
+    @Schema(description = "Ошибка, прервавшая импорт. Части, зафиксированные до неё, остаются в базе.")
+    private String error;
+
+    @JsonIgnore
+    private boolean clientError;
+
+    /**
+     * Отклонённая строка файла.
+     *
+     * @param line  Номер строки в файле (для CSV — строка, с которой начинается запись).
+     * @param error Причина.
+     */
+    public record RejectedRow(long line, String error) {
+    }
+
+    public void rowProcessed() {
+        processed++;
+    }
+
+    public void reject(long line, String error, int maxReported) {
+        rejected++;
+        if (rejectedRows.size() < maxReported) {
+            rejectedRows.add(new RejectedRow(line, error));
+        }
+    }
+
+    public void chunkCommitted(long rows) {
+        imported += rows;
+        chunks++;
+    }
+
+    public void fail(String error, boolean clientError) {
+        this.error = error;
+        this.clientError = clientError;
+    }
+
+    public void finish(long durationMs) {
+        this.durationMs = durationMs;
+    }
+}
@@ -1,7 +1,5 @@
 package com.example.productservice.model;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import org.springframework.data.annotation.CreatedDate;
@@ -9,10 +7,11 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.Instant;
-import java.util.Collections;
 import java.util.List;
 
 @Entity
@@ -47,9 +46,10 @@ public class Product {
     @Schema(description = "Цена продукта в копейках.", example = "1499.99", minimum = "0")
     private Integer price; // Хранится в копейках
 
-    @Column(columnDefinition = "json")
-    @Schema(description = "Список категорий продукта в формате JSON.", example = "[\"Электроника\", \"Компьютеры\"]")
-    private String categories;  // Храним JSON-строку
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb", nullable = false)
+    @Schema(description = "Список категорий продукта.", example = "[\"Электроника\", \"Компьютеры\"]")
+    private List<String> categories;  // Хранится в jsonb, разбирается один раз при загрузке сущности
 
     @CreatedDate
     @Column(updatable = false, nullable = false)
@@ -63,24 +63,4 @@ public class Product {
     public void setPrice(float price) {
         this.price = (int) (price * 100); // Устанавливает цену в копейках
     }
-
-    public List<String> getCategories() {
-        try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            return objectMapper.readValue(this.categories, new TypeReference<List<String>>() {});
-        } catch (Exception e) {
-            e.printStackTrace();
-            return Collections.emptyList();
-        }
-    }
-
-    // Метод для преобразования List<String> в JSON строку перед сохранением
-    public void setCategories(List<String> categories) {
-        try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            this.categories = objectMapper.writeValueAsString(categories);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
 }
@@ -15,17 +15,29 @@ import java.util.List;
  * включая поиск по имени и другие операции, связанные с продуктами.
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, String> {
+public interface ProductRepository extends JpaRepository<Product, String>, ProductRepositoryCustom {
 
     /**
      * Поиск продуктов по имени.
      *
-     * Метод выполняет поиск продуктов, имя которых содержит указанную подстроку.
-     * Поиск регистронезависимый и упорядочивает результаты в алфавитном порядке.
+     * Метод выполняет регистронезависимый поиск продуктов, имя которых содержит указанную подстроку.
+     * Условие `ILIKE '%...%'` обслуживается триграммным индексом `idx_products_name_trgm`.
+     * Результаты упорядочены по релевантности: точное совпадение, затем совпадение по началу имени,
+     * затем по триграммному сходству, и в конце по алфавиту.
      *
-     * @param name Имя продукта или часть имени для поиска.
+     * @param name          Строка поиска (используется для оценки релевантности).
+     * @param containsLike  Шаблон LIKE вида `%строка%` с экранированными спецсимволами.
+     * @param prefixLike    Шаблон LIKE вида `строка%` с экранированными спецсимволами.
+     * @param limit         Максимальное количество результатов.
      * @return Список найденных продуктов.
      */
-    @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%')) ORDER BY p.name ASC")
-    List<Product> findByName(@Param("name") String name);
+    @Query(value = "SELECT * FROM products p WHERE p.name ILIKE :containsLike " +
+            "ORDER BY lower(p.name) = lower(:name) DESC, p.name ILIKE :prefixLike DESC, " +
+            "similarity(p.name, :name) DESC, p.name ASC " +
+            "LIMIT :limit",
+            nativeQuery = true)
+    List<Product> searchByName(@Param("name") String name,
+                               @Param("containsLike") String containsLike,
+                               @Param("prefixLike") String prefixLike,
+                               @Param("limit") int limit);
 }
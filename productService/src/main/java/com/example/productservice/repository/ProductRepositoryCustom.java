@@ -0,0 +1,36 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.model.Product;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Дополнительные методы репозитория продуктов, которые нельзя описать через `@Query`.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Потоково прочитать все продукты через курсор JDBC.
+     * Метод должен вызываться внутри транзакции, а поток — закрываться после использования.
+     *
+     * @param fetchSize Количество строк, получаемых из базы за одно обращение.
+     * @return Поток продуктов, упорядоченных по `(created_at, id)`.
+     */
+    Stream<Product> streamAll(int fetchSize);
+
+    /**
+     * Страница продуктов в порядке `(created_at, id)` с необязательным фильтром по категориям.
+     * Переход между страницами выполняется по ключу `(created_at, id)` через индекс
+     * `idx_products_created_at_id`, фильтр по категориям обслуживается GIN-индексом `idx_products_categories`.
+     *
+     * @param categories     Категории для фильтра; пустой список — без фильтра.
+     * @param matchAll       {@code true} — продукт должен входить во все категории, {@code false} — хотя бы в одну.
+     * @param afterCreatedAt Дата создания последнего продукта предыдущей страницы или {@code null} для первой страницы.
+     * @param afterId        Идентификатор последнего продукта предыдущей страницы или {@code null} для первой страницы.
+     * @param limit          Максимальное количество продуктов.
+     * @return Список продуктов.
+     */
+    List<Product> findPage(List<String> categories, boolean matchAll, Instant afterCreatedAt, String afterId, int limit);
+}
@@ -0,0 +1,82 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.AvailableHints;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Реализация {@link ProductRepositoryCustom}.
+ */
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<Product> streamAll(int fetchSize) {
+        return entityManager.createQuery("SELECT p FROM Product p ORDER BY p.createdAt, p.id", Product.class)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Product> findPage(List<String> categories, boolean matchAll,
+                                  Instant afterCreatedAt, String afterId, int limit) {
+        List<String> conditions = new ArrayList<>();
+        if (afterCreatedAt != null) {
+            conditions.add("(p.created_at, p.id) > (:createdAt, CAST(:id AS uuid))");
+        }
+        if (!categories.isEmpty()) {
+            // Оператор @@ с jsonpath поддерживается GIN-индексом jsonb_path_ops (в отличие от функций над jsonb)
+            conditions.add("p.categories @@ CAST(:categoryQuery AS jsonpath)");
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT * FROM products p");
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY p.created_at, p.id LIMIT :limit");
+
+        var query = entityManager.createNativeQuery(sql.toString(), Product.class)
+                .setParameter("limit", limit);
+        if (afterCreatedAt != null) {
+            query.setParameter("createdAt", afterCreatedAt).setParameter("id", afterId);
+        }
+        if (!categories.isEmpty()) {
+            query.setParameter("categoryQuery", categoryQuery(categories, matchAll));
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * Строит jsonpath-предикат вида `$[*] == "a" && $[*] == "b"` (или `||` для любой из категорий).
+     */
+    static String categoryQuery(List<String> categories, boolean matchAll) {
+        StringBuilder path = new StringBuilder();
+        for (String category : categories) {
+            if (!path.isEmpty()) {
+                path.append(matchAll ? " && " : " || ");
+            }
+            path.append("$[*] == \"");
+            for (char c : category.toCharArray()) {
+                if (c == '"' || c == '\\') {
+                    path.append('\\').append(c);
+                } else if (c < 0x20) {
+                    path.append(String.format("\\u%04x", (int) c));
+                } else {
+                    path.append(c);
+                }
+            }
+            path.append('"');
+        }
+        return path.toString();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.productservice.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Потоковое чтение CSV (RFC 4180): разделитель — запятая, значения с запятыми, кавычками
+ * и переводами строк заключаются в двойные кавычки, кавычка внутри значения удваивается.
+ * Читает по одной записи, поэтому размер файла не ограничен памятью.
+ */
+class CsvReader {
+
+    private final Reader reader;
+    private final StringBuilder value = new StringBuilder();
+    private int line = 1;
+    private int recordLine;
+    private int next = -2;
+
+    CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Прочитать следующую запись.
+     *
+     * @return Значения полей или null, если файл закончился.
+     * @throws IllegalArgumentException если кавычка в записи не закрыта до конца файла.
+     */
+    List<String> readRecord() throws IOException {
+        int c = read();
+        // Пустые строки между записями пропускаются
+        while (c == '\r' || c == '\n') {
+            c = read();
+        }
+        if (c == -1) {
+            return null;
+        }
+
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        value.setLength(0);
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Незакрытая кавычка в записи, начатой в строке " + recordLine);
+                }
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        value.append('"');
+                    } else {
+                        quoted = false;
+                        c = following;
+                        continue;
+                    }
+                } else {
+                    value.append((char) c);
+                }
+            } else if (c == '"' && value.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(value.toString());
+                value.setLength(0);
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r') {
+                    int following = read();
+                    if (following != '\n') {
+                        unread(following);
+                    }
+                }
+                fields.add(value.toString());
+                return fields;
+            } else {
+                value.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * Номер строки файла, с которой началась последняя прочитанная запись.
+     */
+    int recordLine() {
+        return recordLine;
+    }
+
+    private int read() throws IOException {
+        int c;
+        if (next != -2) {
+            c = next;
+            next = -2;
+        } else {
+            c = reader.read();
+        }
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    private void unread(int c) {
+        if (c == '\n') {
+            line--;
+        }
+        next = c;
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.productservice.service;
+
+import com.example.productservice.config.ProductChangesProperties;
+import com.example.productservice.dto.ChangeCursor;
+import com.example.productservice.dto.ProductChange;
+import com.example.productservice.dto.ProductChangePage;
+import com.example.productservice.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Журнал изменений продуктов (`product_changes`) для инкрементальной синхронизации потребителей.
+ * <p>
+ * Каждое создание, изменение и удаление продукта записывается в журнал в той же транзакции,
+ * что и само изменение (outbox). Пишущие транзакции сериализуются транзакционной advisory-блокировкой,
+ * поэтому номера записей растут в порядке фиксации: потребитель, прочитавший журнал до номера N,
+ * не пропустит запись с меньшим номером, зафиксированную позже.
+ * <p>
+ * Журнал периодически уплотняется: записи старше `product-changes.compact-after`, у продукта которых
+ * есть более новая запись, удаляются, и для каждого продукта остаётся последнее состояние. Поэтому
+ * чтение с `since=0` даёт полный каталог. Записи об удалении хранятся `product-changes.tombstone-retention`;
+ * потребитель, который получил курсор ({@link ChangeCursor}) до очистки и мог пропустить удалённую запись,
+ * получает признак `resetRequired`.
+ */
+@Service
+@Slf4j
+public class ProductChangeFeed {
+
+    /**
+     * Сериализует пишущие транзакции до их коммита. Выполняется в начале транзакции перед записью в журнал.
+     */
+    static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(hashtext('product_changes'))";
+
+    /**
+     * Уведомляет слушателей канала после коммита транзакции.
+     */
+    static final String NOTIFY_SQL = "SELECT pg_notify('" + ProductChangeNotifier.CHANNEL + "', '')";
+
+    private static final String INSERT_CHANGE = """
+            INSERT INTO product_changes (product_id, operation, payload, changed_at)
+            VALUES (?, ?, CAST(? AS jsonb), now())
+            """;
+
+    private static final String SELECT_CHANGES = """
+            SELECT seq, product_id, operation, changed_at, payload::text AS payload
+            FROM product_changes
+            WHERE seq > ?
+            ORDER BY seq
+            LIMIT ?
+            """;
+
+    private static final String COMPACT = """
+            DELETE FROM product_changes c
+            WHERE c.changed_at < ?
+              AND EXISTS (SELECT 1 FROM product_changes n WHERE n.product_id = c.product_id AND n.seq > c.seq)
+            """;
+
+    private static final String PURGE_TOMBSTONES = """
+            WITH purged AS (
+                DELETE FROM product_changes
+                WHERE operation = 'DELETED' AND changed_at < ?
+                RETURNING seq
+            )
+            UPDATE product_change_log_state
+            SET purged_through = GREATEST(purged_through, (SELECT max(seq) FROM purged))
+            WHERE id = 1
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ProductChangeNotifier notifier;
+    private final ProductChangesProperties properties;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate snapshot;
+    private final ScheduledExecutorService compactionExecutor =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("product-changes-compaction").factory());
+
+    public ProductChangeFeed(JdbcTemplate jdbcTemplate,
+                             ObjectMapper objectMapper,
+                             ProductChangeNotifier notifier,
+                             ProductChangesProperties properties,
+                             PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.notifier = notifier;
+        this.properties = properties;
+        this.transaction = new TransactionTemplate(transactionManager);
+        // Порция журнала и граница удалённых записей читаются из одного снимка базы. Снимок берётся
+        // в основной базе, а не на реплике: уведомление о записи может прийти раньше, чем её получит реплика
+        this.snapshot = new TransactionTemplate(transactionManager);
+        this.snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * Записать изменение продукта в журнал.
+     * Должен вызываться в транзакции, изменяющей продукт.
+     *
+     * @param operation Вид изменения.
+     * @param product   Продукт после изменения (для удаления — удалённый продукт).
+     */
+    public void record(ProductChange.Operation operation, Product product) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Изменение продукта должно записываться в журнал внутри транзакции");
+        }
+        String payload;
+        try {
+            payload = operation == ProductChange.Operation.DELETED ? null : objectMapper.writeValueAsString(product);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать продукт " + product.getId(), e);
+        }
+
+        jdbcTemplate.execute(LOCK_SQL);
+        jdbcTemplate.update(INSERT_CHANGE, UUID.fromString(product.getId()), operation.name(), payload);
+        jdbcTemplate.execute(NOTIFY_SQL);
+    }
+
+    /**
+     * Прочитать изменения после заданной позиции.
+     *
+     * @param cursor Позиция потребителя ({@link ChangeCursor#START} — с начала журнала).
+     * @param limit  Максимальное количество изменений.
+     * @return Порция журнала. Если потребитель мог пропустить удаление, порция пуста, в ней установлен
+     * `resetRequired`, а курсор не меняется.
+     */
+    public ProductChangePage read(ChangeCursor cursor, int limit) {
+        return snapshot.execute(status -> {
+            long purgedThrough = jdbcTemplate.queryForObject(
+                    "SELECT purged_through FROM product_change_log_state WHERE id = 1", Long.class);
+            if (cursor.resetRequired(purgedThrough)) {
+                return new ProductChangePage(List.of(), cursor.encode(), true);
+            }
+            List<ProductChange> changes = jdbcTemplate.query(SELECT_CHANGES, (rs, rowNum) -> new ProductChange(
+                    rs.getLong("seq"),
+                    rs.getObject("product_id", UUID.class),
+                    ProductChange.Operation.valueOf(rs.getString("operation")),
+                    rs.getTimestamp("changed_at").toInstant(),
+                    rs.getString("payload")), cursor.seq(), limit);
+
+            long next = changes.isEmpty() ? cursor.seq() : changes.get(changes.size() - 1).getSeq();
+            // Граница из того же снимка: записи, удалённые до него, потребитель уже не мог получить
+            return new ProductChangePage(changes, new ChangeCursor(next, purgedThrough).encode(), false);
+        });
+    }
+
+    /**
+     * Прочитать изменения после заданной позиции, дождавшись их появления.
+     * Если изменений нет, ответ откладывается до первой новой записи в журнале или до истечения `wait`;
+     * поток обработки запроса при этом не занят.
+     *
+     * @param cursor Позиция потребителя.
+     * @param limit  Максимальное количество изменений.
+     * @param wait  Максимальное время ожидания (не больше `product-changes.max-wait`).
+     * @return Отложенный результат с порцией журнала (возможно, пустой).
+     */
+    public DeferredResult<ProductChangePage> poll(ChangeCursor cursor, int limit, Duration wait) {
+        Duration timeout = wait.compareTo(properties.getMaxWait()) > 0 ? properties.getMaxWait() : wait;
+        DeferredResult<ProductChangePage> result = new DeferredResult<>(
+                Math.max(1, timeout.toMillis()), () -> new ProductChangePage(List.of(), cursor.encode(), false));
+
+        if (timeout.isZero() || timeout.isNegative()) {
+            result.setResult(read(cursor, limit));
+            return result;
+        }
+
+        Runnable check = new Runnable() {
+            @Override
+            public void run() {
+                if (result.isSetOrExpired()) {
+                    return;
+                }
+                // Ожидание регистрируется до чтения, чтобы не пропустить запись, зафиксированную между ними
+                notifier.await(this);
+                try {
+                    ProductChangePage page = read(cursor, limit);
+                    if (!page.getItems().isEmpty() || page.isResetRequired()) {
+                        result.setResult(page);
+                    }
+                } catch (DataAccessException e) {
+                    result.setErrorResult(e);
+                }
+            }
+        };
+        result.onCompletion(() -> notifier.cancel(check));
+        check.run();
+        return result;
+    }
+
+    /**
+     * Уплотнить журнал и удалить устаревшие записи об удалении.
+     */
+    public void compact() {
+        Instant now = Instant.now();
+        Integer compacted = transaction.execute(status ->
+                jdbcTemplate.update(COMPACT, Timestamp.from(now.minus(properties.getCompactAfter()))));
+        transaction.executeWithoutResult(status ->
+                jdbcTemplate.update(PURGE_TOMBSTONES, Timestamp.from(now.minus(properties.getTombstoneRetention()))));
+        if (compacted != null && compacted > 0) {
+            log.info("Журнал изменений продуктов уплотнён: удалено {} записей", compacted);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startCompaction() {
+        long interval = properties.getCompactionInterval().toMillis();
+        compactionExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                compact();
+            } catch (RuntimeException e) {
+                log.error("Ошибка уплотнения журнала изменений продуктов", e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        compactionExecutor.shutdownNow();
+    }
+}
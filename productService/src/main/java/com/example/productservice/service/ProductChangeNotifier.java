@@ -0,0 +1,110 @@
+package com.example.productservice.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Оповещение ожидающих запросов о новых записях журнала изменений продуктов.
+ * <p>
+ * Транзакция, добавившая запись, выполняет `pg_notify`, и PostgreSQL доставляет уведомление после коммита
+ * всем экземплярам сервиса, слушающим канал {@value #CHANNEL}. Для прослушивания каждый экземпляр
+ * постоянно держит одно соединение из пула. Если соединение потеряно, оно открывается заново,
+ * а ожидающие запросы будятся, чтобы перепроверить журнал — уведомление могло быть пропущено.
+ */
+@Component
+@Slf4j
+public class ProductChangeNotifier {
+
+    static final String CHANNEL = "product_changes";
+
+    private static final int RECONNECT_DELAY_MS = 1000;
+    private static final int POLL_TIMEOUT_MS = 5000;
+
+    private final DataSource dataSource;
+    private final Set<Runnable> waiters = ConcurrentHashMap.newKeySet();
+    // Проверки ожидающих запросов обращаются к базе, поэтому выполняются в отдельных виртуальных потоках
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile boolean running = true;
+
+    public ProductChangeNotifier(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Выполнить действие при следующем уведомлении. Действие выполняется один раз;
+     * чтобы ждать дальше, его нужно зарегистрировать снова.
+     */
+    public void await(Runnable onChange) {
+        waiters.add(onChange);
+    }
+
+    /**
+     * Отменить ожидание.
+     */
+    public void cancel(Runnable onChange) {
+        waiters.remove(onChange);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.execute(this::listen);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        executor.shutdownNow();
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                // Изменения, зафиксированные до начала прослушивания, иначе ждали бы следующего уведомления
+                wakeAll();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications != null && notifications.length > 0) {
+                        wakeAll();
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Прослушивание канала {} прервано: {}", CHANNEL, e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void wakeAll() {
+        for (Runnable waiter : waiters) {
+            if (waiters.remove(waiter)) {
+                executor.execute(waiter);
+            }
+        }
+    }
+}
@@ -0,0 +1,427 @@
+package com.example.productservice.service;
+
+import com.example.productservice.cache.ProductCache;
+import com.example.productservice.dto.ProductImportReport;
+import com.example.productservice.dto.ProductRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Потоковый импорт продуктов из CSV или NDJSON через `COPY ... FROM STDIN`.
+ * <p>
+ * Строки читаются из входного потока по одной, проверяются по ограничениям {@link ProductRequest}
+ * и сразу пишутся в `COPY` во временную таблицу. Каждые `product-import.chunk-size` строк
+ * временная таблица переносится в `products` одним `INSERT ... ON CONFLICT (id) DO UPDATE`
+ * вместе с записями в журнал изменений {@link ProductChangeFeed} и транзакция фиксируется,
+ * поэтому расход памяти не зависит от размера файла.
+ * Строки с `id` обновляют существующий продукт (дата создания сохраняется) или создают продукт
+ * с этим ID; строки без `id` создают новый продукт. Если ID повторяется в одной части,
+ * применяется последняя строка.
+ * <p>
+ * Строки с ошибками пропускаются и попадают в отчёт. После импорта обновляется статистика
+ * планировщика для `products` и сбрасывается локальный кэш продуктов.
+ */
+@Service
+@Slf4j
+public class ProductImportService {
+
+    /**
+     * Формат входного файла.
+     */
+    public enum Format {
+        /**
+         * CSV с заголовком. Колонки: `id` (необязательная), `name`, `description` (необязательная),
+         * `price`, `categories` (категории через `|`).
+         */
+        CSV,
+        /**
+         * Один JSON-объект {@link ProductRequest} (с необязательным полем `id`) на строку.
+         */
+        NDJSON
+    }
+
+    private static final Set<String> REQUIRED_CSV_COLUMNS = Set.of("name", "price", "categories");
+
+    private static final String CREATE_STAGING_TABLE = """
+            CREATE TEMP TABLE product_import (
+                line        BIGINT        NOT NULL,
+                id          UUID          NOT NULL,
+                name        VARCHAR(255)  NOT NULL,
+                description VARCHAR(1000),
+                price       INT           NOT NULL,
+                categories  JSONB         NOT NULL
+            ) ON COMMIT DROP
+            """;
+
+    private static final String COPY_STAGING_TABLE =
+            "COPY product_import (line, id, name, description, price, categories) FROM STDIN (FORMAT csv)";
+
+    // Загруженные строки сразу попадают в журнал изменений; xmax = 0 только у вставленных строк
+    private static final String UPSERT_PRODUCTS = """
+            WITH upserted AS (
+                INSERT INTO products (id, name, description, price, categories, created_at)
+                SELECT DISTINCT ON (id) id, name, description, price, categories, now()
+                FROM product_import
+                ORDER BY id, line DESC
+                ON CONFLICT (id) DO UPDATE SET
+                    name        = EXCLUDED.name,
+                    description = EXCLUDED.description,
+                    price       = EXCLUDED.price,
+                    categories  = EXCLUDED.categories
+                RETURNING id, name, description, price, categories, created_at, (xmax = 0) AS inserted
+            )
+            INSERT INTO product_changes (product_id, operation, payload, changed_at)
+            SELECT CAST(id AS uuid),
+                   CASE WHEN inserted THEN 'CREATED' ELSE 'UPDATED' END,
+                   jsonb_build_object(
+                       'id', id,
+                       'name', name,
+                       'description', description,
+                       'price', price / 100.0,
+                       'categories', categories,
+                       'createdAt', to_char(created_at, 'YYYY-MM-DD"T"HH24:MI:SS.US"Z"')),
+                   now()
+            FROM upserted
+            ORDER BY id
+            """;
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ProductCache productCache;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    public ProductImportService(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper,
+                                Validator validator,
+                                ProductCache productCache,
+                                @Value("${product-import.chunk-size:10000}") int chunkSize,
+                                @Value("${product-import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.productCache = productCache;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Импортировать продукты из потока. Поток не закрывается — это ответственность вызывающего кода.
+     *
+     * @param in     Содержимое файла в UTF-8.
+     * @param format Формат файла.
+     * @return Отчёт об импорте. Если импорт прерван, в отчёте заполнено поле `error`.
+     */
+    public ProductImportReport importProducts(InputStream in, Format format) {
+        long startTime = System.nanoTime();
+        ProductImportReport report = new ProductImportReport();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        try {
+            RowSource rows = format == Format.CSV ? new CsvRows(reader) : new NdjsonRows(reader);
+            boolean hasMore = true;
+            while (hasMore) {
+                hasMore = Boolean.TRUE.equals(transaction.execute(status -> importChunk(rows, report)));
+                long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startTime));
+                log.info("Импорт продуктов: обработано {}, загружено {}, отклонено {} ({} строк/с)",
+                        report.getProcessed(), report.getImported(), report.getRejected(), report.getProcessed() / seconds);
+            }
+        } catch (IllegalArgumentException e) {
+            report.fail(e.getMessage(), true);
+        } catch (UncheckedIOException e) {
+            log.error("Ошибка чтения файла импорта: {}", e.getMessage());
+            report.fail("Ошибка чтения файла: " + e.getCause().getMessage(), true);
+        } catch (IOException e) {
+            log.error("Ошибка чтения файла импорта: {}", e.getMessage());
+            report.fail("Ошибка чтения файла: " + e.getMessage(), true);
+        } catch (DataAccessException e) {
+            log.error("Импорт продуктов прерван ошибкой базы данных", e);
+            report.fail("Ошибка базы данных: " + e.getMostSpecificCause().getMessage(), false);
+        } finally {
+            if (report.getImported() > 0) {
+                // После массовой загрузки статистика планировщика устаревает
+                jdbcTemplate.execute("ANALYZE products");
+                productCache.evictAll();
+            }
+            report.finish(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        }
+
+        log.info("Импорт продуктов завершён за {} мс: загружено {}, отклонено {}",
+                report.getDurationMs(), report.getImported(), report.getRejected());
+        return report;
+    }
+
+    /**
+     * Загрузить очередную часть файла в текущей транзакции.
+     *
+     * @return true, если файл прочитан не до конца.
+     */
+    private boolean importChunk(RowSource rows, ProductImportReport report) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING_TABLE);
+            }
+
+            long copied = 0;
+            boolean hasMore = true;
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING_TABLE);
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                    new PGCopyOutputStream(copyIn, COPY_BUFFER_SIZE), StandardCharsets.UTF_8))) {
+                while (copied < chunkSize) {
+                    ImportRow row = rows.next();
+                    if (row == null) {
+                        hasMore = false;
+                        break;
+                    }
+                    report.rowProcessed();
+
+                    String error = row.error() != null ? row.error() : validate(row);
+                    if (error != null) {
+                        report.reject(row.line(), error, maxReportedErrors);
+                        continue;
+                    }
+                    writeRow(out, row);
+                    copied++;
+                }
+            } catch (IOException e) {
+                cancel(copyIn);
+                throw new UncheckedIOException(e);
+            } catch (RuntimeException e) {
+                cancel(copyIn);
+                throw e;
+            }
+
+            if (copied > 0) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(ProductChangeFeed.LOCK_SQL);
+                    statement.executeUpdate(UPSERT_PRODUCTS);
+                    statement.execute(ProductChangeFeed.NOTIFY_SQL);
+                }
+                report.chunkCommitted(copied);
+            }
+            return hasMore;
+        }));
+    }
+
+    private String validate(ImportRow row) {
+        if (row.id() != null) {
+            try {
+                UUID.fromString(row.id());
+            } catch (IllegalArgumentException e) {
+                return "Некорректный формат UUID: " + row.id();
+            }
+        }
+        Set<ConstraintViolation<ProductRequest>> violations = validator.validate(row.product());
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void writeRow(Writer out, ImportRow row) throws IOException {
+        ProductRequest product = row.product();
+        String id = row.id() != null ? UUID.fromString(row.id()).toString() : UUID.randomUUID().toString();
+        out.write(Long.toString(row.line()));
+        out.write(',');
+        out.write(id);
+        out.write(',');
+        writeCsvValue(out, product.getName());
+        out.write(',');
+        writeCsvValue(out, product.getDescription());
+        out.write(',');
+        // Цена хранится в копейках, как в Product#setPrice
+        out.write(Integer.toString((int) (product.getPrice() * 100)));
+        out.write(',');
+        writeCsvValue(out, objectMapper.writeValueAsString(product.getCategories()));
+        out.write('\n');
+    }
+
+    /**
+     * Записать значение в формате CSV для COPY: null — пустое поле без кавычек, остальное — в кавычках.
+     */
+    private static void writeCsvValue(Writer out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    private static void cancel(CopyIn copyIn) {
+        try {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        } catch (SQLException e) {
+            log.warn("Не удалось отменить COPY: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Строка файла: продукт или ошибка разбора.
+     */
+    private record ImportRow(long line, String id, ProductRequest product, String error) {
+
+        static ImportRow rejected(long line, String error) {
+            return new ImportRow(line, null, null, error);
+        }
+    }
+
+    private interface RowSource {
+
+        /**
+         * @return Следующая строка или null, если файл закончился.
+         */
+        ImportRow next() throws IOException;
+    }
+
+    private class NdjsonRows implements RowSource {
+
+        private final BufferedReader reader;
+        private long line;
+
+        NdjsonRows(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                line++;
+                if (text == null) {
+                    return null;
+                }
+            } while (text.isBlank());
+
+            try {
+                JsonNode node = objectMapper.readTree(text);
+                if (!node.isObject()) {
+                    return ImportRow.rejected(line, "Строка должна содержать JSON-объект");
+                }
+                JsonNode id = node.get("id");
+                return new ImportRow(line, id != null && !id.isNull() ? id.asText() : null,
+                        objectMapper.treeToValue(node, ProductRequest.class), null);
+            } catch (JsonProcessingException e) {
+                return ImportRow.rejected(line, "Некорректный JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private static class CsvRows implements RowSource {
+
+        private final CsvReader reader;
+        private final int idColumn;
+        private final int nameColumn;
+        private final int descriptionColumn;
+        private final int priceColumn;
+        private final int categoriesColumn;
+
+        CsvRows(BufferedReader reader) throws IOException {
+            this.reader = new CsvReader(reader);
+            List<String> header = this.reader.readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("Файл пуст");
+            }
+            List<String> columns = new ArrayList<>();
+            for (String column : header) {
+                columns.add(column.strip().toLowerCase(Locale.ROOT));
+            }
+            if (!columns.containsAll(REQUIRED_CSV_COLUMNS)) {
+                throw new IllegalArgumentException("В заголовке CSV должны быть колонки " + REQUIRED_CSV_COLUMNS
+                        + ", получено " + columns);
+            }
+            this.idColumn = columns.indexOf("id");
+            this.nameColumn = columns.indexOf("name");
+            this.descriptionColumn = columns.indexOf("description");
+            this.priceColumn = columns.indexOf("price");
+            this.categoriesColumn = columns.indexOf("categories");
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            List<String> fields = reader.readRecord();
+            if (fields == null) {
+                return null;
+            }
+            long line = reader.recordLine();
+
+            ProductRequest product = new ProductRequest();
+            product.setName(field(fields, nameColumn));
+            product.setDescription(field(fields, descriptionColumn));
+            String categories = field(fields, categoriesColumn);
+            product.setCategories(categories == null ? null : Arrays.asList(categories.split("\\|", -1)));
+
+            String price = field(fields, priceColumn);
+            if (price != null) {
+                try {
+                    float value = Float.parseFloat(price);
+                    if (!Float.isFinite(value)) {
+                        return ImportRow.rejected(line, "Некорректная цена: " + price);
+                    }
+                    product.setPrice(value);
+                } catch (NumberFormatException e) {
+                    return ImportRow.rejected(line, "Некорректная цена: " + price);
+                }
+            }
+            return new ImportRow(line, field(fields, idColumn), product, null);
+        }
+
+        /**
+         * Значение колонки; пустое значение и отсутствующая колонка считаются null.
+         */
+        private static String field(List<String> fields, int column) {
+            if (column < 0 || column >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(column);
+            return value.isEmpty() ? null : value;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.productservice.service;
+
+import com.example.productservice.cache.ProductCache;
+import com.example.productservice.dto.ProductChange;
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.ProductRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Изменение продуктов.
+ * Каждое изменение сохраняется вместе с записью в журнале {@link ProductChangeFeed} в одной транзакции;
+ * локальный кэш сбрасывается после коммита.
+ */
+@Service
+public class ProductService {
+
+    private final ProductRepository productRepository;
+    private final ProductChangeFeed productChangeFeed;
+    private final ProductCache productCache;
+    private final TransactionTemplate transaction;
+
+    public ProductService(ProductRepository productRepository,
+                          ProductChangeFeed productChangeFeed,
+                          ProductCache productCache,
+                          PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.productChangeFeed = productChangeFeed;
+        this.productCache = productCache;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Создать продукт.
+     *
+     * @param product Новый продукт без ID.
+     * @return Сохранённый продукт.
+     */
+    public Product create(Product product) {
+        return save(product, ProductChange.Operation.CREATED);
+    }
+
+    /**
+     * Сохранить изменённый продукт.
+     *
+     * @param product Продукт с изменёнными полями.
+     * @return Сохранённый продукт.
+     */
+    public Product update(Product product) {
+        return save(product, ProductChange.Operation.UPDATED);
+    }
+
+    /**
+     * Удалить продукт.
+     *
+     * @param product Удаляемый продукт.
+     */
+    public void delete(Product product) {
+        transaction.executeWithoutResult(status -> {
+            productRepository.delete(product);
+            productChangeFeed.record(ProductChange.Operation.DELETED, product);
+            productCache.evict(product.getId());
+        });
+    }
+
+    private Product save(Product product, ProductChange.Operation operation) {
+        return transaction.execute(status -> {
+            Product saved = productRepository.save(product);
+            productChangeFeed.record(operation, saved);
+            productCache.evict(saved.getId());
+            return saved;
+        });
+    }
+}
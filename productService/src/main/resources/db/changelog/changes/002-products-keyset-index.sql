@@ -0,0 +1,5 @@
+--liquibase formatted sql
+
+--changeset productService:002-products-keyset-index
+--comment: Индекс для keyset-пагинации списка продуктов по (created_at, id)
+CREATE INDEX IF NOT EXISTS idx_products_created_at_id ON products (created_at, id);
@@ -0,0 +1,6 @@
+--liquibase formatted sql
+
+--changeset productService:003-products-name-trgm-index dbms:postgresql
+--comment: Триграммный GIN-индекс для поиска продуктов по подстроке в названии (ILIKE '%...%')
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm ON products USING gin (name gin_trgm_ops);
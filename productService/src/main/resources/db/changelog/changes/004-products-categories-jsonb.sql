@@ -0,0 +1,6 @@
+--liquibase formatted sql
+
+--changeset productService:004-products-categories-jsonb dbms:postgresql
+--comment: Категории хранятся как jsonb с GIN-индексом, чтобы фильтр по категориям не читал всю таблицу
+ALTER TABLE products ALTER COLUMN categories TYPE jsonb USING categories::jsonb;
+CREATE INDEX IF NOT EXISTS idx_products_categories ON products USING gin (categories jsonb_path_ops);
@@ -0,0 +1,34 @@
+--liquibase formatted sql
+
+--changeset productService:005-product-changes dbms:postgresql
+--comment: Журнал изменений продуктов с порядковыми номерами для инкрементальной синхронизации потребителей
+CREATE TABLE IF NOT EXISTS product_changes (
+    seq        BIGSERIAL   PRIMARY KEY,
+    product_id UUID        NOT NULL,
+    operation  VARCHAR(8)  NOT NULL,
+    payload    JSONB,
+    changed_at TIMESTAMP   NOT NULL DEFAULT now()
+);
+
+-- Уплотнение журнала: поиск более новой записи того же продукта
+CREATE INDEX IF NOT EXISTS idx_product_changes_product_seq ON product_changes (product_id, seq);
+CREATE INDEX IF NOT EXISTS idx_product_changes_changed_at ON product_changes (changed_at);
+
+-- Граница удалённых записей об удалении: потребитель, отставший сильнее, должен синхронизироваться заново
+CREATE TABLE IF NOT EXISTS product_change_log_state (
+    id             INT    PRIMARY KEY CHECK (id = 1),
+    purged_through BIGINT NOT NULL
+);
+INSERT INTO product_change_log_state (id, purged_through) VALUES (1, 0) ON CONFLICT (id) DO NOTHING;
+
+-- Уже существующие продукты попадают в журнал как созданные, чтобы синхронизация с since=0 видела весь каталог
+INSERT INTO product_changes (product_id, operation, payload)
+SELECT CAST(id AS uuid), 'CREATED', jsonb_build_object(
+        'id', id,
+        'name', name,
+        'description', description,
+        'price', price / 100.0,
+        'categories', categories,
+        'createdAt', to_char(created_at, 'YYYY-MM-DD"T"HH24:MI:SS.US"Z"'))
+FROM products
+ORDER BY created_at, id;
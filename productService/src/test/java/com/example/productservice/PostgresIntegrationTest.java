@@ -0,0 +1,31 @@
+package com.example.productservice;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Основа интеграционных тестов с PostgreSQL в контейнере той же версии, что в `docker-compose.yml`.
+ * Журнал изменений, COPY и LISTEN/NOTIFY используют возможности PostgreSQL, поэтому такие тесты
+ * не заменить встроенной базой. Контейнер — бин контекста Spring, поэтому он общий для всех наследников
+ * с одинаковой конфигурацией и останавливается вместе с контекстом. Без Docker тесты пропускаются.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+@Import(PostgresIntegrationTest.Containers.class)
+public abstract class PostgresIntegrationTest {
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class Containers {
+
+        @Bean
+        @ServiceConnection
+        PostgreSQLContainer<?> postgres() {
+            return new PostgreSQLContainer<>("postgres:15");
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.productservice.cache;
+
+import com.example.common.replica.ReplicaProperties;
+import com.example.productservice.config.ProductCacheProperties;
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductCacheTest {
+
+    private ProductRepository productRepository;
+    private ProductCache productCache;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        productCache = new ProductCache(productRepository, new ProductCacheProperties(), new ReplicaProperties(),
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void findByIdIsLoadedOnceUntilEvicted() {
+        Product product = product("Ноутбук");
+        when(productRepository.findById(product.getId())).thenReturn(Optional.of(product));
+
+        productCache.findById(product.getId());
+        productCache.findById(product.getId().toUpperCase());
+        verify(productRepository, times(1)).findById(product.getId());
+
+        productCache.evict(product.getId());
+        productCache.findById(product.getId());
+        verify(productRepository, times(2)).findById(product.getId());
+    }
+
+    @Test
+    void findAllByIdLoadsOnlyMissingProducts() {
+        Product cached = product("Ноутбук");
+        Product loaded = product("Мышь");
+        String missing = UUID.randomUUID().toString();
+        when(productRepository.findById(cached.getId())).thenReturn(Optional.of(cached));
+        // Кэш передаёт недостающие ключи в произвольном порядке
+        when(productRepository.findAllById(argThat(ids -> Set.copyOf((List<String>) ids).equals(Set.of(loaded.getId(), missing)))))
+                .thenReturn(List.of(loaded));
+
+        productCache.findById(cached.getId());
+        List<Product> products = productCache.findAllById(List.of(loaded.getId(), cached.getId(), missing));
+
+        assertEquals(List.of(loaded, cached), products);
+        // Отсутствующий продукт закэширован, повторный запрос не доходит до базы
+        assertEquals(List.of(), productCache.findAllById(List.of(missing)));
+        verify(productRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void evictDuringLoadDiscardsLoadedValue() throws Exception {
+        Product stale = product("Старое название");
+        Product fresh = product("Новое название");
+        fresh.setId(stale.getId());
+
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+        when(productRepository.findAllById(List.of(stale.getId()))).thenAnswer(invocation -> {
+            loading.countDown();
+            evicted.await(5, TimeUnit.SECONDS);
+            return List.of(stale);
+        });
+
+        CompletableFuture<List<Product>> reader = CompletableFuture.supplyAsync(
+                () -> productCache.findAllById(List.of(stale.getId())));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        productCache.evict(stale.getId());
+        evicted.countDown();
+        reader.get(5, TimeUnit.SECONDS);
+
+        when(productRepository.findById(stale.getId())).thenReturn(Optional.of(fresh));
+        assertEquals("Новое название", productCache.findById(stale.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void searchResultsAreDroppedOnAnyWrite() {
+        when(productRepository.searchByName(anyString(), anyString(), anyString(), anyInt())).thenReturn(List.of());
+
+        productCache.search("ноут", 20);
+        productCache.search("ноут", 20);
+        verify(productRepository, times(1)).searchByName("ноут", "%ноут%", "ноут%", 20);
+
+        productCache.evict(UUID.randomUUID().toString());
+        productCache.search("ноут", 20);
+        verify(productRepository, times(2)).searchByName("ноут", "%ноут%", "ноут%", 20);
+    }
+
+    private static Product product(String name) {
+        Product product = new Product();
+        product.setId(UUID.randomUUID().toString());
+        product.setName(name);
+        product.setPrice(100f);
+        product.setCategories(List.of("Электроника"));
+        return product;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.productservice.dto;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChangeCursorTest {
+
+    @Test
+    void startIsNeverReset() {
+        assertEquals(ChangeCursor.START, ChangeCursor.decode("0"));
+        assertEquals("0", ChangeCursor.START.encode());
+        assertFalse(ChangeCursor.START.resetRequired(1_000));
+    }
+
+    @Test
+    void cursorIssuedAfterPurgeIsNotReset() {
+        // Первичная синхронизация: позиция меньше границы, но очистка была до выдачи курсора
+        assertFalse(new ChangeCursor(10, 500).resetRequired(500));
+    }
+
+    @Test
+    void cursorIssuedBeforePurgeIsReset() {
+        assertTrue(new ChangeCursor(10, 500).resetRequired(600));
+        // Очищены только записи, которые потребитель уже прошёл
+        assertFalse(new ChangeCursor(700, 500).resetRequired(600));
+    }
+
+    @Test
+    void plainNumberIsCursorFromBeforeAnyPurge() {
+        ChangeCursor cursor = ChangeCursor.decode("42");
+        assertEquals(new ChangeCursor(42, 0), cursor);
+        assertTrue(cursor.resetRequired(100));
+    }
+
+    @Test
+    void encodedCursorRoundTrips() {
+        ChangeCursor cursor = new ChangeCursor(1042, 1000);
+        assertEquals(cursor, ChangeCursor.decode(cursor.encode()));
+        assertThrows(IllegalArgumentException.class, () -> ChangeCursor.decode("не курсор"));
+        assertThrows(IllegalArgumentException.class, () -> ChangeCursor.decode(""));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.productservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvReaderTest {
+
+    @Test
+    void readsQuotedValuesWithSeparatorsQuotesAndLineBreaks() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(
+                "name,description\n\"Товар, \"\"1\"\"\",\"строка 1\nстрока 2\"\nпростой,\n"));
+
+        assertEquals(List.of("name", "description"), reader.readRecord());
+        assertEquals(List.of("Товар, \"1\"", "строка 1\nстрока 2"), reader.readRecord());
+        assertEquals(2, reader.recordLine());
+        assertEquals(List.of("простой", ""), reader.readRecord());
+        assertEquals(4, reader.recordLine());
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    void handlesCrLfBlankLinesAndMissingTrailingLineBreak() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a,b\r\n\r\nc,d"));
+
+        assertEquals(List.of("a", "b"), reader.readRecord());
+        assertEquals(List.of("c", "d"), reader.readRecord());
+        assertEquals(3, reader.recordLine());
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    void rejectsUnclosedQuote() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a,b\n\"не закрыто,c\n"));
+
+        reader.readRecord();
+        assertThrows(IllegalArgumentException.class, reader::readRecord);
+    }
+}
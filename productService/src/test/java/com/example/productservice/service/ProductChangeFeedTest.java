@@ -0,0 +1,216 @@
+package com.example.productservice.service;
+
+import com.example.productservice.PostgresIntegrationTest;
+import com.example.productservice.dto.ChangeCursor;
+import com.example.productservice.dto.ProductChange;
+import com.example.productservice.dto.ProductChangePage;
+import com.example.productservice.model.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductChangeFeedTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductChangeFeed productChangeFeed;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentWritersAreReadInSequenceOrderWithoutGaps() throws Exception {
+        ChangeCursor cursor = cursorAtEnd();
+        Set<UUID> created = ConcurrentHashMap.newKeySet();
+        Set<UUID> seen = new HashSet<>();
+        List<Future<?>> writers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int writer = 0; writer < 8; writer++) {
+                int number = writer;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 25; i++) {
+                        Product product = productService.create(product("Товар " + number + "-" + i));
+                        created.add(UUID.fromString(product.getId()));
+                    }
+                }));
+            }
+
+            // Читатель идёт по журналу одновременно с записью: запись с меньшим номером,
+            // зафиксированная после чтения большего, была бы пропущена
+            long lastSeq = cursor.seq();
+            while (true) {
+                boolean writersDone = writers.stream().allMatch(Future::isDone);
+                ProductChangePage page = productChangeFeed.read(cursor, 50);
+                assertFalse(page.isResetRequired());
+                for (ProductChange change : page.getItems()) {
+                    assertTrue(change.getSeq() > lastSeq, "Номера изменений должны расти");
+                    lastSeq = change.getSeq();
+                    seen.add(change.getProductId());
+                }
+                cursor = ChangeCursor.decode(page.getNext());
+                if (writersDone && page.getItems().isEmpty()) {
+                    break;
+                }
+            }
+        }
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+
+        assertEquals(200, created.size());
+        assertEquals(created, seen);
+    }
+
+    @Test
+    void compactionKeepsLatestStateOfProduct() {
+        Product product = productService.create(product("Старое название"));
+        product.setName("Промежуточное название");
+        productService.update(product);
+        product.setName("Новое название");
+        productService.update(product);
+
+        backdate(product, "2 hours");
+        productChangeFeed.compact();
+
+        List<ProductChange> changes = changesOf(product);
+        assertEquals(1, changes.size());
+        assertEquals(ProductChange.Operation.UPDATED, changes.getFirst().getOperation());
+        assertTrue(changes.getFirst().getProduct().contains("Новое название"));
+    }
+
+    @Test
+    void recentChangesAreNotCompacted() {
+        Product product = productService.create(product("Недавний продукт"));
+        product.setName("Недавний продукт 2");
+        productService.update(product);
+
+        productChangeFeed.compact();
+
+        assertEquals(2, changesOf(product).size());
+    }
+
+    @Test
+    void consumerHoldingCursorFromBeforePurgeMustReset() {
+        Product product = productService.create(product("Удаляемый продукт"));
+        ChangeCursor seenCreation = cursorAtEnd();
+
+        purgeTombstoneOf(product);
+
+        assertTrue(changesOf(product).isEmpty());
+        ProductChangePage page = productChangeFeed.read(seenCreation, 100);
+        assertTrue(page.isResetRequired());
+        assertTrue(page.getItems().isEmpty());
+        assertEquals(seenCreation.encode(), page.getNext());
+    }
+
+    @Test
+    void syncFromStartAfterPurgeIsNeverReset() {
+        for (int i = 0; i < 15; i++) {
+            productService.create(product("Продукт до очистки " + i));
+        }
+        purgeTombstoneOf(productService.create(product("Удаляемый продукт")));
+        productService.create(product("Продукт после очистки"));
+
+        // Курсоры первых страниц меньше границы очистки, но выданы после неё
+        ChangeCursor cursor = ChangeCursor.decode("0");
+        int pages = 0;
+        while (true) {
+            ProductChangePage page = productChangeFeed.read(cursor, 10);
+            assertFalse(page.isResetRequired(), "Страница " + pages);
+            if (page.getItems().isEmpty()) {
+                break;
+            }
+            cursor = ChangeCursor.decode(page.getNext());
+            pages++;
+        }
+        assertTrue(pages > 1);
+    }
+
+    @Test
+    void purgeDuringSyncFromStartRequiresReset() {
+        productService.create(product("Продукт до синхронизации"));
+        ProductChangePage first = productChangeFeed.read(ChangeCursor.START, 1);
+        ChangeCursor cursor = ChangeCursor.decode(first.getNext());
+
+        purgeTombstoneOf(productService.create(product("Удаляемый продукт")));
+
+        assertTrue(productChangeFeed.read(cursor, 10).isResetRequired());
+        assertFalse(productChangeFeed.read(ChangeCursor.START, 10).isResetRequired());
+    }
+
+    @Test
+    void longPollIsWokenByNotification() throws InterruptedException {
+        DeferredResult<ProductChangePage> result = productChangeFeed.poll(cursorAtEnd(), 100, Duration.ofSeconds(30));
+        assertFalse(result.hasResult());
+
+        Product product = productService.create(product("Ожидаемый продукт"));
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!result.hasResult() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(result.hasResult(), "Ожидание не прервано уведомлением");
+        ProductChangePage page = (ProductChangePage) result.getResult();
+        assertEquals(UUID.fromString(product.getId()), page.getItems().getFirst().getProductId());
+    }
+
+    /**
+     * Удалить продукт и очистить запись об удалении, как после истечения срока хранения.
+     */
+    private void purgeTombstoneOf(Product product) {
+        productService.delete(product);
+        backdate(product, "8 days");
+        productChangeFeed.compact();
+    }
+
+    private void backdate(Product product, String interval) {
+        jdbcTemplate.update("UPDATE product_changes SET changed_at = now() - CAST(? AS interval) WHERE product_id = ?",
+                interval, UUID.fromString(product.getId()));
+    }
+
+    private ChangeCursor cursorAtEnd() {
+        return new ChangeCursor(
+                jdbcTemplate.queryForObject("SELECT coalesce(max(seq), 0) FROM product_changes", Long.class),
+                jdbcTemplate.queryForObject("SELECT purged_through FROM product_change_log_state", Long.class));
+    }
+
+    private List<ProductChange> changesOf(Product product) {
+        UUID id = UUID.fromString(product.getId());
+        List<ProductChange> changes = new ArrayList<>();
+        ChangeCursor cursor = ChangeCursor.START;
+        while (true) {
+            ProductChangePage page = productChangeFeed.read(cursor, 1000);
+            if (page.getItems().isEmpty()) {
+                return changes;
+            }
+            page.getItems().stream().filter(change -> change.getProductId().equals(id)).forEach(changes::add);
+            cursor = ChangeCursor.decode(page.getNext());
+        }
+    }
+
+    private static Product product(String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(100f);
+        product.setCategories(List.of("Тест"));
+        return product;
+    }
+}
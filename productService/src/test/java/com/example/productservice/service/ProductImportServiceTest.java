@@ -0,0 +1,182 @@
+package com.example.productservice.service;
+
+import com.example.productservice.PostgresIntegrationTest;
+import com.example.productservice.cache.ProductCache;
+import com.example.productservice.dto.ProductImportReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductImportServiceTest extends PostgresIntegrationTest {
+
+    private static final int CHUNK_SIZE = 3;
+    private static final int MAX_REPORTED_ERRORS = 2;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ProductCache productCache;
+
+    private ProductImportService importService;
+    // Названия продуктов уникальны для каждого теста: база общая для всех тестов контекста
+    private String prefix;
+
+    @BeforeEach
+    void setUp() {
+        // Маленькая часть, чтобы проверить границы частей, не меняя настройки общего контекста
+        importService = new ProductImportService(jdbcTemplate, transactionManager, objectMapper, validator,
+                productCache, CHUNK_SIZE, MAX_REPORTED_ERRORS);
+        prefix = "Импорт " + UUID.randomUUID();
+    }
+
+    @Test
+    void everyChunkIsCommittedSeparately() {
+        StringBuilder csv = new StringBuilder("name,price,categories\n");
+        for (int i = 0; i < 7; i++) {
+            csv.append(prefix).append(' ').append(i).append(",10.5,Тест|Импорт\n");
+        }
+
+        ProductImportReport report = importCsv(csv.toString());
+
+        assertNull(report.getError());
+        assertEquals(7, report.getProcessed());
+        assertEquals(7, report.getImported());
+        assertEquals(3, report.getChunks());
+        assertEquals(7, countImported());
+        assertEquals(1050, jdbcTemplate.queryForObject(
+                "SELECT price FROM products WHERE name = ?", Integer.class, prefix + " 6"));
+    }
+
+    @Test
+    void databaseErrorRollsBackOnlyCurrentChunk() {
+        // Ограничение, которое проходит проверку строки, но нарушается при вставке
+        jdbcTemplate.execute("ALTER TABLE products ADD CONSTRAINT test_rejected_name "
+                + "CHECK (name <> 'Отвергнутый базой')");
+        try {
+            String csv = "name,price,categories\n"
+                    + prefix + " 1,10,Тест\n"
+                    + prefix + " 2,10,Тест\n"
+                    + prefix + " 3,10,Тест\n"
+                    + prefix + " 4,10,Тест\n"
+                    + "Отвергнутый базой,10,Тест\n"
+                    + prefix + " 6,10,Тест\n"
+                    + prefix + " 7,10,Тест\n";
+
+            ProductImportReport report = importCsv(csv);
+
+            assertTrue(report.getError().startsWith("Ошибка базы данных"), report.getError());
+            assertFalse(report.isClientError());
+            assertEquals(3, report.getImported());
+            assertEquals(1, report.getChunks());
+            // Первая часть зафиксирована, вторая откатилась целиком, третья не читалась
+            assertEquals(List.of(prefix + " 1", prefix + " 2", prefix + " 3"), jdbcTemplate.queryForList(
+                    "SELECT name FROM products WHERE name LIKE ? ORDER BY name", String.class, prefix + "%"));
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE products DROP CONSTRAINT test_rejected_name");
+        }
+    }
+
+    @Test
+    void lastRowWinsWhenIdRepeatsInChunk() {
+        UUID id = UUID.randomUUID();
+        String csv = "id,name,description,price,categories\n"
+                + id + "," + prefix + " первая,Первая версия,10,Тест\n"
+                + id + "," + prefix + " вторая,Вторая версия,20,Тест|Новая\n";
+
+        ProductImportReport report = importCsv(csv);
+
+        assertNull(report.getError());
+        assertEquals(2, report.getImported());
+        Map<String, Object> product = jdbcTemplate.queryForMap(
+                "SELECT name, description, price, categories::text AS categories FROM products WHERE id = ?", id);
+        assertEquals(prefix + " вторая", product.get("name"));
+        assertEquals("Вторая версия", product.get("description"));
+        assertEquals(2000, product.get("price"));
+        assertEquals("[\"Тест\", \"Новая\"]", product.get("categories"));
+        assertEquals(1, countImported());
+    }
+
+    @Test
+    void rejectedRowsAreReportedAndSkipped() {
+        String csv = "id,name,price,categories\n"
+                + "," + prefix + " 1,10,Тест\n"
+                + ",,10,Тест\n"
+                + "," + prefix + " 3,дорого,Тест\n"
+                + "не-uuid," + prefix + " 4,10,Тест\n"
+                + "," + prefix + " 5,10,Тест\n";
+
+        ProductImportReport report = importCsv(csv);
+
+        assertNull(report.getError());
+        assertEquals(5, report.getProcessed());
+        assertEquals(2, report.getImported());
+        assertEquals(3, report.getRejected());
+        // В отчёт попадают только первые max-reported-errors строк, номера строк считаются с заголовком
+        assertEquals(List.of(
+                new ProductImportReport.RejectedRow(3, "name: Название продукта обязательно."),
+                new ProductImportReport.RejectedRow(4, "Некорректная цена: дорого")), report.getRejectedRows());
+        assertEquals(2, countImported());
+    }
+
+    @Test
+    void ndjsonRowsAreImportedAndInvalidJsonIsRejected() {
+        String ndjson = "{\"name\":\"" + prefix + " 1\",\"price\":10,\"categories\":[\"Тест\"]}\n"
+                + "\n"
+                + "{\"name\":\"" + prefix + " 2\",\n"
+                + "[1,2]\n";
+
+        ProductImportReport report = importService.importProducts(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), ProductImportService.Format.NDJSON);
+
+        assertEquals(1, report.getImported());
+        assertEquals(2, report.getRejected());
+        assertEquals(3, report.getRejectedRows().get(0).line());
+        assertEquals(new ProductImportReport.RejectedRow(4, "Строка должна содержать JSON-объект"),
+                report.getRejectedRows().get(1));
+    }
+
+    @Test
+    void csvWithoutRequiredColumnsIsClientError() {
+        ProductImportReport report = importCsv("name,price\n" + prefix + ",10\n");
+
+        assertTrue(report.getError().contains("categories"), report.getError());
+        assertTrue(report.isClientError());
+        assertEquals(0, report.getImported());
+    }
+
+    private ProductImportReport importCsv(String csv) {
+        return importService.importProducts(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ProductImportService.Format.CSV);
+    }
+
+    private int countImported() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM products WHERE name LIKE ?", Integer.class, prefix + "%");
+        return count == null ? 0 : count;
+    }
+}